@@ -0,0 +1,176 @@
+package net.profitwarning.api;
+
+import net.profitwarning.api.support.RedisStub;
+import net.profitwarning.api.support.ReportTable;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold-start report for {@link ApiServiceApplication}: launches the application in a fresh JVM per
+ * run and records the time from process start until {@code GET /api/v1/messages} first answers
+ * {@code 200}, and the resident set size at that moment. An in-memory H2 database and a
+ * {@link RedisStub} stand in for Postgres and Redis, so it runs anywhere:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=net.profitwarning.api.StartupBenchmark -Dbenchmark.args=
+ * </pre>
+ * Compares the default startup with the {@code fast-start} profile. When the classes were built
+ * with {@code -Paot} (e.g. {@code mvn -Paot,benchmarks package -DskipTests exec:exec ...}) it adds
+ * {@code fast-start} with {@code -Dspring.aot.enabled=true}. The JVM AOT cache needs the packaged
+ * jar and is measured on the Docker image instead (README "Fast Startup").
+ */
+public final class StartupBenchmark {
+
+    private static final int DEFAULT_RUNS = 5;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private StartupBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_RUNS;
+        List<Variant> variants = new ArrayList<>(List.of(
+                new Variant("default", List.of(), "docker"),
+                new Variant("fast-start", List.of(), "docker,fast-start")));
+        if (aotProcessed()) {
+            variants.add(new Variant("fast-start+aot", List.of("-Dspring.aot.enabled=true"), "docker,fast-start"));
+        }
+
+        StartupBenchmark benchmark = new StartupBenchmark();
+        ReportTable table = new ReportTable(System.out)
+                .text("variant", 16)
+                .number("runs", 6)
+                .number("first req (ms)", 14)
+                .number("rss (MB)", 14);
+        table.printHeader();
+        try (RedisStub redis = new RedisStub()) {
+            for (Variant variant : variants) {
+                // One discarded run warms the OS page cache for the jars
+                benchmark.measure(variant, redis.getPort());
+                long[] firstRequest = new long[runs];
+                long[] rss = new long[runs];
+                for (int i = 0; i < runs; i++) {
+                    Sample sample = benchmark.measure(variant, redis.getPort());
+                    firstRequest[i] = sample.firstRequest().toMillis();
+                    rss[i] = sample.rssKilobytes() / 1024;
+                }
+                table.printRow(variant.name(), runs, median(firstRequest), median(rss));
+            }
+        }
+    }
+
+    private Sample measure(Variant variant, int redisPort) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(variant.jvmArgs());
+        command.addAll(List.of("-cp", System.getProperty("java.class.path"), ApiServiceApplication.class.getName()));
+        command.addAll(List.of(
+                "--server.port=" + port,
+                "--spring.profiles.active=" + variant.profiles(),
+                // Embedded stand-ins; the Flyway migrations are Postgres-only, so Hibernate creates the table
+                "--spring.datasource.url=jdbc:h2:mem:startup;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--app.startup.skip-migrations=true",
+                "--app.partitions.enabled=false",
+                "--app.outbox.relay-enabled=false",
+                "--app.outbox.listener-enabled=false",
+                "--spring.data.redis.host=localhost",
+                "--spring.data.redis.port=" + redisPort,
+                "--logging.level.root=WARN",
+                "--logging.level.net.profitwarning=WARN"));
+        long started = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            Duration firstRequest = awaitFirstRequest(process, URI.create("http://localhost:" + port + "/api/v1/messages"), started);
+            return new Sample(firstRequest, rssKilobytes(process.pid()));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private Duration awaitFirstRequest(Process process, URI uri, long started) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(10)).GET().build();
+        long deadline = started + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with " + process.exitValue());
+            }
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return Duration.ofNanos(System.nanoTime() - started);
+                }
+                throw new IllegalStateException("First request answered " + response.statusCode());
+            } catch (IOException ex) {
+                // Not listening yet
+                TimeUnit.MILLISECONDS.sleep(5);
+            }
+        }
+        throw new IllegalStateException("No response within " + STARTUP_TIMEOUT);
+    }
+
+    // Linux only; -1 elsewhere
+    private static long rssKilobytes(long pid) throws IOException {
+        Path status = Path.of("/proc", Long.toString(pid), "status");
+        if (!Files.exists(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                .findFirst()
+                .orElse(-1);
+    }
+
+    private static boolean aotProcessed() {
+        try {
+            Class.forName(ApiServiceApplication.class.getName() + "__ApplicationContextInitializer");
+            return true;
+        } catch (ClassNotFoundException ex) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private record Variant(String name, List<String> jvmArgs, String profiles) {}
+
+    private record Sample(Duration firstRequest, long rssKilobytes) {}
+}
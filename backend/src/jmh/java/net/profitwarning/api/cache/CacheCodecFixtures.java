@@ -0,0 +1,55 @@
+package net.profitwarning.api.cache;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import net.profitwarning.api.dto.MessagePageResponse;
+import net.profitwarning.api.dto.MessageResponse;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+final class CacheCodecFixtures {
+
+    static final String[] CODECS = {"compact", "jdk", "jackson"};
+
+    private CacheCodecFixtures() {
+    }
+
+    static Object value(String shape, int pageSize) {
+        return switch (shape) {
+            case "message" -> message(1);
+            case "page" -> page(pageSize);
+            default -> throw new IllegalArgumentException("Unknown shape " + shape);
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static RedisSerializer<Object> serializer(String codec, String shape) {
+        ClassLoader classLoader = CacheCodecFixtures.class.getClassLoader();
+        return switch (codec) {
+            case "compact" -> new CompactMessageRedisSerializer(classLoader);
+            case "jdk" -> RedisSerializer.java(classLoader);
+            // Jackson needs the concrete target type; this is the best case for it
+            case "jackson" -> (RedisSerializer<Object>) (RedisSerializer<?>) new Jackson2JsonRedisSerializer<>(
+                    JsonMapper.builder().addModule(new JavaTimeModule()).build(),
+                    "message".equals(shape) ? MessageResponse.class : MessagePageResponse.class);
+            default -> throw new IllegalArgumentException("Unknown codec " + codec);
+        };
+    }
+
+    private static MessagePageResponse page(int size) {
+        List<MessageResponse> items = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            items.add(message(i));
+        }
+        return new MessagePageResponse(List.copyOf(items), "AAAAAGeH2wAAAAAAAAAAAAAAAAAAAAEq");
+    }
+
+    private static MessageResponse message(long id) {
+        return new MessageResponse(1_000_000L + id, "Benchmark message number " + id,
+                Instant.parse("2026-01-15T10:30:00.123456Z").plusSeconds(id));
+    }
+}
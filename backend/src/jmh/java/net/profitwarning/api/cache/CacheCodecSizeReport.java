@@ -0,0 +1,31 @@
+package net.profitwarning.api.cache;
+
+import net.profitwarning.api.support.ReportTable;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/**
+ * Prints the encoded bytes per cache entry for each codec:
+ * {@code mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=net.profitwarning.api.cache.CacheCodecSizeReport -Dbenchmark.args=}
+ */
+public final class CacheCodecSizeReport {
+
+    private CacheCodecSizeReport() {
+    }
+
+    public static void main(String[] args) {
+        ReportTable table = new ReportTable(System.out)
+                .text("codec", 8)
+                .text("shape", 8)
+                .number("items", 8)
+                .number("bytes/entry", 12);
+        table.printHeader();
+        for (String codec : CacheCodecFixtures.CODECS) {
+            for (int pageSize : new int[]{1, 20, 100}) {
+                String shape = pageSize == 1 ? "message" : "page";
+                RedisSerializer<Object> serializer = CacheCodecFixtures.serializer(codec, shape);
+                byte[] encoded = serializer.serialize(CacheCodecFixtures.value(shape, pageSize));
+                table.printRow(codec, shape, pageSize, encoded.length);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.profitwarning.api.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.profitwarning.api.model.TestMessage;
+import net.profitwarning.api.support.InMemoryTestMessageRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON encoding of message lists with the same ObjectMapper defaults Spring MVC uses. Output goes to
+ * a discarding stream so large lists measure encoding rather than buffer growth.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MessageJsonBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int size;
+
+    private ObjectMapper objectMapper;
+    private List<MessageResponse> messages;
+    private MessagePageResponse page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        messages = InMemoryTestMessageRepository.messages(size).stream()
+                .map(MessageJsonBenchmark::toResponse)
+                .toList();
+        page = new MessagePageResponse(messages.subList(0, Math.min(size, 100)), "AAAAAGeH2wAAAAAAAAAAAAAAAAAAAAEq");
+    }
+
+    @Benchmark
+    public void writeList() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), messages);
+    }
+
+    @Benchmark
+    public void writePage() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), page);
+    }
+
+    private static MessageResponse toResponse(TestMessage message) {
+        return new MessageResponse(message.getId(), message.getContent(), message.getCreatedAt());
+    }
+}
@@ -0,0 +1,64 @@
+package net.profitwarning.api.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning exceptions into serialized ProblemDetail bodies in {@link GlobalExceptionHandler}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ProblemDetailBenchmark {
+
+    @Param({"1", "10", "100"})
+    int fieldErrors;
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private ObjectMapper objectMapper;
+    private MethodArgumentNotValidException validationException;
+    private RuntimeException generalException;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        MethodParameter parameter = new MethodParameter(
+                GlobalExceptionHandler.class.getDeclaredMethod("handleValidationErrors", MethodArgumentNotValidException.class), 0);
+        BeanPropertyBindingResult bindingResult = new BeanPropertyBindingResult(new Object(), "command");
+        for (int i = 0; i < fieldErrors; i++) {
+            bindingResult.addError(new FieldError("command", "field" + i, "must not be blank"));
+        }
+        validationException = new MethodArgumentNotValidException(parameter, bindingResult);
+        generalException = new RuntimeException("Unexpected error");
+    }
+
+    @Benchmark
+    public byte[] formatValidationError() throws Exception {
+        return objectMapper.writeValueAsBytes(handler.handleValidationErrors(validationException));
+    }
+
+    @Benchmark
+    public byte[] formatGeneralError() throws Exception {
+        return objectMapper.writeValueAsBytes(handler.handleGeneralException(generalException));
+    }
+}
@@ -0,0 +1,131 @@
+package net.profitwarning.api.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.model.TestMessage;
+import org.h2.jdbcx.JdbcDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Reading a whole table as entities and mapping them ({@code findAll(sort).stream().map(...)}) versus
+ * the constructor-expression projection of {@link TestMessageRepository}, both in a read-only
+ * transaction against an in-memory H2 database and both in {@code (created_at, id)} order, so the
+ * two sides run the same query shape. Run with {@code -prof gc} and compare
+ * {@code gc.alloc.rate.norm} for the heap cost per read:
+ * <pre>
+ * mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.args="MessageProjectionBenchmark -p rows=100000 -prof gc"
+ * </pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MessageProjectionBenchmark {
+
+    @Param({"1000", "100000"})
+    int rows;
+
+    private AnnotationConfigApplicationContext context;
+    private TestMessageRepository repository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext(JpaConfig.class);
+        repository = context.getBean(TestMessageRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<Object[]> batch = IntStream.rangeClosed(1, rows)
+                .mapToObj(i -> new Object[]{(long) i, "Benchmark message number " + i,
+                        Timestamp.from(start.plusMillis(i))})
+                .toList();
+        context.getBean(JdbcTemplate.class)
+                .batchUpdate("INSERT INTO testmessages (id, message, created_at) VALUES (?, ?, ?)", batch);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    // Every row becomes a managed entity with a persistence-context entry before it is copied
+    @Benchmark
+    public List<MessageResponse> findAllAndMap() {
+        return readOnly.execute(status -> repository.findAll(Sort.by("createdAt", "id")).stream()
+                .map(message -> new MessageResponse(message.getId(), message.getContent(), message.getCreatedAt()))
+                .toList());
+    }
+
+    @Benchmark
+    public List<MessageResponse> projectToResponse() {
+        return readOnly.execute(status -> repository.findByOrderByCreatedAtAscIdAsc(Limit.of(rows)));
+    }
+
+    @Configuration
+    @EnableJpaRepositories(basePackageClasses = TestMessageRepository.class)
+    static class JpaConfig {
+
+        @Bean
+        DataSource dataSource() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1");
+            return dataSource;
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setPackagesToScan(TestMessage.class.getPackageName());
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+            return factory;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+    }
+}
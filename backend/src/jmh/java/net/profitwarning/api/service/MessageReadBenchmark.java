@@ -0,0 +1,122 @@
+package net.profitwarning.api.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.profitwarning.api.cache.CacheNames;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.dto.MessagePageResponse;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.model.TestMessage;
+import net.profitwarning.api.repository.TestMessageRepository;
+import net.profitwarning.api.support.InMemoryTestMessageRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity-to-DTO mapping and the page read path of {@link TestMessageService}, with an in-memory
+ * repository and a {@link ConcurrentMapCacheManager} standing in for Postgres and Redis.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MessageReadBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int rows;
+
+    private List<TestMessage> entities;
+    private TestMessageService directService;
+    private AnnotationConfigApplicationContext cachedContext;
+    private TestMessageService cachedService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entities = InMemoryTestMessageRepository.messages(rows);
+        TestMessageRepository repository = InMemoryTestMessageRepository.create(entities);
+        directService = new TestMessageService(repository, new FixedCollectionVersion(), event -> { },
+                new ConcurrentMapCacheManager(CacheNames.MESSAGES), new SimpleMeterRegistry());
+
+        cachedContext = new AnnotationConfigApplicationContext();
+        cachedContext.registerBean(TestMessageRepository.class, () -> repository);
+        cachedContext.register(CachingConfig.class, TestMessageService.class);
+        cachedContext.refresh();
+        cachedService = cachedContext.getBean(TestMessageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cachedContext.close();
+    }
+
+    // The mapping cost the old findAll().stream().map(...) list endpoint paid per request
+    @Benchmark
+    public List<MessageResponse> mapAllEntities() {
+        return entities.stream().map(TestMessageService::toResponse).toList();
+    }
+
+    @Benchmark
+    public MessagePageResponse readFirstPageUncached() {
+        return directService.getMessages(null, TestMessageService.MAX_PAGE_SIZE, null, null);
+    }
+
+    @Benchmark
+    public MessagePageResponse readFirstPageCached() {
+        return cachedService.getMessages(null, TestMessageService.MAX_PAGE_SIZE, null, null);
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(CacheNames.MESSAGES, CacheNames.MESSAGE_PAGES);
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        MessageCollectionVersion messageCollectionVersion() {
+            return new FixedCollectionVersion();
+        }
+    }
+
+    // Redis-free version counter; the read path never increments it
+    static class FixedCollectionVersion extends MessageCollectionVersion {
+
+        FixedCollectionVersion() {
+            super(null);
+        }
+
+        @Override
+        public long current() {
+            return 0L;
+        }
+    }
+}
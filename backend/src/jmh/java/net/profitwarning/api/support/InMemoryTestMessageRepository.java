@@ -0,0 +1,91 @@
+package net.profitwarning.api.support;
+
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.model.TestMessage;
+import net.profitwarning.api.repository.TestMessageRepository;
+import org.springframework.data.domain.Limit;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Offline stand-in for {@link TestMessageRepository} backed by a sorted list. Only the read methods
+ * used by the benchmarks are implemented; everything else throws.
+ */
+public final class InMemoryTestMessageRepository {
+
+    private static final Comparator<TestMessage> KEYSET_ORDER =
+            Comparator.comparing(TestMessage::getCreatedAt).thenComparing(TestMessage::getId);
+
+    private InMemoryTestMessageRepository() {
+    }
+
+    public static List<TestMessage> messages(int count) {
+        Instant start = Instant.parse("2026-01-01T00:00:00Z");
+        List<TestMessage> messages = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            messages.add(new TestMessage((long) i, "Benchmark message number " + i, start.plusMillis(i)));
+        }
+        return messages;
+    }
+
+    public static TestMessageRepository create(List<TestMessage> messages) {
+        List<TestMessage> rows = messages.stream().sorted(KEYSET_ORDER).toList();
+        return (TestMessageRepository) Proxy.newProxyInstance(
+                TestMessageRepository.class.getClassLoader(),
+                new Class<?>[]{TestMessageRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> {
+                        if (args != null && args.length > 0) {
+                            throw new UnsupportedOperationException(method.toString());
+                        }
+                        yield rows;
+                    }
+                    case "findByOrderByCreatedAtAscIdAsc" -> project(head(rows, 0, (Limit) args[0]));
+                    case "findPageAfter" ->
+                            project(head(rows, after(rows, (Instant) args[0], (Long) args[1]), (Limit) args[2]));
+                    case "findById" -> rows.stream().filter(row -> row.getId().equals(args[0])).findFirst();
+                    case "findResponseById" -> rows.stream()
+                            .filter(row -> row.getId().equals(args[0]))
+                            .findFirst()
+                            .map(InMemoryTestMessageRepository::toResponse);
+                    case "toString" -> "InMemoryTestMessageRepository[" + rows.size() + " rows]";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.toString());
+                });
+    }
+
+    private static int after(List<TestMessage> rows, Instant createdAt, Long id) {
+        int low = 0;
+        int high = rows.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            TestMessage row = rows.get(mid);
+            int cmp = row.getCreatedAt().compareTo(createdAt);
+            if (cmp < 0 || (cmp == 0 && row.getId() <= id)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Mirrors the constructor-expression projection of the real page queries
+    private static List<MessageResponse> project(List<TestMessage> rows) {
+        return rows.stream().map(InMemoryTestMessageRepository::toResponse).toList();
+    }
+
+    private static MessageResponse toResponse(TestMessage row) {
+        return new MessageResponse(row.getId(), row.getContent(), row.getCreatedAt());
+    }
+
+    private static List<TestMessage> head(List<TestMessage> rows, int from, Limit limit) {
+        int to = limit.isLimited() ? Math.min(rows.size(), from + limit.max()) : rows.size();
+        return rows.subList(Math.min(from, to), to);
+    }
+}
@@ -0,0 +1,48 @@
+package net.profitwarning.api.support;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-width table for the reports that run outside JMH ({@code CacheCodecSizeReport},
+ * {@code StartupBenchmark}). Text columns are left-aligned, number columns right-aligned.
+ */
+public final class ReportTable {
+
+    private final PrintStream out;
+    private final List<String> headers = new ArrayList<>();
+    private final StringBuilder format = new StringBuilder();
+
+    public ReportTable(PrintStream out) {
+        this.out = out;
+    }
+
+    public ReportTable text(String header, int width) {
+        return column(header, "%-" + width + "s");
+    }
+
+    public ReportTable number(String header, int width) {
+        return column(header, "%" + width + "s");
+    }
+
+    private ReportTable column(String header, String spec) {
+        if (!headers.isEmpty()) {
+            format.append(' ');
+        }
+        format.append(spec);
+        headers.add(header);
+        return this;
+    }
+
+    public void printHeader() {
+        printRow(headers.toArray());
+    }
+
+    public void printRow(Object... values) {
+        if (values.length != headers.size()) {
+            throw new IllegalArgumentException("Expected " + headers.size() + " values, got " + values.length);
+        }
+        out.printf(format + "%n", values);
+    }
+}
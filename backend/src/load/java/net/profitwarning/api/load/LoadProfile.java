@@ -0,0 +1,118 @@
+package net.profitwarning.api.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * What {@link MessageApiLoadTest} sends: the arrival rate and pattern, how long to warm up and to
+ * measure, and the share of each call in the mix. Read from {@code load.*} system properties, which
+ * Maven passes through from the command line, e.g. {@code -Dload.rate=800 -Dload.mix=list=50,by-id=30,create=20}.
+ */
+record LoadProfile(double rate,
+                   Duration duration,
+                   Duration warmup,
+                   Arrivals arrivals,
+                   Map<Operation, Integer> mix,
+                   long seed,
+                   int maxInFlight,
+                   int clients,
+                   int seedMessages) {
+
+    enum Operation {
+        /** First page of {@code GET /api/v1/messages}. */
+        LIST("list"),
+        /** {@code GET /api/v1/messages/{id}} of a message written before the run. */
+        BY_ID("by-id"),
+        /** {@code POST /api/v1/messages}. */
+        CREATE("create");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        String key() {
+            return key;
+        }
+
+        static Operation of(String key) {
+            return Arrays.stream(values())
+                    .filter(operation -> operation.key.equals(key))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown operation " + key + " in load.mix"));
+        }
+    }
+
+    enum Arrivals {
+        /** Exponentially distributed gaps, as from many independent clients. */
+        POISSON,
+        /** Evenly spaced requests. */
+        CONSTANT
+    }
+
+    LoadProfile {
+        if (rate <= 0) {
+            throw new IllegalArgumentException("load.rate must be positive");
+        }
+        if (!duration.isPositive() || !warmup.isPositive()) {
+            throw new IllegalArgumentException("load.duration and load.warmup must be positive");
+        }
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("load.max-in-flight must be at least 1");
+        }
+        if (mix.isEmpty() || mix.values().stream().anyMatch(weight -> weight < 0)
+                || mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("load.mix needs at least one positive weight");
+        }
+        if (clients < 1 || seedMessages < 1) {
+            throw new IllegalArgumentException("load.clients and load.seed-messages must be at least 1");
+        }
+        mix = Map.copyOf(mix);
+    }
+
+    static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+                Double.parseDouble(System.getProperty("load.rate", "500")),
+                DurationStyle.detectAndParse(System.getProperty("load.duration", "60s")),
+                DurationStyle.detectAndParse(System.getProperty("load.warmup", "15s")),
+                Arrivals.valueOf(System.getProperty("load.arrivals", "poisson").toUpperCase(Locale.ROOT)),
+                parseMix(System.getProperty("load.mix", "list=70,by-id=25,create=5")),
+                Long.parseLong(System.getProperty("load.seed", "42")),
+                Integer.parseInt(System.getProperty("load.max-in-flight", "2000")),
+                // Distinct API keys the requests are spread over, so per-client rate limits apply as in production
+                Integer.parseInt(System.getProperty("load.clients", "1000")),
+                Integer.parseInt(System.getProperty("load.seed-messages", "1000")));
+    }
+
+    // "list=70,by-id=25,create=5": relative weights, need not add up to 100
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed load.mix entry " + entry);
+            }
+            weights.put(Operation.of(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    Operation nextOperation(SplittableRandom random) {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int pick = random.nextInt(total);
+        for (Operation operation : Operation.values()) {
+            pick -= mix.getOrDefault(operation, 0);
+            if (pick < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Unreachable: weights add up to " + total);
+    }
+}
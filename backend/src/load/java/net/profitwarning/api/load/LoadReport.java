@@ -0,0 +1,99 @@
+package net.profitwarning.api.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the outcome of a load run as JSON, one file per run, so runs can be compared across
+ * commits. Latencies are in milliseconds; {@code histogram} holds the full HdrHistogram (compressed,
+ * Base64) for exact percentiles or merging, e.g. with {@code Histogram.decodeFromCompressedByteBuffer}.
+ */
+final class LoadReport {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    Path write(Path directory, String name, LoadProfile profile, LoadSlo slo,
+               OpenModelLoadDriver.Result result, List<String> violations) throws IOException {
+        Instant finished = Instant.now();
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("name", name);
+        report.put("finishedAt", finished.toString());
+        report.put("profile", profile(profile));
+        report.put("slo", Map.of("p99Millis", slo.p99().toNanos() / 1e6, "errorRate", slo.errorRate()));
+        report.put("passed", violations.isEmpty());
+        report.put("violations", violations);
+        report.put("elapsedSeconds", result.elapsed().toNanos() / 1e9);
+        report.put("throughputPerSecond", result.throughput());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        result.operations().forEach((operation, operationResult) -> operations.put(operation.key(), operation(operationResult)));
+        operations.put("all", operation(result.total()));
+        report.put("operations", operations);
+
+        Files.createDirectories(directory);
+        Path file = directory.resolve(name + "-" + FILE_TIMESTAMP.format(finished) + ".json");
+        objectMapper.writeValue(file.toFile(), report);
+        return file;
+    }
+
+    private static Map<String, Object> profile(LoadProfile profile) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("rate", profile.rate());
+        values.put("durationSeconds", profile.duration().toSeconds());
+        values.put("warmupSeconds", profile.warmup().toSeconds());
+        values.put("arrivals", profile.arrivals().name().toLowerCase(Locale.ROOT));
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (LoadProfile.Operation operation : LoadProfile.Operation.values()) {
+            mix.put(operation.key(), profile.mix().getOrDefault(operation, 0));
+        }
+        values.put("mix", mix);
+        values.put("seed", profile.seed());
+        values.put("maxInFlight", profile.maxInFlight());
+        values.put("clients", profile.clients());
+        values.put("seedMessages", profile.seedMessages());
+        return values;
+    }
+
+    private static Map<String, Object> operation(OpenModelLoadDriver.OperationResult result) {
+        Histogram latencies = result.latencies();
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("requests", latencies.getTotalCount());
+        values.put("errors", result.errors());
+        values.put("dropped", result.dropped());
+        values.put("errorRate", result.errorRate());
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            String key = percentile == Math.rint(percentile) ? Long.toString((long) percentile) : Double.toString(percentile);
+            percentiles.put("p" + key, latencies.getValueAtPercentile(percentile) / 1e6);
+        }
+        percentiles.put("max", latencies.getMaxValue() / 1e6);
+        percentiles.put("mean", latencies.getMean() / 1e6);
+        values.put("latencyMillis", percentiles);
+        values.put("histogram", encode(latencies));
+        return values;
+    }
+
+    private static String encode(Histogram latencies) {
+        ByteBuffer buffer = ByteBuffer.allocate(latencies.getNeededByteBufferCapacity());
+        int length = latencies.encodeIntoCompressedByteBuffer(buffer);
+        return Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length));
+    }
+}
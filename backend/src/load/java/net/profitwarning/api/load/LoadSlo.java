@@ -0,0 +1,42 @@
+package net.profitwarning.api.load;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service level objectives a load run must meet, for every operation and for the mix as a whole:
+ * a p99 latency ceiling and a maximum share of failed or dropped requests. Read from
+ * {@code load.slo.*} system properties, e.g. {@code -Dload.slo.p99=100ms -Dload.slo.error-rate=0.0005}.
+ */
+record LoadSlo(Duration p99, double errorRate) {
+
+    static LoadSlo fromSystemProperties() {
+        return new LoadSlo(
+                DurationStyle.detectAndParse(System.getProperty("load.slo.p99", "250ms")),
+                Double.parseDouble(System.getProperty("load.slo.error-rate", "0.001")));
+    }
+
+    /** One line per breached objective; empty when the run passed. */
+    List<String> violations(OpenModelLoadDriver.Result result) {
+        List<String> violations = new ArrayList<>();
+        for (Map.Entry<LoadProfile.Operation, OpenModelLoadDriver.OperationResult> operation : result.operations().entrySet()) {
+            check(operation.getKey().key(), operation.getValue(), violations);
+        }
+        check("all", result.total(), violations);
+        return violations;
+    }
+
+    private void check(String name, OpenModelLoadDriver.OperationResult result, List<String> violations) {
+        Duration observed = result.percentile(99);
+        if (observed.compareTo(p99) > 0) {
+            violations.add(String.format("%s: p99 %.1fms exceeds %dms", name, observed.toNanos() / 1e6, p99.toMillis()));
+        }
+        if (result.errorRate() > errorRate) {
+            violations.add(String.format("%s: error rate %.4f exceeds %.4f", name, result.errorRate(), errorRate));
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package net.profitwarning.api.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import net.profitwarning.api.ApiServiceApplication;
+import net.profitwarning.api.support.RedisStub;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives {@code /api/v1/messages} with the {@link LoadProfile} mix of list, by-id and create calls at
+ * a fixed arrival rate and fails when the {@link LoadSlo} is breached. The application runs with its
+ * docker profile settings against a containerless Postgres (the embedded server runs the real Flyway
+ * migrations) and {@link RedisStub}, so nothing needs to be running. Every run writes a JSON report
+ * to {@code target/load-reports}. Compiled only with {@code -Pload-tests}:
+ * <pre>
+ * mvn test -Pload-tests -Dtest=MessageApiLoadTest
+ * mvn test -Pload-tests -Dtest=MessageApiLoadTest -Dload.rate=1000 -Dload.mix=list=50,by-id=30,create=20
+ * </pre>
+ */
+@Tag("load")
+class MessageApiLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageApiLoadTest.class);
+
+    private static final Path REPORTS = Path.of("target", "load-reports");
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void messageApiMeetsSlosUnderMixedLoad() throws Exception {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        LoadSlo slo = LoadSlo.fromSystemProperties();
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             RedisStub redis = new RedisStub();
+             ConfigurableApplicationContext context = start(postgres, redis, profile)) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI messages = URI.create("http://localhost:" + port + "/api/v1/messages");
+            List<Long> ids = seed(messages, profile);
+
+            OpenModelLoadDriver driver = new OpenModelLoadDriver();
+            // Warm up JIT, pools and caches at the same rate before measuring
+            driver.run(profile, profile.warmup(), (operation, random) -> request(messages, ids, operation, random, profile));
+            OpenModelLoadDriver.Result result = driver.run(profile, profile.duration(),
+                    (operation, random) -> request(messages, ids, operation, random, profile));
+
+            List<String> violations = slo.violations(result);
+            Path report = new LoadReport().write(REPORTS, "message-api", profile, slo, result, violations);
+            logger.info("Load report written to {}", report.toAbsolutePath());
+
+            assertThat(violations).as("SLO violations, see " + report.toAbsolutePath()).isEmpty();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(EmbeddedPostgres postgres, RedisStub redis, LoadProfile profile) {
+        // Command-line arguments, so they take precedence over application-docker.properties
+        return new SpringApplicationBuilder(ApiServiceApplication.class).run(
+                "--server.port=0",
+                "--spring.profiles.active=docker",
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=",
+                "--spring.data.redis.host=" + InetAddress.getLoopbackAddress().getHostAddress(),
+                "--spring.data.redis.port=" + redis.getPort(),
+                "--spring.jpa.show-sql=false",
+                "--logging.level.net.profitwarning=INFO",
+                // The outbox relay and its listener need Redis Streams, the distributed limiter and load
+                // lock need Lua scripts; RedisStub has neither. Per-node limits and shedding stay on.
+                "--app.outbox.relay-enabled=false",
+                "--app.outbox.listener-enabled=false",
+                "--app.rate-limit.mode=local",
+                // Only configured keys get their own bucket; otherwise every client shares the loopback address
+                "--app.rate-limit.api-keys=" + IntStream.range(0, profile.clients())
+                        .mapToObj(MessageApiLoadTest::clientKey)
+                        .collect(Collectors.joining(",")),
+                "--app.cache.load.distributed-lock=false");
+    }
+
+    // Writes the messages the by-id calls read, spread over the clients like the load itself
+    private List<Long> seed(URI messages, LoadProfile profile) throws Exception {
+        List<Long> ids = new ArrayList<>(profile.seedMessages());
+        for (int i = 0; i < profile.seedMessages(); i++) {
+            HttpResponse<String> response = httpClient.send(
+                    create(messages, "seed " + i, clientKey(i % profile.clients())),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(response.statusCode()).as(response.body()).isEqualTo(201);
+            ids.add(objectMapper.readTree(response.body()).get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static HttpRequest request(URI messages, List<Long> ids, LoadProfile.Operation operation,
+                                       SplittableRandom random, LoadProfile profile) {
+        String client = clientKey(random.nextInt(profile.clients()));
+        return switch (operation) {
+            case LIST -> HttpRequest.newBuilder(URI.create(messages + "?size=20"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("X-API-Key", client)
+                    .GET()
+                    .build();
+            case BY_ID -> HttpRequest.newBuilder(URI.create(messages + "/" + ids.get(random.nextInt(ids.size()))))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("X-API-Key", client)
+                    .GET()
+                    .build();
+            case CREATE -> create(messages, "load " + random.nextInt(1_000_000), client);
+        };
+    }
+
+    private static String clientKey(int client) {
+        return "load-client-" + client;
+    }
+
+    private static HttpRequest create(URI messages, String content, String client) {
+        return HttpRequest.newBuilder(messages)
+                .timeout(REQUEST_TIMEOUT)
+                .header("X-API-Key", client)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"" + content + "\"}"))
+                .build();
+    }
+}
@@ -0,0 +1,151 @@
+package net.profitwarning.api.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiFunction;
+
+/**
+ * Open-model HTTP load: requests arrive at a target rate whether or not earlier ones have been
+ * answered, the way independent users hit a service, unlike the closed model of
+ * {@link net.profitwarning.api.support.LoadDriver}. Each request is sent on its own virtual thread.
+ * Latency is measured from the moment a request was due, not from when it was sent, so a stalled
+ * server shows up in the percentiles instead of slowing the arrivals down (no coordinated omission).
+ */
+final class OpenModelLoadDriver {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    /**
+     * Sends {@code requests} for {@code duration} at {@code profile.rate()} per second and waits for
+     * the last response. Arrivals that find {@code profile.maxInFlight()} requests outstanding are
+     * not sent and count as errors.
+     */
+    Result run(LoadProfile profile, Duration duration, BiFunction<LoadProfile.Operation, SplittableRandom, HttpRequest> requests) {
+        SplittableRandom random = new SplittableRandom(profile.seed());
+        Map<LoadProfile.Operation, Recorder> recorders = new ConcurrentHashMap<>();
+        Semaphore inFlight = new Semaphore(profile.maxInFlight());
+        double meanGapNanos = 1e9 / profile.rate();
+        long began = System.nanoTime();
+        long end = began + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long due = began; due < end; due += gap(profile.arrivals(), meanGapNanos, random)) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                LoadProfile.Operation operation = profile.nextOperation(random);
+                HttpRequest request = requests.apply(operation, random);
+                Recorder recorder = recorders.computeIfAbsent(operation, key -> new Recorder());
+                if (!inFlight.tryAcquire()) {
+                    recorder.dropped.increment();
+                    continue;
+                }
+                long dueAt = due;
+                executor.submit(() -> {
+                    try {
+                        HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                        // 304 answers a conditional read; anything else outside 2xx is a failure
+                        if (response.statusCode() >= 300 && response.statusCode() != 304) {
+                            recorder.errors.increment();
+                        }
+                    } catch (Exception ex) {
+                        recorder.errors.increment();
+                    } finally {
+                        recorder.latencies.recordValue(System.nanoTime() - dueAt);
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - began);
+        Map<LoadProfile.Operation, OperationResult> operations = new LinkedHashMap<>();
+        for (LoadProfile.Operation operation : LoadProfile.Operation.values()) {
+            Recorder recorder = recorders.get(operation);
+            if (recorder != null) {
+                operations.put(operation, new OperationResult(recorder.latencies.copy(),
+                        recorder.errors.sum(), recorder.dropped.sum()));
+            }
+        }
+        return new Result(operations, elapsed);
+    }
+
+    // Poisson arrivals have exponentially distributed gaps with the same mean as the constant ones
+    private static long gap(LoadProfile.Arrivals arrivals, double meanGapNanos, SplittableRandom random) {
+        return switch (arrivals) {
+            case CONSTANT -> Math.round(meanGapNanos);
+            case POISSON -> Math.max(1, Math.round(-Math.log(1.0 - random.nextDouble()) * meanGapNanos));
+        };
+    }
+
+    private static final class Recorder {
+
+        // Auto-resizing with three significant digits; values are nanoseconds
+        final ConcurrentHistogram latencies = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+
+    record Result(Map<LoadProfile.Operation, OperationResult> operations, Duration elapsed) {
+
+        OperationResult total() {
+            Histogram latencies = new Histogram(3);
+            long errors = 0;
+            long dropped = 0;
+            for (OperationResult operation : operations.values()) {
+                latencies.add(operation.latencies());
+                errors += operation.errors();
+                dropped += operation.dropped();
+            }
+            return new OperationResult(latencies, errors, dropped);
+        }
+
+        double throughput() {
+            return total().latencies().getTotalCount() / (elapsed.toNanos() / 1e9);
+        }
+    }
+
+    /** Latencies of the requests that were sent; {@code errors} excludes {@code dropped}. */
+    record OperationResult(Histogram latencies, long errors, long dropped) {
+
+        long arrivals() {
+            return latencies.getTotalCount() + dropped;
+        }
+
+        double errorRate() {
+            return arrivals() == 0 ? 0 : (double) (errors + dropped) / arrivals();
+        }
+
+        Duration percentile(double percentile) {
+            return Duration.ofNanos(latencies.getValueAtPercentile(percentile));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d dropped=%d p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                    latencies.getTotalCount(), errors, dropped, millis(percentile(50)), millis(percentile(99)),
+                    millis(percentile(99.9)), millis(Duration.ofNanos(latencies.getMaxValue())));
+        }
+
+        private static double millis(Duration duration) {
+            return duration.toNanos() / 1e6;
+        }
+    }
+}
@@ -3,9 +3,22 @@ package net.profitwarning.api;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// With -Preactive the R2DBC and reactive Redis starters are on the classpath too. Their auto-configuration
+// belongs to ReactiveApiApplication only: a second TransactionManager here would make every @Transactional
+// ambiguous. Excluded by name, since the classes are absent in the default build.
+@SpringBootApplication(excludeName = {
+        "org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration",
+        "org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.r2dbc.R2dbcRepositoriesAutoConfiguration",
+        "org.springframework.boot.autoconfigure.data.redis.RedisReactiveAutoConfiguration"
+})
 @EnableCaching
+@EnableAsync
+@EnableScheduling
 public class ApiServiceApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,11 @@
+package net.profitwarning.api.cache;
+
+public final class CacheNames {
+
+    public static final String MESSAGES = "testMessages";
+    public static final String MESSAGE_PAGES = "testMessagePages";
+    public static final String MESSAGE_SEARCH = "testMessageSearch";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,271 @@
+package net.profitwarning.api.cache;
+
+import net.profitwarning.api.dto.MessagePageResponse;
+import net.profitwarning.api.dto.MessageResponse;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Schema-aware binary codec for the message cache values.
+ *
+ * <p>Layout: one type tag byte followed by the body. A message is a presence bit set, then a
+ * zig-zag varint id, a varint-length-prefixed UTF-8 content and the creation instant as zig-zag
+ * varint seconds plus varint nanos. Lists are a varint count followed by the messages; a page is a
+ * list followed by an optional UTF-8 cursor. A {@link StampedValue} is its write time as zig-zag
+ * varint epoch millis and its load time as varint nanos, followed by the encoded value. Values of
+ * any other type, and entries written by the
+ * JDK serializer before this codec was enabled, are handled by the JDK fallback.
+ */
+public class CompactMessageRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte NULL_VALUE = 0;
+    private static final byte MESSAGE = 1;
+    private static final byte MESSAGE_LIST = 2;
+    private static final byte MESSAGE_PAGE = 3;
+    private static final byte STAMPED = 4;
+    private static final byte JDK = 0x7F;
+
+    // First byte of the java.io serialization stream magic (0xACED)
+    private static final byte JDK_STREAM_MAGIC = (byte) 0xAC;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_CONTENT = 1 << 1;
+    private static final int HAS_CREATED_AT = 1 << 2;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CompactMessageRedisSerializer(ClassLoader classLoader) {
+        this.fallback = RedisSerializer.java(classLoader);
+    }
+
+    @Override
+    public byte[] serialize(@Nullable Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+        Output out = new Output();
+        switch (value) {
+            case NullValue ignored -> out.writeByte(NULL_VALUE);
+            case StampedValue stamped -> {
+                out.writeByte(STAMPED);
+                out.writeZigZag(stamped.writtenAtMillis());
+                out.writeVarLong(stamped.loadNanos());
+                out.writeBytes(serialize(stamped.value()));
+            }
+            case MessageResponse message -> {
+                out.writeByte(MESSAGE);
+                writeMessage(out, message);
+            }
+            case MessagePageResponse page when isMessageList(page.items()) -> {
+                out.writeByte(MESSAGE_PAGE);
+                writeMessages(out, page.items());
+                writeNullableString(out, page.nextCursor());
+            }
+            case List<?> list when isMessageList(list) -> {
+                out.writeByte(MESSAGE_LIST);
+                writeMessages(out, list);
+            }
+            default -> {
+                out.writeByte(JDK);
+                out.writeBytes(fallback.serialize(value));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(@Nullable byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JDK_STREAM_MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        Input in = new Input(bytes);
+        try {
+            return switch (in.readByte()) {
+                case NULL_VALUE -> NullValue.INSTANCE;
+                case MESSAGE -> readMessage(in);
+                case MESSAGE_LIST -> readMessages(in);
+                case MESSAGE_PAGE -> new MessagePageResponse(readMessages(in), readNullableString(in));
+                case STAMPED -> readStamped(bytes, in);
+                case JDK -> fallback.deserialize(Arrays.copyOfRange(bytes, 1, bytes.length));
+                default -> throw new SerializationException("Unknown cache value tag " + bytes[0]);
+            };
+        } catch (ArrayIndexOutOfBoundsException ex) {
+            throw new SerializationException("Truncated cache value", ex);
+        }
+    }
+
+    private StampedValue readStamped(byte[] bytes, Input in) {
+        long writtenAtMillis = in.readZigZag();
+        long loadNanos = in.readVarLong();
+        Object value = deserialize(Arrays.copyOfRange(bytes, in.position, bytes.length));
+        if (value == null) {
+            throw new SerializationException("Stamped cache value without a value");
+        }
+        return new StampedValue(value, writtenAtMillis, loadNanos);
+    }
+
+    private static boolean isMessageList(@Nullable List<?> list) {
+        if (list == null) {
+            return false;
+        }
+        for (Object element : list) {
+            if (!(element instanceof MessageResponse)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeMessages(Output out, List<?> messages) {
+        out.writeVarLong(messages.size());
+        for (Object message : messages) {
+            writeMessage(out, (MessageResponse) message);
+        }
+    }
+
+    private static void writeMessage(Output out, MessageResponse message) {
+        int presence = (message.id() != null ? HAS_ID : 0)
+                | (message.content() != null ? HAS_CONTENT : 0)
+                | (message.createdAt() != null ? HAS_CREATED_AT : 0);
+        out.writeByte(presence);
+        if (message.id() != null) {
+            out.writeZigZag(message.id());
+        }
+        if (message.content() != null) {
+            out.writeString(message.content());
+        }
+        if (message.createdAt() != null) {
+            out.writeZigZag(message.createdAt().getEpochSecond());
+            out.writeVarLong(message.createdAt().getNano());
+        }
+    }
+
+    private static void writeNullableString(Output out, @Nullable String value) {
+        out.writeByte(value != null ? 1 : 0);
+        if (value != null) {
+            out.writeString(value);
+        }
+    }
+
+    private static List<MessageResponse> readMessages(Input in) {
+        int size = Math.toIntExact(in.readVarLong());
+        List<MessageResponse> messages = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            messages.add(readMessage(in));
+        }
+        return List.copyOf(messages);
+    }
+
+    private static MessageResponse readMessage(Input in) {
+        int presence = in.readByte();
+        Long id = (presence & HAS_ID) != 0 ? in.readZigZag() : null;
+        String content = (presence & HAS_CONTENT) != 0 ? in.readString() : null;
+        Instant createdAt = (presence & HAS_CREATED_AT) != 0
+                ? Instant.ofEpochSecond(in.readZigZag(), in.readVarLong())
+                : null;
+        return new MessageResponse(id, content, createdAt);
+    }
+
+    @Nullable
+    private static String readNullableString(Input in) {
+        return in.readByte() != 0 ? in.readString() : null;
+    }
+
+    private static final class Output {
+
+        private byte[] buffer = new byte[64];
+        private int position;
+
+        void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        void writeString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(utf8.length);
+            writeBytes(utf8);
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensureCapacity(int additional) {
+            if (position + additional > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + additional));
+            }
+        }
+    }
+
+    private static final class Input {
+
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        int readByte() {
+            return buffer[position++];
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new SerializationException("Malformed varint in cache value");
+        }
+
+        long readZigZag() {
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        String readString() {
+            int length = Math.toIntExact(readVarLong());
+            if (length > buffer.length - position) {
+                throw new SerializationException("Truncated cache value");
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
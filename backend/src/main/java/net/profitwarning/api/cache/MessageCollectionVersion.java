@@ -0,0 +1,88 @@
+package net.profitwarning.api.cache;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide version of the message collection. Cached pages are keyed by this version, so a
+ * write retires every cached page at once without touching the per-id entries. The counter lives
+ * in Redis; each node keeps a local copy that is refreshed through pub/sub, so computing a page key
+ * needs no round-trip.
+ */
+public class MessageCollectionVersion implements MessageListener {
+
+    public static final String VERSION_KEY = "testMessages:version";
+    public static final String VERSION_CHANNEL = "testMessages:version";
+
+    private static final long UNKNOWN = -1L;
+
+    private final StringRedisTemplate redisTemplate;
+    private final AtomicLong version = new AtomicLong(UNKNOWN);
+    // When this node saw the version change; starts out as now, since the last write before startup is unknown
+    private volatile long changedAtNanos = System.nanoTime();
+
+    public MessageCollectionVersion(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public long current() {
+        long current = version.get();
+        return current != UNKNOWN ? current : refresh();
+    }
+
+    public long refresh() {
+        String stored = redisTemplate.opsForValue().get(VERSION_KEY);
+        return observe(stored != null ? Long.parseLong(stored) : 0L);
+    }
+
+    public long increment() {
+        Long incremented = redisTemplate.opsForValue().increment(VERSION_KEY);
+        long next = observe(incremented != null ? incremented : version.get() + 1);
+        redisTemplate.convertAndSend(VERSION_CHANNEL, Long.toString(next));
+        return next;
+    }
+
+    // Readers must not see the new version before the write is visible in the database
+    public void incrementAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            increment();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                increment();
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        observe(Long.parseLong(new String(message.getBody(), StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Time since this node last saw the version change, i.e. an upper bound on the age of the newest
+     * committed write it knows of.
+     */
+    public Duration sinceLastChange() {
+        return Duration.ofNanos(System.nanoTime() - changedAtNanos);
+    }
+
+    private long observe(long observed) {
+        // Stamped before the new version is visible, so no reader keys a page by it while it still looks old
+        if (observed > version.get()) {
+            changedAtNanos = System.nanoTime();
+        }
+        return version.accumulateAndGet(observed, Math::max);
+    }
+}
@@ -0,0 +1,98 @@
+package net.profitwarning.api.cache;
+
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-key reads and writes against the Redis tier of a {@link RedisCache}: one {@code MGET} for a
+ * set of keys and one pipeline of {@code SET ... PX} for a set of entries. {@link RedisCache} itself
+ * only offers single-key operations. Keys, values and TTLs follow the cache's own
+ * {@link RedisCacheConfiguration}, so entries written here are read back by {@link RedisCache} and
+ * vice versa; Redis cache statistics do not count them.
+ */
+public class RedisCacheBulkOperations {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    public RedisCacheBulkOperations(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * Values cached under the given keys (already converted to strings, see
+     * {@link TwoTierCache#localKey(Object)}); keys without a value are absent from the result.
+     */
+    public Map<String, Object> getAll(RedisCache cache, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return Map.of();
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        List<String> keyList = List.copyOf(keys);
+        byte[][] redisKeys = new byte[keyList.size()][];
+        for (int i = 0; i < redisKeys.length; i++) {
+            redisKeys[i] = redisKey(cache, keyList.get(i));
+        }
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(redisKeys);
+        }
+        Map<String, Object> hits = new HashMap<>();
+        if (values == null) {
+            return hits;
+        }
+        for (int i = 0; i < keyList.size(); i++) {
+            byte[] value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            Object stored = config.getValueSerializationPair().read(ByteBuffer.wrap(value));
+            if (stored != null && !(stored instanceof NullValue)) {
+                hits.put(keyList.get(i), stored);
+            }
+        }
+        return hits;
+    }
+
+    /** Writes all entries in one pipeline, each with the TTL the cache would give it. */
+    public void putAll(RedisCache cache, Map<String, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                entries.forEach((key, value) -> {
+                    Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                    Expiration expiration = ttl.isZero() || ttl.isNegative()
+                            ? Expiration.persistent()
+                            : Expiration.from(ttl);
+                    byte[] bytes = ByteUtils.getBytes(config.getValueSerializationPair().write(value));
+                    connection.stringCommands().set(redisKey(cache, key), bytes, expiration, SetOption.upsert());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    // Same layout as RedisCache#createCacheKey: optional "<cache name>::" prefix, then the converted key
+    private static byte[] redisKey(RedisCache cache, String key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String redisKey = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(redisKey));
+    }
+}
@@ -0,0 +1,50 @@
+package net.profitwarning.api.cache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short-lived Redis lock that lets one node load a missing cache entry while the others wait for
+ * it to appear in Redis. The lock expires on its own, so a node that dies mid-load only delays the
+ * others by the lock timeout.
+ */
+public class RedisCacheLoadLock {
+
+    // Delete only if we still own the lock; it may have expired and been taken by another node
+    private static final RedisScript<Long> RELEASE = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final Duration timeout;
+
+    public RedisCacheLoadLock(StringRedisTemplate redisTemplate, Duration timeout) {
+        this.redisTemplate = redisTemplate;
+        this.timeout = timeout;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Returns a token to pass to {@link #release} if the lock was acquired, otherwise {@code null}.
+     */
+    public String tryAcquire(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(lockKey(cacheName, key), token, timeout);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    public void release(String cacheName, String key, String token) {
+        redisTemplate.execute(RELEASE, List.of(lockKey(cacheName, key)), token);
+    }
+
+    private static String lockKey(String cacheName, String key) {
+        return cacheName + "::lock::" + key;
+    }
+}
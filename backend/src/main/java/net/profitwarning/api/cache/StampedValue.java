@@ -0,0 +1,19 @@
+package net.profitwarning.api.cache;
+
+import org.springframework.lang.Nullable;
+
+import java.io.Serializable;
+
+/**
+ * A value {@link TwoTierCache} loaded, as stored in the remote tier: with the wall-clock time it was
+ * written and how long its load took, so every node can time an early refresh against the remote
+ * TTL. Values written by {@code put} are stored bare.
+ */
+public record StampedValue(Object value, long writtenAtMillis, long loadNanos) implements Serializable {
+
+    /** The cached value itself, whether or not it was stored stamped. */
+    @Nullable
+    public static Object unwrap(@Nullable Object stored) {
+        return stored instanceof StampedValue stamped ? stamped.value() : stored;
+    }
+}
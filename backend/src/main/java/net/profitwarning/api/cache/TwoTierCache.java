@@ -0,0 +1,406 @@
+package net.profitwarning.api.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Bounded in-process cache (L1) in front of a shared remote cache (L2).
+ * Reads are served from L1 when possible; evictions and clears are applied to both tiers and
+ * announced to other nodes so they drop their L1 copies. Puts are not announced: cached values
+ * are derived from committed rows, so peers holding the same key already hold the same value.
+ *
+ * <p>{@link #get(Object, Callable)} (used by {@code @Cacheable(sync = true)}) runs at most one
+ * loader per key on this node; concurrent callers wait for its result. With a
+ * {@link RedisCacheLoadLock} the same holds across nodes. Loaded values are stored in L2 as a
+ * {@link StampedValue} carrying their write time and load cost, so any node holding one refreshes it
+ * early with probability rising towards its L2 expiry (XFetch) and hot keys rarely expire under load;
+ * the refresh runs on the refresh executor while callers keep getting the current value. An L1 entry
+ * that expires before that is refilled from L2 without running the loader.
+ *
+ * <p>{@link #getAll(Collection)} and {@link #putAll(Map)} serve multi-key reads: L1 first, then a
+ * single round-trip to L2 through {@link RedisCacheBulkOperations} when the remote cache is a
+ * {@link RedisCache}, or one call per key otherwise.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private static final long LOCK_POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache;
+    private final Cache remoteCache;
+    private final BiConsumer<String, String> invalidationPublisher;
+    private final long remoteTimeToLiveMillis;
+    private final double refreshAheadBeta;
+    private final Executor refreshExecutor;
+    @Nullable
+    private final RedisCacheLoadLock loadLock;
+    @Nullable
+    private final RedisCacheBulkOperations bulkOperations;
+    private final ConcurrentMap<String, CompletableFuture<Object>> loadsInFlight = new ConcurrentHashMap<>();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadNanos = new LongAdder();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final LongAdder earlyRefreshes = new LongAdder();
+
+    TwoTierCache(String name,
+                 com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> localCache,
+                 Cache remoteCache,
+                 BiConsumer<String, String> invalidationPublisher,
+                 Duration remoteTimeToLive,
+                 double refreshAheadBeta,
+                 Executor refreshExecutor,
+                 @Nullable RedisCacheLoadLock loadLock,
+                 @Nullable RedisCacheBulkOperations bulkOperations) {
+        this.name = name;
+        this.localCache = localCache;
+        this.remoteCache = remoteCache;
+        this.invalidationPublisher = invalidationPublisher;
+        this.remoteTimeToLiveMillis = remoteTimeToLive.toMillis();
+        this.refreshAheadBeta = refreshAheadBeta;
+        this.refreshExecutor = refreshExecutor;
+        this.loadLock = loadLock;
+        this.bulkOperations = bulkOperations;
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return this;
+    }
+
+    public com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> getLocalCache() {
+        return localCache;
+    }
+
+    public Cache getRemoteCache() {
+        return remoteCache;
+    }
+
+    /** Loader invocations on this node. */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+
+    /** Total time spent in value loaders on this node. */
+    public double getLoadTime(TimeUnit unit) {
+        return (double) loadNanos.sum() / unit.toNanos(1);
+    }
+
+    /** Callers that waited for another caller's load instead of running their own. */
+    public long getCoalescedLoadCount() {
+        return coalescedLoads.sum();
+    }
+
+    /** Loads triggered by probabilistic early refresh of an entry that had not yet expired. */
+    public long getEarlyRefreshCount() {
+        return earlyRefreshes.sum();
+    }
+
+    @Override
+    @Nullable
+    public ValueWrapper get(@NonNull Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = localCache.getIfPresent(localKey);
+        if (wrapper != null) {
+            return wrapper;
+        }
+        ValueWrapper remote = remoteCache.get(key);
+        return remote != null ? copyToLocal(localKey, remote.get()) : null;
+    }
+
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @Nullable Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    // A null result is returned but not cached, so a missing row is looked up again next time
+    @Override
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper local = localCache.getIfPresent(localKey);
+        if (local != null) {
+            if (local instanceof LocalEntry entry && shouldRefreshEarly(entry)) {
+                return (T) refreshEarly(key, localKey, entry, valueLoader);
+            }
+            return (T) local.get();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = loadsInFlight.putIfAbsent(localKey, load);
+        if (inFlight != null) {
+            coalescedLoads.increment();
+            return (T) await(inFlight, key, valueLoader);
+        }
+        try {
+            Object value = loadThroughRemote(key, localKey, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException ex) {
+            load.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loadsInFlight.remove(localKey, load);
+        }
+    }
+
+    /**
+     * Cached values for the given keys, keyed by the keys passed in. Keys without a non-null cached
+     * value are absent. Values found in L2 are copied into L1; nothing is loaded.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> hits = new HashMap<>();
+        Map<String, Object> remoteKeys = new LinkedHashMap<>();
+        for (Object key : keys) {
+            String localKey = localKey(key);
+            ValueWrapper local = localCache.getIfPresent(localKey);
+            if (local != null && local.get() != null) {
+                hits.put(key, local.get());
+            } else {
+                remoteKeys.put(localKey, key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return hits;
+        }
+        if (bulkOperations != null && remoteCache instanceof RedisCache redisCache) {
+            bulkOperations.getAll(redisCache, remoteKeys.keySet()).forEach((localKey, stored) ->
+                    hits.put(remoteKeys.get(localKey), copyToLocal(localKey, stored).get()));
+            return hits;
+        }
+        remoteKeys.forEach((localKey, key) -> {
+            ValueWrapper remote = remoteCache.get(key);
+            if (remote != null && remote.get() != null) {
+                hits.put(key, copyToLocal(localKey, remote.get()).get());
+            }
+        });
+        return hits;
+    }
+
+    /** Writes all entries to both tiers; like {@link #put(Object, Object)}, puts are not announced. */
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (bulkOperations != null && remoteCache instanceof RedisCache redisCache) {
+            Map<String, Object> remoteEntries = new LinkedHashMap<>();
+            entries.forEach((key, value) -> remoteEntries.put(localKey(key), value));
+            bulkOperations.putAll(redisCache, remoteEntries);
+        } else {
+            entries.forEach(remoteCache::put);
+        }
+        long now = System.currentTimeMillis();
+        entries.forEach((key, value) -> localCache.put(localKey(key), new LocalEntry(value, now, 0L)));
+    }
+
+    @Override
+    public void put(@NonNull Object key, @Nullable Object value) {
+        remoteCache.put(key, value);
+        localCache.put(localKey(key), new LocalEntry(value, System.currentTimeMillis(), 0L));
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        remoteCache.evict(key);
+        String localKey = localKey(key);
+        localCache.invalidate(localKey);
+        invalidationPublisher.accept(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        remoteCache.clear();
+        localCache.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    @Nullable
+    private Object loadThroughRemote(Object key, String localKey, Callable<?> valueLoader) {
+        ValueWrapper remote = remoteCache.get(key);
+        if (remote != null) {
+            return copyToLocal(localKey, remote.get()).get();
+        }
+        if (loadLock == null) {
+            return load(key, localKey, valueLoader);
+        }
+        String token = loadLock.tryAcquire(name, localKey);
+        if (token == null) {
+            // Another node is loading; wait for its result to land in Redis, then fall back to loading
+            remote = awaitRemote(key);
+            if (remote != null) {
+                return copyToLocal(localKey, remote.get()).get();
+            }
+            return load(key, localKey, valueLoader);
+        }
+        try {
+            return load(key, localKey, valueLoader);
+        } finally {
+            loadLock.release(name, localKey, token);
+        }
+    }
+
+    @Nullable
+    private Object load(Object key, String localKey, Callable<?> valueLoader) {
+        loads.increment();
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception ex) {
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        }
+        long elapsed = System.nanoTime() - start;
+        loadNanos.add(elapsed);
+        if (value != null) {
+            long now = System.currentTimeMillis();
+            remoteCache.put(key, new StampedValue(value, now, elapsed));
+            localCache.put(localKey, new LocalEntry(value, now, elapsed));
+        }
+        return value;
+    }
+
+    // Keeps the write time and load cost of a stamped L2 value, so the copy is refreshed on the L2 schedule
+    private LocalEntry copyToLocal(String localKey, @Nullable Object stored) {
+        LocalEntry entry = stored instanceof StampedValue stamped
+                ? new LocalEntry(stamped.value(), stamped.writtenAtMillis(), stamped.loadNanos())
+                : new LocalEntry(stored, System.currentTimeMillis(), 0L);
+        localCache.put(localKey, entry);
+        return entry;
+    }
+
+    // XFetch: refresh when now - delta * beta * ln(rand) passes the L2 expiry; expensive loads refresh
+    // earlier. Timed in wall-clock millis, since the entry may have been written by another node.
+    private boolean shouldRefreshEarly(LocalEntry entry) {
+        if (refreshAheadBeta <= 0 || entry.loadNanos() == 0L || remoteTimeToLiveMillis <= 0) {
+            return false;
+        }
+        double draw = Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        long jitterMillis = (long) (entry.loadNanos() * refreshAheadBeta * -draw / 1_000_000);
+        return System.currentTimeMillis() + jitterMillis - entry.writtenAtMillis() >= remoteTimeToLiveMillis;
+    }
+
+    // The caller that wins the refresh is answered with the current value like everyone else. The
+    // loader proceeds its intercepted invocation on the refresh thread; the caller never proceeds it.
+    @Nullable
+    private Object refreshEarly(Object key, String localKey, LocalEntry current, Callable<?> valueLoader) {
+        CompletableFuture<Object> refresh = new CompletableFuture<>();
+        if (loadsInFlight.putIfAbsent(localKey, refresh) != null) {
+            return current.get();
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    // Another node may have refreshed the key already; its copy is as good as a reload
+                    ValueWrapper remote = remoteCache.get(key);
+                    refresh.complete(remote != null && remote.get() instanceof StampedValue stamped
+                            && stamped.writtenAtMillis() > current.writtenAtMillis()
+                            ? copyToLocal(localKey, stamped).get()
+                            : load(key, localKey, valueLoader));
+                } catch (RuntimeException ex) {
+                    logger.warn("Early refresh of key '{}' in cache '{}' failed; serving cached value", localKey, name, ex);
+                    refresh.complete(current.get());
+                } finally {
+                    loadsInFlight.remove(localKey, refresh);
+                }
+            });
+            earlyRefreshes.increment();
+        } catch (RejectedExecutionException ex) {
+            // Refresh threads are busy; the entry is refreshed by a later caller or reloaded on expiry
+            loadsInFlight.remove(localKey, refresh);
+            refresh.complete(current.get());
+        }
+        return current.get();
+    }
+
+    @Nullable
+    private Object await(CompletableFuture<Object> inFlight, Object key, Callable<?> valueLoader) {
+        try {
+            return inFlight.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new ValueRetrievalException(key, valueLoader, ex.getCause());
+        }
+    }
+
+    @Nullable
+    private ValueWrapper awaitRemote(Object key) {
+        long deadline = System.nanoTime() + loadLock.getTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            ValueWrapper remote = remoteCache.get(key);
+            if (remote != null) {
+                return remote;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(LOCK_POLL_NANOS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // Mirrors RedisCache key conversion so both tiers agree on key identity
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    // loadNanos is 0 for entries written by put() or stored bare in L2: their load cost is unknown
+    private record LocalEntry(@Nullable Object value, long writtenAtMillis, long loadNanos) implements ValueWrapper {
+
+        @Override
+        @Nullable
+        public Object get() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package net.profitwarning.api.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps every cache of the remote {@link CacheManager} in a {@link TwoTierCache} and keeps the
+ * local tiers of all nodes coherent through a Redis pub/sub channel.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    private static final String EVICT = "E";
+    private static final String CLEAR = "C";
+
+    private final CacheManager remoteCacheManager;
+    private final long localMaximumSize;
+    private final Duration localTimeToLive;
+    private final StringRedisTemplate redisTemplate;
+    private final String invalidationChannel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+    private final TwoTierCacheOptions options;
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager,
+                               long localMaximumSize,
+                               Duration localTimeToLive,
+                               StringRedisTemplate redisTemplate,
+                               String invalidationChannel,
+                               TwoTierCacheOptions options) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.localMaximumSize = localMaximumSize;
+        this.localTimeToLive = localTimeToLive;
+        this.redisTemplate = redisTemplate;
+        this.invalidationChannel = invalidationChannel;
+        this.options = options;
+    }
+
+    @Override
+    @Nullable
+    public Cache getCache(@NonNull String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        Duration ttl = localTimeToLive(name);
+        return caches.computeIfAbsent(name, key -> new TwoTierCache(key, newLocalCache(ttl), remote,
+                this::publishInvalidation, remoteTimeToLive(remote), options.refreshAheadBeta(),
+                options.refreshExecutor(), options.loadLock(), options.bulkOperations()));
+    }
+
+    @Override
+    @NonNull
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, @Nullable byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+        if (parts.length < 3 || nodeId.equals(parts[1])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[2]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[0])) {
+            cache.clearLocal();
+        } else if (EVICT.equals(parts[0]) && parts.length == 4) {
+            cache.evictLocal(parts[3]);
+        }
+    }
+
+    // A local entry never outlives the default local TTL, whatever the cache's own TTL
+    private Duration localTimeToLive(String cacheName) {
+        Duration ttl = options.timeToLive().get(cacheName);
+        return ttl != null && ttl.compareTo(localTimeToLive) < 0 ? ttl : localTimeToLive;
+    }
+
+    // Early refresh is timed against the remote expiry; zero (no expiry, or not a Redis cache) disables it
+    private static Duration remoteTimeToLive(Cache remote) {
+        return remote instanceof RedisCache redisCache
+                ? redisCache.getCacheConfiguration().getTtlFunction().getTimeToLive(redisCache.getName(), null)
+                : Duration.ZERO;
+    }
+
+    private com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> newLocalCache(Duration ttl) {
+        return Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    private void publishInvalidation(String cacheName, @Nullable String localKey) {
+        String payload = localKey == null
+                ? String.join("|", CLEAR, nodeId, cacheName)
+                : String.join("|", EVICT, nodeId, cacheName, localKey);
+        try {
+            redisTemplate.convertAndSend(invalidationChannel, payload);
+        } catch (RuntimeException ex) {
+            // Peers still converge once their local entries expire
+            logger.warn("Failed to publish cache invalidation for cache '{}'", cacheName, ex);
+        }
+    }
+}
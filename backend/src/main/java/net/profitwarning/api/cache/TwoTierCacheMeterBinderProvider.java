@@ -0,0 +1,49 @@
+package net.profitwarning.api.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the standard {@code cache.*} meters once per tier, distinguished by a {@code tier} tag,
+ * plus loader counters for the cache as a whole.
+ */
+public class TwoTierCacheMeterBinderProvider implements CacheMeterBinderProvider<TwoTierCache> {
+
+    @Override
+    public MeterBinder getMeterBinder(TwoTierCache cache, Iterable<Tag> tags) {
+        return registry -> {
+            new CaffeineCacheMetrics<>(cache.getLocalCache(), cache.getName(), Tags.concat(tags, "tier", "l1"))
+                    .bindTo(registry);
+            if (cache.getRemoteCache() instanceof RedisCache redisCache) {
+                new RedisCacheMetrics(redisCache, Tags.concat(tags, "tier", "l2")).bindTo(registry);
+            }
+            Tags cacheTags = Tags.concat(tags, "cache", cache.getName());
+            FunctionCounter.builder("cache.loads", cache, TwoTierCache::getLoadCount)
+                    .tags(cacheTags)
+                    .description("Value loader invocations")
+                    .register(registry);
+            FunctionTimer.builder("cache.loads.duration", cache, TwoTierCache::getLoadCount,
+                            c -> c.getLoadTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)
+                    .tags(cacheTags)
+                    .description("Time spent in value loaders")
+                    .register(registry);
+            FunctionCounter.builder("cache.loads.coalesced", cache, TwoTierCache::getCoalescedLoadCount)
+                    .tags(cacheTags)
+                    .description("Misses that waited for a load already in flight instead of starting their own")
+                    .register(registry);
+            FunctionCounter.builder("cache.refreshes.early", cache, TwoTierCache::getEarlyRefreshCount)
+                    .tags(cacheTags)
+                    .description("Entries reloaded before expiry by probabilistic early refresh")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package net.profitwarning.api.cache;
+
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Settings every {@link TwoTierCache} of a {@link TwoTierCacheManager} is created with.
+ *
+ * @param timeToLive       caches whose local entries expire sooner than the default local TTL, by
+ *                         cache name; the remote tier's TTL is configured on the remote cache manager
+ * @param refreshAheadBeta scales probabilistic early refresh of loaded entries ahead of their
+ *                         remote expiry; {@code 0} disables it
+ * @param refreshExecutor  runs early refreshes, so the caller that triggers one is answered with the
+ *                         current value; a rejected refresh is skipped
+ * @param loadLock         coordinates loads of the same missing key across nodes; without it, loads
+ *                         are only coalesced per node
+ * @param bulkOperations   multi-key access to the remote tier for {@link TwoTierCache#getAll} and
+ *                         {@link TwoTierCache#putAll}; without it, multi-key calls fall back to one
+ *                         remote call per key
+ */
+public record TwoTierCacheOptions(Map<String, Duration> timeToLive,
+                                  double refreshAheadBeta,
+                                  Executor refreshExecutor,
+                                  @Nullable RedisCacheLoadLock loadLock,
+                                  @Nullable RedisCacheBulkOperations bulkOperations) {
+
+    public TwoTierCacheOptions {
+        timeToLive = Map.copyOf(timeToLive);
+    }
+}
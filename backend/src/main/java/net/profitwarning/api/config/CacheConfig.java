@@ -0,0 +1,133 @@
+package net.profitwarning.api.config;
+
+import net.profitwarning.api.cache.CompactMessageRedisSerializer;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.cache.RedisCacheBulkOperations;
+import net.profitwarning.api.cache.RedisCacheLoadLock;
+import net.profitwarning.api.cache.TwoTierCacheManager;
+import net.profitwarning.api.cache.TwoTierCacheOptions;
+import net.profitwarning.api.cache.TwoTierCacheMeterBinderProvider;
+import net.profitwarning.api.datasource.ReadOnlyRoutingDataSourceProxy;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@EnableConfigurationProperties({CacheProperties.class, TwoTierCacheProperties.class})
+class CacheConfig {
+
+    private static final int REFRESH_QUEUE_CAPACITY = 1_000;
+
+    // Defining our own CacheManager makes Boot's cache auto-configuration back off, so the
+    // spring.cache.redis.* settings are applied to the L2 manager here.
+    @Bean
+    TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate redisTemplate,
+                                     CacheProperties cacheProperties,
+                                     TwoTierCacheProperties twoTierCacheProperties,
+                                     ResourceLoader resourceLoader) {
+        RedisCacheConfiguration defaults = redisCacheConfiguration(cacheProperties, twoTierCacheProperties.codec(),
+                resourceLoader.getClassLoader());
+        Map<String, RedisCacheConfiguration> perCache = new LinkedHashMap<>();
+        twoTierCacheProperties.timeToLive().forEach((name, ttl) -> perCache.put(name, defaults.entryTtl(ttl)));
+        RedisCacheManager remoteCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaults)
+                .initialCacheNames(new LinkedHashSet<>(cacheProperties.getCacheNames()))
+                .withInitialCacheConfigurations(perCache)
+                .enableStatistics()
+                .build();
+        remoteCacheManager.afterPropertiesSet();
+
+        TwoTierCacheProperties.Local local = twoTierCacheProperties.local();
+        TwoTierCacheProperties.Load load = twoTierCacheProperties.load();
+        TwoTierCacheOptions options = new TwoTierCacheOptions(twoTierCacheProperties.timeToLive(),
+                load.refreshAheadBeta(),
+                refreshExecutor(load.refreshThreads()),
+                load.distributedLock() ? new RedisCacheLoadLock(redisTemplate, load.lockTimeout()) : null,
+                new RedisCacheBulkOperations(connectionFactory));
+        return new TwoTierCacheManager(remoteCacheManager, local.maxSize(), local.ttl(),
+                redisTemplate, twoTierCacheProperties.invalidationChannel(), options);
+    }
+
+    // Every write to the collection bumps the version, so its age tells the replica router how long ago the
+    // last write was; reads stay on the primary until replicas within max-lag must have replayed it
+    @Bean
+    MessageCollectionVersion messageCollectionVersion(StringRedisTemplate redisTemplate, DataSource dataSource) {
+        MessageCollectionVersion version = new MessageCollectionVersion(redisTemplate);
+        if (dataSource instanceof ReadOnlyRoutingDataSourceProxy routing) {
+            routing.getReplicas().setTimeSinceLastWrite(version::sinceLastChange);
+        }
+        return version;
+    }
+
+    @Bean
+    RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                TwoTierCacheManager cacheManager,
+                                                                MessageCollectionVersion messageCollectionVersion,
+                                                                TwoTierCacheProperties twoTierCacheProperties) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(twoTierCacheProperties.invalidationChannel()));
+        container.addMessageListener(messageCollectionVersion, new ChannelTopic(MessageCollectionVersion.VERSION_CHANNEL));
+        return container;
+    }
+
+    @Bean
+    TwoTierCacheMeterBinderProvider twoTierCacheMeterBinderProvider() {
+        return new TwoTierCacheMeterBinderProvider();
+    }
+
+    // Not a bean: an Executor bean would make Boot back off its applicationTaskExecutor. Daemon threads
+    // that time out when idle, so the pool never holds up shutdown; refreshes beyond the queue are skipped.
+    private static Executor refreshExecutor(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                Thread.ofPlatform().daemon().name("cache-refresh-", 1).factory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private RedisCacheConfiguration redisCacheConfiguration(CacheProperties cacheProperties,
+                                                            TwoTierCacheProperties.Codec codec,
+                                                            ClassLoader classLoader) {
+        CacheProperties.Redis redisProperties = cacheProperties.getRedis();
+        RedisSerializer<Object> valueSerializer = switch (codec) {
+            case COMPACT -> new CompactMessageRedisSerializer(classLoader);
+            case JDK -> RedisSerializer.java(classLoader);
+        };
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig(classLoader)
+                .serializeValuesWith(SerializationPair.fromSerializer(valueSerializer));
+        if (redisProperties.getTimeToLive() != null) {
+            config = config.entryTtl(redisProperties.getTimeToLive());
+        }
+        if (redisProperties.getKeyPrefix() != null) {
+            config = config.prefixCacheNameWith(redisProperties.getKeyPrefix());
+        }
+        if (!redisProperties.isCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (!redisProperties.isUseKeyPrefix()) {
+            config = config.disableKeyPrefix();
+        }
+        return config;
+    }
+}
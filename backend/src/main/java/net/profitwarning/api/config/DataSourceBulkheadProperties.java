@@ -0,0 +1,18 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "app.datasource.bulkhead")
+record DataSourceBulkheadProperties(
+    @DefaultValue("true") boolean enabled,
+    // How long a caller may queue for a permit before the request fails with 503. Well below Hikari's
+    // connection-timeout, so a saturated node sheds queued requests before its pool does.
+    @DefaultValue("5s") @NotNull @DurationMin(millis = 0) Duration acquireTimeout
+) {}
@@ -0,0 +1,108 @@
+package net.profitwarning.api.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.profitwarning.api.datasource.BulkheadDataSource;
+import net.profitwarning.api.datasource.ReadOnlyRoutingDataSourceProxy;
+import net.profitwarning.api.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+@Configuration
+class DataSourceConfig {
+
+    // The bulkhead and the replica router wrap the pool itself rather than the repository: a
+    // @Transactional method takes its connection when the transaction begins, before any repository
+    // method is reached.
+    @Bean
+    static BeanPostProcessor dataSourcePostProcessor(Environment environment) {
+        Binder binder = Binder.get(environment);
+        DataSourceBulkheadProperties bulkhead = binder
+                .bindOrCreate("app.datasource.bulkhead", Bindable.of(DataSourceBulkheadProperties.class));
+        DataSourceRoutingProperties routing = binder
+                .bindOrCreate("app.datasource.routing", Bindable.of(DataSourceRoutingProperties.class));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource primary)) {
+                    return bean;
+                }
+                DataSource primaryTarget = withBulkhead(Objects.requireNonNullElse(primary.getPoolName(), "primary"),
+                        primary, bulkhead);
+                if (routing.replicas().isEmpty()) {
+                    return primaryTarget;
+                }
+                ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(replicaPools(primary, routing, bulkhead),
+                        primaryTarget, routing.strategy(), routing.maxLag(), routing.lagCheckInterval(),
+                        routing.lagQuery());
+                return new ReadOnlyRoutingDataSourceProxy(primaryTarget, router);
+            }
+        };
+    }
+
+    @Bean
+    MeterBinder dataSourceMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ReadOnlyRoutingDataSourceProxy proxy) {
+                if (proxy.getTargetDataSource() instanceof BulkheadDataSource bulkhead) {
+                    bulkhead.bindTo(registry);
+                }
+                ReplicaRoutingDataSource router = proxy.getReplicas();
+                router.bindTo(registry);
+                for (ReplicaRoutingDataSource.Replica replica : router.getReplicas()) {
+                    // Boot only instruments the pool bean, so the replica pools report hikaricp.* here
+                    replica.pool().setMetricRegistry(registry);
+                    if (replica.dataSource() instanceof BulkheadDataSource replicaBulkhead) {
+                        replicaBulkhead.bindTo(registry);
+                    }
+                }
+            }
+            else if (dataSource instanceof BulkheadDataSource bulkhead) {
+                bulkhead.bindTo(registry);
+            }
+        };
+    }
+
+    private static DataSource withBulkhead(String name, HikariDataSource pool, DataSourceBulkheadProperties properties) {
+        return properties.enabled()
+                ? new BulkheadDataSource(name, pool, pool.getMaximumPoolSize(), properties.acquireTimeout())
+                : pool;
+    }
+
+    // Replica pools start from the primary's settings (driver, timeouts, data source properties) and
+    // override only what the replica entry specifies.
+    private static List<ReplicaRoutingDataSource.Replica> replicaPools(HikariDataSource primary,
+                                                                       DataSourceRoutingProperties routing,
+                                                                       DataSourceBulkheadProperties bulkhead) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < routing.replicas().size(); i++) {
+            DataSourceRoutingProperties.Replica properties = routing.replicas().get(i);
+            String name = "replica-" + (i + 1);
+            HikariDataSource pool = new HikariDataSource();
+            primary.copyStateTo(pool);
+            pool.setPoolName(name);
+            pool.setJdbcUrl(properties.url());
+            if (properties.username() != null) {
+                pool.setUsername(properties.username());
+            }
+            if (properties.password() != null) {
+                pool.setPassword(properties.password());
+            }
+            if (properties.maximumPoolSize() != null) {
+                pool.setMaximumPoolSize(properties.maximumPoolSize());
+            }
+            pool.setReadOnly(true);
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, pool, withBulkhead(name, pool, bulkhead)));
+        }
+        return replicas;
+    }
+}
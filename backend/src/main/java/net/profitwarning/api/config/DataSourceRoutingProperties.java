@@ -0,0 +1,38 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import net.profitwarning.api.datasource.ReplicaRoutingDataSource;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+@Validated
+@ConfigurationProperties(prefix = "app.datasource.routing")
+record DataSourceRoutingProperties(
+    // Empty: every transaction uses the primary and no routing proxy is installed
+    @DefaultValue @NotNull List<@Valid Replica> replicas,
+    @DefaultValue("round-robin") @NotNull ReplicaRoutingDataSource.Strategy strategy,
+    // Replicas further behind than this are taken out of rotation until they catch up
+    @DefaultValue("5s") @NotNull @DurationMin(millis = 0) Duration maxLag,
+    @DefaultValue("5s") @NotNull @DurationMin(millis = 1) Duration lagCheckInterval,
+    // Seconds behind the primary; 0 when everything received has been replayed
+    @DefaultValue("SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END") @NotBlank String lagQuery
+) {
+
+    // Unset credentials and pool size are inherited from spring.datasource.*
+    record Replica(
+        @NotBlank String url,
+        @Nullable String username,
+        @Nullable String password,
+        @Nullable @Positive Integer maximumPoolSize
+    ) {}
+}
@@ -0,0 +1,38 @@
+package net.profitwarning.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.service.MessageExportRunner;
+import net.profitwarning.api.service.MessageExportService;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(ExportProperties.class)
+class ExportConfig {
+
+    @Bean
+    MessageExportService messageExportService(DataSource dataSource,
+                                              PlatformTransactionManager transactionManager,
+                                              ObjectMapper objectMapper,
+                                              MeterRegistry meterRegistry,
+                                              ExportProperties properties) {
+        // A dedicated template so the fetch size does not leak into other queries
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(properties.fetchSize());
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return new MessageExportService(jdbcTemplate, transactionTemplate, objectMapper.getFactory(), meterRegistry);
+    }
+
+    @Bean
+    MessageExportRunner messageExportRunner(ExportProperties properties) {
+        return new MessageExportRunner(properties.maxConcurrent(), properties.timeout());
+    }
+}
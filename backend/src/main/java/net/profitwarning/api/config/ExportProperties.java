@@ -0,0 +1,21 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "app.export")
+record ExportProperties(
+    // Rows per round-trip of the export cursor; bounds the rows held in memory at once
+    @DefaultValue("1000") @Positive int fetchSize,
+    // Exports running at once on this node; each holds a database connection until it finishes
+    @DefaultValue("4") @Positive int maxConcurrent,
+    // Async timeout of export responses only; other async requests keep spring.mvc.async.request-timeout
+    @DefaultValue("1h") @NotNull @DurationMin(seconds = 1) Duration timeout
+) {}
@@ -0,0 +1,29 @@
+package net.profitwarning.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.repository.TestMessageRepository;
+import net.profitwarning.api.service.MessageIngestQueue;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+class IngestConfig {
+
+    @Bean
+    MessageIngestQueue messageIngestQueue(TestMessageRepository repository,
+                                          PlatformTransactionManager transactionManager,
+                                          MessageCollectionVersion messageCollectionVersion,
+                                          ApplicationEventPublisher eventPublisher,
+                                          MeterRegistry meterRegistry,
+                                          IngestProperties properties) {
+        return new MessageIngestQueue(repository, new TransactionTemplate(transactionManager),
+                messageCollectionVersion, eventPublisher, meterRegistry, properties.queueCapacity(),
+                properties.batchSize(), properties.linger(), properties.offerTimeout());
+    }
+}
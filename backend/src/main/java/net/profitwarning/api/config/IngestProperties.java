@@ -0,0 +1,22 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "app.ingest")
+record IngestProperties(
+    // Messages held in memory before producers are turned away with 503
+    @DefaultValue("100000") @Positive int queueCapacity,
+    // Rows per insert transaction; keep in line with hibernate.jdbc.batch_size
+    @DefaultValue("500") @Positive int batchSize,
+    // How long the worker waits for a batch to fill before writing a partial one
+    @DefaultValue("20ms") @NotNull @DurationMin(millis = 0) Duration linger,
+    @DefaultValue("2s") @NotNull @DurationMin(millis = 0) Duration offerTimeout
+) {}
@@ -0,0 +1,21 @@
+package net.profitwarning.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.metrics.PayloadSizeMetricsFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+class MetricsConfig {
+
+    @Bean
+    FilterRegistrationBean<PayloadSizeMetricsFilter> payloadSizeMetricsFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<PayloadSizeMetricsFilter> registration =
+                new FilterRegistrationBean<>(new PayloadSizeMetricsFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,72 @@
+package net.profitwarning.api.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.outbox.MessageEventStreamListener;
+import net.profitwarning.api.outbox.MessageOutbox;
+import net.profitwarning.api.outbox.MessageOutboxRelay;
+import net.profitwarning.api.outbox.RedisStreamEventPublisher;
+import net.profitwarning.api.service.MessageStreamBroadcaster;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamMessageListenerContainerOptions;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer.StreamReadRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(OutboxProperties.class)
+class OutboxConfig {
+
+    @Bean
+    MessageOutbox messageOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        return new MessageOutbox(jdbcTemplate, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.outbox", name = "relay-enabled", matchIfMissing = true)
+    MessageOutboxRelay messageOutboxRelay(JdbcTemplate jdbcTemplate,
+                                          PlatformTransactionManager transactionManager,
+                                          StringRedisTemplate redisTemplate,
+                                          MeterRegistry meterRegistry,
+                                          OutboxProperties properties) {
+        RedisStreamEventPublisher publisher = new RedisStreamEventPublisher(redisTemplate, properties.streamKey(),
+                properties.consumerGroups(), properties.maxStreamLength());
+        return new MessageOutboxRelay(jdbcTemplate, new TransactionTemplate(transactionManager), publisher,
+                meterRegistry, properties.batchSize(), properties.pollInterval(), properties.retryDelay());
+    }
+
+    // Every node reads the whole stream without a group: a fresh node has an empty local cache and no
+    // SSE subscribers, so it only needs the events from now on
+    @Bean
+    @ConditionalOnProperty(prefix = "app.outbox", name = "listener-enabled", matchIfMissing = true)
+    StreamMessageListenerContainer<String, MapRecord<String, String, String>> messageEventListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            MessageCollectionVersion messageCollectionVersion,
+            MessageStreamBroadcaster messageStreamBroadcaster,
+            ObjectMapper objectMapper,
+            OutboxProperties properties) {
+        StreamMessageListenerContainerOptions<String, MapRecord<String, String, String>> options =
+                StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofSeconds(1))
+                        .build();
+        StreamMessageListenerContainer<String, MapRecord<String, String, String>> container =
+                StreamMessageListenerContainer.create(connectionFactory, options);
+        container.register(StreamReadRequest.builder(StreamOffset.latest(properties.streamKey()))
+                        .cancelOnError(ex -> false)
+                        .build(),
+                new MessageEventStreamListener(messageStreamBroadcaster, messageCollectionVersion, objectMapper));
+        return container;
+    }
+}
@@ -0,0 +1,30 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+@Validated
+@ConfigurationProperties(prefix = "app.outbox")
+record OutboxProperties(
+    // Runs the relay on this node; outbox rows are written either way
+    @DefaultValue("true") boolean relayEnabled,
+    @DefaultValue("messages:events") @NotBlank String streamKey,
+    // Consumer groups created at offset 0 before the first event is published
+    @DefaultValue @NotNull List<@NotBlank String> consumerGroups,
+    // Approximate MAXLEN applied on every XADD
+    @DefaultValue("1000000") @Positive long maxStreamLength,
+    @DefaultValue("500") @Positive int batchSize,
+    // How long the relay waits after finding less than a full batch
+    @DefaultValue("100ms") @NotNull @DurationMin(millis = 1) Duration pollInterval,
+    @DefaultValue("5s") @NotNull @DurationMin(millis = 1) Duration retryDelay,
+    // Tail the stream on this node: feeds the SSE feed and refreshes the local collection version
+    @DefaultValue("true") boolean listenerEnabled
+) {}
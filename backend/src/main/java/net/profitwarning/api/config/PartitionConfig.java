@@ -0,0 +1,32 @@
+package net.profitwarning.api.config;
+
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.service.MessagePartitionMaintainer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(PartitionProperties.class)
+class PartitionConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.partitions", name = "enabled", matchIfMissing = true)
+    MessagePartitionMaintainer messagePartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                                          PlatformTransactionManager transactionManager,
+                                                          MessageCollectionVersion messageCollectionVersion,
+                                                          CacheManager cacheManager,
+                                                          PartitionProperties properties) {
+        return new MessagePartitionMaintainer(jdbcTemplate, new TransactionTemplate(transactionManager),
+                // Month bounds in UTC, the zone created_at is stored in
+                messageCollectionVersion, cacheManager, Clock.systemUTC(), properties.premadeMonths(),
+                properties.retention(), properties.expiredAction());
+    }
+}
@@ -0,0 +1,23 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import net.profitwarning.api.service.MessagePartitionMaintainer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.lang.Nullable;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Period;
+
+// The schedule itself is app.partitions.cron, read by @Scheduled
+@Validated
+@ConfigurationProperties(prefix = "app.partitions")
+record PartitionProperties(
+    @DefaultValue("true") boolean enabled,
+    // Months after the current one that get a partition in advance
+    @DefaultValue("3") @PositiveOrZero int premadeMonths,
+    // Unset keeps every month, e.g. 12m retires months that ended more than a year ago
+    @Nullable Period retention,
+    @DefaultValue("detach") @NotNull MessagePartitionMaintainer.ExpiredAction expiredAction
+) {}
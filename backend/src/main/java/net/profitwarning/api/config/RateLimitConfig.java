@@ -0,0 +1,77 @@
+package net.profitwarning.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.datasource.BulkheadDataSource;
+import net.profitwarning.api.datasource.ReadOnlyRoutingDataSourceProxy;
+import net.profitwarning.api.ratelimit.LoadShedder;
+import net.profitwarning.api.ratelimit.LocalRateLimiter;
+import net.profitwarning.api.ratelimit.RateLimitInterceptor;
+import net.profitwarning.api.ratelimit.RateLimiter;
+import net.profitwarning.api.ratelimit.RedisRateLimiter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "app.rate-limit", name = "enabled", matchIfMissing = true)
+class RateLimitConfig {
+
+    @Bean
+    RateLimiter rateLimiter(StringRedisTemplate redisTemplate, RateLimitProperties properties) {
+        LocalRateLimiter local = new LocalRateLimiter(properties.capacity(), properties.refillPerSecond(),
+                properties.maxBuckets());
+        return switch (properties.mode()) {
+            case LOCAL -> local;
+            case REDIS -> new RedisRateLimiter(redisTemplate, properties.capacity(), properties.refillPerSecond(), local);
+        };
+    }
+
+    @Bean
+    LoadShedder loadShedder(DataSource dataSource, RateLimitProperties properties) {
+        BulkheadDataSource bulkhead = primaryBulkhead(dataSource);
+        RateLimitProperties.Shedding shedding = properties.shedding();
+        if (bulkhead == null) {
+            // Without the bulkhead there is no wait signal, so only the in-flight limit applies
+            return new LoadShedder(shedding.maxInFlight(), () -> Duration.ZERO, Duration.ZERO);
+        }
+        return new LoadShedder(shedding.maxInFlight(),
+                () -> bulkhead.getWaiting() > 0 ? bulkhead.getRecentWait() : Duration.ZERO,
+                shedding.maxDbWait());
+    }
+
+    @Bean
+    RateLimitInterceptor rateLimitInterceptor(RateLimiter rateLimiter, LoadShedder loadShedder,
+                                              MeterRegistry meterRegistry, RateLimitProperties properties) {
+        return new RateLimitInterceptor(rateLimiter, loadShedder, properties.apiKeyHeader(), properties.apiKeys(),
+                meterRegistry);
+    }
+
+    @Bean
+    WebMvcConfigurer rateLimitConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(@NonNull InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    // Writes and read fallbacks all go through the primary pool, so its queue is the one to watch
+    @Nullable
+    private static BulkheadDataSource primaryBulkhead(DataSource dataSource) {
+        DataSource target = dataSource instanceof ReadOnlyRoutingDataSourceProxy proxy
+                ? proxy.getTargetDataSource()
+                : dataSource;
+        return target instanceof BulkheadDataSource bulkhead ? bulkhead : null;
+    }
+}
@@ -0,0 +1,47 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+@Validated
+@ConfigurationProperties(prefix = "app.rate-limit")
+record RateLimitProperties(
+    @DefaultValue("true") boolean enabled,
+    @DefaultValue("local") @NotNull Mode mode,
+    // Burst size: requests a client can send at once per route
+    @DefaultValue("100") @Positive int capacity,
+    // Sustained requests per second per client and route
+    @DefaultValue("50") @Positive double refillPerSecond,
+    // Clients sending this header with one of api-keys are limited by key instead of by address
+    @DefaultValue("X-API-Key") @NotBlank String apiKeyHeader,
+    // Keys honoured by the limiter; any other value is limited by address like a request without one
+    @DefaultValue @NotNull List<@NotBlank String> apiKeys,
+    // Local buckets kept in memory; least recently used clients are dropped first
+    @DefaultValue("100000") @Positive long maxBuckets,
+    @DefaultValue @NotNull @Valid Shedding shedding
+) {
+
+    enum Mode {
+        // Per-node buckets; each node allows the full rate
+        LOCAL,
+        // Buckets shared through Redis, with per-node buckets while Redis is unreachable
+        REDIS
+    }
+
+    record Shedding(
+        // Concurrent API requests per node; 0 disables
+        @DefaultValue("200") @PositiveOrZero int maxInFlight,
+        // Average connection wait above which requests are shed while callers are queuing; 0 disables
+        @DefaultValue("500ms") @NotNull @DurationMin(millis = 0) Duration maxDbWait
+    ) {}
+}
@@ -0,0 +1,41 @@
+package net.profitwarning.api.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.AbstractEntityManagerFactoryBean;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(StartupProperties.class)
+class StartupConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupConfig.class);
+
+    // With spring.main.lazy-initialization (the fast-start profile) these are still built during
+    // startup: the first request should not pay for migrations or the Hibernate metamodel
+    @Bean
+    static LazyInitializationExcludeFilter eagerInfrastructure() {
+        return LazyInitializationExcludeFilter.forBeanTypes(DataSource.class, FlywayMigrationInitializer.class,
+                AbstractEntityManagerFactoryBean.class, EntityManagerFactory.class, CacheManager.class);
+    }
+
+    @Bean
+    FlywayMigrationStrategy flywayMigrationStrategy(StartupProperties properties) {
+        return flyway -> {
+            if (properties.skipMigrations()) {
+                logger.info("Skipping Flyway migrations (app.startup.skip-migrations=true)");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
@@ -0,0 +1,11 @@
+package net.profitwarning.api.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "app.startup")
+record StartupProperties(
+    // Leave the schema to another pod or a migration job; Flyway is still configured, so an
+    // AOT-processed build can switch this at runtime
+    @DefaultValue("false") boolean skipMigrations
+) {}
@@ -0,0 +1,18 @@
+package net.profitwarning.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.service.MessageStreamBroadcaster;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(StreamProperties.class)
+class StreamConfig {
+
+    @Bean
+    MessageStreamBroadcaster messageStreamBroadcaster(MeterRegistry meterRegistry, StreamProperties properties) {
+        return new MessageStreamBroadcaster(meterRegistry, properties.bufferSize(), properties.historySize(),
+                properties.heartbeat(), properties.timeout());
+    }
+}
@@ -0,0 +1,23 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+@Validated
+@ConfigurationProperties(prefix = "app.stream")
+record StreamProperties(
+    // Events buffered per subscriber before it is treated as too slow and disconnected
+    @DefaultValue("256") @Positive int bufferSize,
+    // Recent events kept for Last-Event-ID replay
+    @DefaultValue("1024") @PositiveOrZero int historySize,
+    @DefaultValue("15s") @NotNull @DurationMin(millis = 1) Duration heartbeat,
+    // Clients reconnect (with Last-Event-ID) when a subscription times out
+    @DefaultValue("30m") @NotNull @DurationMin(seconds = 1) Duration timeout
+) {}
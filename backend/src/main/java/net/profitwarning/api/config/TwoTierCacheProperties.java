@@ -0,0 +1,49 @@
+package net.profitwarning.api.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import org.hibernate.validator.constraints.time.DurationMin;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.Map;
+
+@Validated
+@ConfigurationProperties(prefix = "app.cache")
+record TwoTierCacheProperties(
+    @DefaultValue @NotNull @Valid Local local,
+    @DefaultValue("cache:invalidation") @NotBlank String invalidationChannel,
+    @DefaultValue("compact") @NotNull Codec codec,
+    @DefaultValue @NotNull @Valid Load load,
+    // Per-cache TTL for both tiers, e.g. app.cache.time-to-live[testMessageSearch]=30s; others use
+    // spring.cache.redis.time-to-live and local.ttl
+    @DefaultValue @NotNull Map<@NotBlank String, @NotNull @DurationMin(millis = 1) Duration> timeToLive
+) {
+
+    enum Codec {
+        // Varint/UTF-8 encoding of MessageResponse and its lists, with JDK fallback for other types
+        COMPACT,
+        // JdkSerializationRedisSerializer, the Spring default
+        JDK
+    }
+
+    record Load(
+        // XFetch beta: larger values refresh hot entries earlier; 0 disables early refresh
+        @DefaultValue("1.0") @PositiveOrZero double refreshAheadBeta,
+        // Threads running early refreshes off the request path
+        @DefaultValue("2") @Positive int refreshThreads,
+        // Coordinate misses across nodes with a Redis lock, not just within one node
+        @DefaultValue("false") boolean distributedLock,
+        @DefaultValue("5s") @NotNull @DurationMin(millis = 1) Duration lockTimeout
+    ) {}
+
+    record Local(
+        @DefaultValue("10000") @Positive long maxSize,
+        @DefaultValue("60s") @NotNull @DurationMin(millis = 1) Duration ttl
+    ) {}
+}
@@ -0,0 +1,36 @@
+package net.profitwarning.api.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Period;
+import java.time.ZoneOffset;
+
+/**
+ * {@code Cache-Control} of a single message, shared by the servlet and the reactive stack. Messages
+ * are never modified after they are written, so a response stays fresh until partition retention
+ * (app.partitions.retention) may retire the message; a month is retired once it ended more than the
+ * retention period ago, so every message survives at least {@code createdAt + retention}.
+ */
+public final class MessageCacheControl {
+
+    // Without retention messages are never removed either
+    private static final Duration MAX_MESSAGE_AGE = Duration.ofDays(365);
+
+    private MessageCacheControl() {
+    }
+
+    public static CacheControl of(Instant createdAt, @Nullable Period retention) {
+        if (retention == null) {
+            return CacheControl.maxAge(MAX_MESSAGE_AGE).cachePublic().immutable();
+        }
+        Instant retiredAt = createdAt.atZone(ZoneOffset.UTC).plus(retention).toInstant();
+        Duration remaining = Duration.between(Instant.now(), retiredAt);
+        if (remaining.isNegative()) {
+            return CacheControl.noCache();
+        }
+        return CacheControl.maxAge(remaining.compareTo(MAX_MESSAGE_AGE) < 0 ? remaining : MAX_MESSAGE_AGE).cachePublic();
+    }
+}
@@ -1,45 +1,192 @@
 package net.profitwarning.api.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import net.profitwarning.api.dto.BatchCreateResponse;
 import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessageListResponse;
+import net.profitwarning.api.dto.MessagePageResponse;
 import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.exception.IngestFailedException;
+import net.profitwarning.api.exception.InvalidBatchException;
+import net.profitwarning.api.service.MessageExportRunner;
+import net.profitwarning.api.service.MessageExportService;
+import net.profitwarning.api.service.MessageIngestQueue;
+import net.profitwarning.api.service.MessageStreamBroadcaster;
 import net.profitwarning.api.service.TestMessageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.Period;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/v1/messages")
 @Tag(name = "Messages", description = "Endpoints for managing test messages")
 class MessageController {
 
+    static final int MAX_BATCH_ITEMS = 50_000;
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final Duration BATCH_COMPLETION_TIMEOUT = Duration.ofSeconds(30);
+    private static final int GZIP_BUFFER = 64 * 1024;
+
     private final TestMessageService testMessageService;
+    private final MessageIngestQueue messageIngestQueue;
+    private final MessageStreamBroadcaster messageStreamBroadcaster;
+    private final MessageExportService messageExportService;
+    private final MessageExportRunner messageExportRunner;
+    private final ObjectMapper objectMapper;
+    @Nullable
+    private final Period retention;
 
-    MessageController(TestMessageService testMessageService) {
+    MessageController(TestMessageService testMessageService,
+                      MessageIngestQueue messageIngestQueue,
+                      MessageStreamBroadcaster messageStreamBroadcaster,
+                      MessageExportService messageExportService,
+                      MessageExportRunner messageExportRunner,
+                      ObjectMapper objectMapper,
+                      @Value("${app.partitions.retention:#{null}}") @Nullable Period retention) {
         this.testMessageService = testMessageService;
+        this.messageIngestQueue = messageIngestQueue;
+        this.messageStreamBroadcaster = messageStreamBroadcaster;
+        this.messageExportService = messageExportService;
+        this.messageExportRunner = messageExportRunner;
+        this.objectMapper = objectMapper;
+        this.retention = retention;
     }
 
     @GetMapping
-    @Operation(summary = "Get all messages", description = "Retrieves a list of all messages stored in the database")
-    ResponseEntity<List<MessageResponse>> getMessages() {
-        return ResponseEntity.ok(testMessageService.getMessages());
+    @Operation(summary = "Get messages", description = "Retrieves one page of messages ordered by creation time, optionally created in [from, to); pass nextCursor back as cursor to continue")
+    ResponseEntity<MessagePageResponse> getMessages(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            WebRequest webRequest) {
+        // Taken before the read: a concurrent write can only make the ETag older than the body, never newer
+        String etag = "\"v" + testMessageService.collectionVersion() + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(testMessageService.getMessages(cursor, size, from, to));
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get messages by IDs", description = "Retrieves up to 500 messages by comma-separated ids in one call, in request order; unknown ids are left out")
+    ResponseEntity<MessageListResponse> getMessagesByIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(new MessageListResponse(testMessageService.getMessagesByIds(ids)));
+    }
+
+    @PostMapping(path = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get messages by IDs (body)", description = "Same as GET with ids, for id lists too long for a URL: a JSON array of up to 500 ids")
+    ResponseEntity<MessageListResponse> lookupMessages(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(new MessageListResponse(testMessageService.getMessagesByIds(ids)));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search messages", description = "Full-text search over message content, best matches first; pass nextCursor back as cursor to continue")
+    MessagePageResponse searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return testMessageService.searchMessages(q, cursor, size);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all messages", description = "Streams every message as NDJSON or CSV in creation order; gzip-compressed when the client accepts it")
+    ResponseEntity<ResponseBodyEmitter> exportMessages(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        MessageExportService.Format exportFormat = MessageExportService.Format.of(format);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        // Runs on an export thread; rows are written as they are read
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, GZIP_BUFFER);
+                messageExportService.export(exportFormat, compressed);
+                compressed.finish();
+            } else {
+                messageExportService.export(exportFormat, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("messages." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(messageExportRunner.start(exportFormat.mediaType(), body));
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream new messages", description = "Server-Sent Events feed of newly saved messages; reconnect with Last-Event-ID to receive missed events")
+    SseEmitter streamMessages(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+        return messageStreamBroadcaster.subscribe(lastEventId);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get message by ID", description = "Retrieves a message by its ID")
-    ResponseEntity<MessageResponse> getMessageById(@PathVariable Long id) {
-        return testMessageService.getMessageById(id)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    ResponseEntity<MessageResponse> getMessageById(@PathVariable Long id, WebRequest webRequest) {
+        // Looked up even for a matching If-None-Match (usually a near-cache hit): a message removed
+        // by partition retention must answer 404, not 304
+        Optional<MessageResponse> message = testMessageService.getMessageById(id);
+        if (message.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String etag = "\"m" + id + "\"";
+        Instant createdAt = message.get().createdAt();
+        if (webRequest.checkNotModified(etag, createdAt.toEpochMilli())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(MessageCacheControl.of(createdAt, retention))
+                .eTag(etag)
+                .lastModified(createdAt)
+                .body(message.get());
     }
 
     @PostMapping
@@ -48,4 +195,95 @@ class MessageController {
         MessageResponse response = testMessageService.saveMessage(command);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    @PostMapping(path = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Save messages in bulk", description = "Saves a JSON array of messages through the batched write queue; ids are returned in request order")
+    ResponseEntity<BatchCreateResponse> saveMessages(InputStream body) throws IOException {
+        // Parsed element by element so an oversized batch is rejected before it is fully read
+        List<CreateMessageCommand> commands = new ArrayList<>();
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new InvalidBatchException("Batch must be a JSON array", null);
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                checkBatchSize(commands.size() + 1);
+                commands.add(parser.currentToken() == JsonToken.VALUE_NULL
+                        ? null
+                        : objectMapper.readValue(parser, CreateMessageCommand.class));
+            }
+        } catch (JsonProcessingException ex) {
+            throw new InvalidBatchException("Malformed message", commands.size());
+        }
+        return ingest(commands);
+    }
+
+    @PostMapping(path = "/batch", consumes = APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Save messages in bulk (NDJSON)", description = "Saves one message per line through the batched write queue; ids are returned in line order")
+    ResponseEntity<BatchCreateResponse> saveMessagesNdjson(InputStream body) throws IOException {
+        List<CreateMessageCommand> commands = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                checkBatchSize(commands.size() + 1);
+                try {
+                    commands.add(objectMapper.readValue(line, CreateMessageCommand.class));
+                } catch (JsonProcessingException ex) {
+                    throw new InvalidBatchException("Malformed message", commands.size());
+                }
+            }
+        }
+        return ingest(commands);
+    }
+
+    private ResponseEntity<BatchCreateResponse> ingest(List<CreateMessageCommand> commands) {
+        if (commands.isEmpty()) {
+            throw new InvalidBatchException("Batch must contain at least one message", null);
+        }
+        checkBatchSize(commands.size());
+        // Validate the whole batch up front so a bad item cannot leave half of it written
+        for (int i = 0; i < commands.size(); i++) {
+            CreateMessageCommand command = commands.get(i);
+            if (command == null || command.content() == null || command.content().isBlank()) {
+                throw new InvalidBatchException("Message content must not be blank", i);
+            }
+        }
+        List<MessageResponse> saved;
+        try {
+            saved = messageIngestQueue.submitAll(commands)
+                    .get(BATCH_COMPLETION_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            // The batch was accepted and may still be written, so this is not a retryable 503
+            throw new IngestFailedException("Timed out waiting for batch to be written", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IngestFailedException("Interrupted while waiting for batch to be written", ex);
+        } catch (ExecutionException ex) {
+            throw new IngestFailedException("Failed to write batch", ex.getCause());
+        }
+        List<Long> ids = saved.stream().map(MessageResponse::id).toList();
+        return ResponseEntity.status(HttpStatus.CREATED).body(new BatchCreateResponse(ids.size(), ids));
+    }
+
+    // Honours "gzip" and "gzip;q=<non-zero>"; an explicit q=0 refuses it
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equals("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static void checkBatchSize(int size) {
+        if (size > MAX_BATCH_ITEMS) {
+            throw new InvalidBatchException("Batch exceeds " + MAX_BATCH_ITEMS + " messages", null);
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package net.profitwarning.api.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps concurrent connection checkouts at the pool size with a fair semaphore. Callers beyond the
+ * cap park on the semaphore in arrival order instead of racing each other inside the pool, which
+ * keeps tail latency flat when thousands of virtual threads want a connection at once. The permit
+ * is held until the connection is closed, i.e. for the whole transaction.
+ */
+public class BulkheadDataSource extends DelegatingDataSource implements AutoCloseable {
+
+    private final String name;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+    // Exponentially weighted moving average of permit waits, weight 1/8 per sample
+    private final AtomicLong recentWaitNanos = new AtomicLong();
+    private Timer waitTimer;
+
+    public BulkheadDataSource(String name, DataSource targetDataSource, int maxConcurrency, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("db.bulkhead.waiting", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a connection permit")
+                .tag("pool", name)
+                .register(registry);
+        Gauge.builder("db.bulkhead.in.use", permits, p -> maxConcurrency - p.availablePermits())
+                .description("Connection permits currently held")
+                .tag("pool", name)
+                .register(registry);
+        this.waitTimer = Timer.builder("db.bulkhead.wait")
+                .description("Time spent waiting for a connection permit")
+                .tag("pool", name)
+                .register(registry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection());
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return guard(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getWaiting() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Recent permit wait, smoothed over roughly the last eight checkouts. Only moves when
+     * connections are requested, so pair it with {@link #getWaiting()} to tell a queue that is
+     * still there from one that has drained.
+     */
+    public Duration getRecentWait() {
+        return Duration.ofNanos(recentWaitNanos.get());
+    }
+
+    // Replacing the pool bean hides its close() from Spring, so shutdown is passed through here
+    @Override
+    public void close() throws Exception {
+        if (obtainTargetDataSource() instanceof AutoCloseable target) {
+            target.close();
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for a connection permit", ex);
+        }
+        long waited = System.nanoTime() - start;
+        recentWaitNanos.accumulateAndGet(waited, (average, sample) -> average + (sample - average) / 8);
+        if (waitTimer != null) {
+            waitTimer.record(waited, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw new SQLTransientConnectionException(
+                    "No connection permit available within " + acquireTimeout.toMillis() + "ms");
+        }
+    }
+
+    private Connection guard(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new PermitReleasingHandler(connection));
+    }
+
+    private final class PermitReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    try {
+                        target.close();
+                    } finally {
+                        // close() may be called more than once; only the first call returns the permit
+                        if (released.compareAndSet(false, true)) {
+                            permits.release();
+                        }
+                    }
+                    return null;
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "unwrap" -> {
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                }
+                case "isWrapperFor" -> {
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                }
+                default -> {
+                }
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package net.profitwarning.api.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Defers fetching a physical connection until the first statement, by which time the transaction
+ * manager has marked the connection read-only or not; read-only connections then come from the
+ * replica router, everything else from the primary. Closing it closes both sides, so the wrapped
+ * pools are shut down with the application context.
+ */
+public class ReadOnlyRoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements AutoCloseable {
+
+    private final ReplicaRoutingDataSource replicas;
+
+    public ReadOnlyRoutingDataSourceProxy(DataSource primary, ReplicaRoutingDataSource replicas) {
+        super(primary);
+        this.replicas = replicas;
+        setReadOnlyDataSource(replicas);
+    }
+
+    public ReplicaRoutingDataSource getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void close() throws Exception {
+        replicas.close();
+        if (obtainTargetDataSource() instanceof AutoCloseable primary) {
+            primary.close();
+        }
+    }
+}
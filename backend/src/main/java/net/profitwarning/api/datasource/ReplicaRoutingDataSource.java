@@ -0,0 +1,193 @@
+package net.profitwarning.api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Read-only target for {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}:
+ * hands out connections from one of several replica pools, chosen round-robin or by fewest active
+ * connections. A background probe measures each replica's replication lag; replicas that lag more
+ * than the limit, or cannot be reached, are skipped, and when none is usable reads go to the primary.
+ * With {@link #setTimeSinceLastWrite(Supplier)} reads also stay on the primary until the last write
+ * is older than the lag limit, so every usable replica has replayed it.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    public enum Strategy {
+        ROUND_ROBIN,
+        LEAST_CONNECTIONS
+    }
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final List<Replica> replicas;
+    private final DataSource primary;
+    private final Strategy strategy;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final ScheduledExecutorService lagProbe;
+    private volatile Supplier<Duration> timeSinceLastWrite = () -> ChronoUnit.FOREVER.getDuration();
+
+    /**
+     * @param replicas  pools to route to; {@code dataSource} may wrap {@code pool} (e.g. with a bulkhead)
+     * @param lagQuery  returns the replica's lag in seconds as a single numeric column
+     */
+    public ReplicaRoutingDataSource(List<Replica> replicas, DataSource primary, Strategy strategy,
+                                    Duration maxLag, Duration lagCheckInterval, String lagQuery) {
+        this.replicas = List.copyOf(replicas);
+        this.primary = primary;
+        this.strategy = strategy;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+        this.lagProbe = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("replica-lag-probe").daemon().factory());
+        // Replicas start out unusable, so nothing is read from one before its lag is known
+        lagProbe.scheduleWithFixedDelay(this::probeLag, 0, lagCheckInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = select();
+        return replica != null ? replica.dataSource().getConnection() : primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = select();
+        return replica != null
+                ? replica.dataSource().getConnection(username, password)
+                : primary.getConnection(username, password);
+    }
+
+    /**
+     * Source of the time since the last write any node made. While it is within the lag limit a
+     * replica may not have replayed that write yet, so reads go to the primary.
+     */
+    public void setTimeSinceLastWrite(Supplier<Duration> timeSinceLastWrite) {
+        this.timeSinceLastWrite = timeSinceLastWrite;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void bindTo(MeterRegistry registry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("db.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 when the replica is within the lag limit and receives reads")
+                    .tag("replica", replica.name())
+                    .register(registry);
+            Gauge.builder("db.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Last measured replication lag")
+                    .baseUnit("seconds")
+                    .tag("replica", replica.name())
+                    .register(registry);
+        }
+    }
+
+    /** Runs one lag check of every replica; the scheduler calls this periodically. */
+    public void probeLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(Math.max(1, (int) maxLag.toSeconds()));
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    double lag = resultSet.next() ? resultSet.getDouble(1) : Double.MAX_VALUE;
+                    replica.lagSeconds = lag;
+                    replica.setHealthy(lag <= maxLag.toMillis() / 1000.0);
+                }
+            } catch (SQLException | RuntimeException ex) {
+                logger.debug("Lag probe failed for replica {}: {}", replica.name(), ex.getMessage());
+                replica.setHealthy(false);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        lagProbe.shutdownNow();
+        replicas.forEach(replica -> replica.pool().close());
+    }
+
+    @Nullable
+    private Replica select() {
+        if (timeSinceLastWrite.get().compareTo(maxLag) <= 0) {
+            return null;
+        }
+        List<Replica> usable = replicas.stream().filter(replica -> replica.healthy).toList();
+        if (usable.isEmpty()) {
+            return null;
+        }
+        return switch (strategy) {
+            case ROUND_ROBIN -> usable.get(Math.floorMod(next.getAndIncrement(), usable.size()));
+            case LEAST_CONNECTIONS -> usable.stream()
+                    .min(Comparator.comparingInt(Replica::activeConnections))
+                    .orElseThrow();
+        };
+    }
+
+    public static final class Replica {
+
+        private final String name;
+        private final HikariDataSource pool;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile double lagSeconds = Double.NaN;
+
+        public Replica(String name, HikariDataSource pool, DataSource dataSource) {
+            this.name = name;
+            this.pool = pool;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public HikariDataSource pool() {
+            return pool;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        private void setHealthy(boolean healthy) {
+            if (this.healthy != healthy) {
+                logger.info("Replica {} is now {}", name, healthy ? "in rotation" : "out of rotation");
+            }
+            this.healthy = healthy;
+        }
+
+        private int activeConnections() {
+            HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+            return mxBean != null ? mxBean.getActiveConnections() : 0;
+        }
+    }
+}
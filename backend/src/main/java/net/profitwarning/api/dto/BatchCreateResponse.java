@@ -0,0 +1,8 @@
+package net.profitwarning.api.dto;
+
+import java.util.List;
+
+public record BatchCreateResponse(
+    int created,
+    List<Long> ids
+) {}
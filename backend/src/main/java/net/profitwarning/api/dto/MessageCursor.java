@@ -0,0 +1,43 @@
+package net.profitwarning.api.dto;
+
+import net.profitwarning.api.exception.InvalidQueryParameterException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Keyset position after the last row of a page. Encoded as an opaque URL-safe token so clients
+ * cannot depend on its layout.
+ */
+public record MessageCursor(Instant createdAt, long id) {
+
+    private static final int ENCODED_BYTES = Long.BYTES + Integer.BYTES + Long.BYTES;
+
+    public static MessageCursor of(MessageResponse message) {
+        return new MessageCursor(message.createdAt(), message.id());
+    }
+
+    public static MessageCursor decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != ENCODED_BYTES) {
+                throw new InvalidQueryParameterException("cursor", "Malformed cursor");
+            }
+            Instant createdAt = Instant.ofEpochSecond(buffer.getLong(), buffer.getInt());
+            return new MessageCursor(createdAt, buffer.getLong());
+        } catch (IllegalArgumentException | BufferUnderflowException | DateTimeException ex) {
+            throw new InvalidQueryParameterException("cursor", "Malformed cursor");
+        }
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .putLong(createdAt.getEpochSecond())
+                .putInt(createdAt.getNano())
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+}
@@ -0,0 +1,7 @@
+package net.profitwarning.api.dto;
+
+import java.util.List;
+
+public record MessageListResponse(
+    List<MessageResponse> messages
+) {}
@@ -0,0 +1,9 @@
+package net.profitwarning.api.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+public record MessagePageResponse(
+    List<MessageResponse> items,
+    String nextCursor
+) implements Serializable {}
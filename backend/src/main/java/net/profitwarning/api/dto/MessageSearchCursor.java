@@ -0,0 +1,35 @@
+package net.profitwarning.api.dto;
+
+import net.profitwarning.api.exception.InvalidQueryParameterException;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Keyset position after the last hit of a search page, ordered by rank then id, both descending.
+ * Opaque to clients like {@link MessageCursor}.
+ */
+public record MessageSearchCursor(float rank, long id) {
+
+    private static final int ENCODED_BYTES = Integer.BYTES + Long.BYTES;
+
+    public static MessageSearchCursor decode(String token) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.getUrlDecoder().decode(token));
+            if (buffer.remaining() != ENCODED_BYTES) {
+                throw new InvalidQueryParameterException("cursor", "Malformed cursor");
+            }
+            return new MessageSearchCursor(Float.intBitsToFloat(buffer.getInt()), buffer.getLong());
+        } catch (IllegalArgumentException | BufferUnderflowException ex) {
+            throw new InvalidQueryParameterException("cursor", "Malformed cursor");
+        }
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES)
+                .putInt(Float.floatToIntBits(rank))
+                .putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+}
@@ -0,0 +1,8 @@
+package net.profitwarning.api.exception;
+
+public class ExportUnavailableException extends RuntimeException {
+
+    public ExportUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,16 @@
 package net.profitwarning.api.exception;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.stream.Collectors;
 
@@ -26,6 +32,104 @@ public class GlobalExceptionHandler {
         return problemDetail;
     }
 
+    @ExceptionHandler(InvalidQueryParameterException.class)
+    ProblemDetail handleInvalidQueryParameter(InvalidQueryParameterException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problemDetail.setTitle("Invalid Query Parameter");
+        problemDetail.setProperty("parameter", ex.getParameter());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    ProblemDetail handleArgumentTypeMismatch(MethodArgumentTypeMismatchException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                "Malformed " + ex.getName());
+        if (ex.getParameter().hasParameterAnnotation(PathVariable.class)) {
+            problemDetail.setTitle("Invalid Path Variable");
+            problemDetail.setProperty("pathVariable", ex.getName());
+        } else {
+            problemDetail.setTitle("Invalid Query Parameter");
+            problemDetail.setProperty("parameter", ex.getName());
+        }
+        return problemDetail;
+    }
+
+    @ExceptionHandler(MissingServletRequestParameterException.class)
+    ProblemDetail handleMissingQueryParameter(MissingServletRequestParameterException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                "Missing " + ex.getParameterName());
+        problemDetail.setTitle("Invalid Query Parameter");
+        problemDetail.setProperty("parameter", ex.getParameterName());
+        return problemDetail;
+    }
+
+    @ExceptionHandler(InvalidBatchException.class)
+    ProblemDetail handleInvalidBatch(InvalidBatchException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, ex.getMessage());
+        problemDetail.setTitle("Invalid Batch");
+        if (ex.getIndex() != null) {
+            problemDetail.setProperty("index", ex.getIndex());
+        }
+        return problemDetail;
+    }
+
+    @ExceptionHandler(IngestUnavailableException.class)
+    ResponseEntity<ProblemDetail> handleIngestUnavailable(IngestUnavailableException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problemDetail.setTitle("Ingest Unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problemDetail);
+    }
+
+    // No Retry-After: part of the batch may already be written, so a blind retry could duplicate it
+    @ExceptionHandler(IngestFailedException.class)
+    ProblemDetail handleIngestFailed(IngestFailedException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
+        problemDetail.setTitle("Ingest Failed");
+        return problemDetail;
+    }
+
+    @ExceptionHandler(ExportUnavailableException.class)
+    ResponseEntity<ProblemDetail> handleExportUnavailable(ExportUnavailableException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problemDetail.setTitle("Export Unavailable");
+        // Exports run for minutes, so a slot rarely frees up within a second
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(problemDetail);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    ResponseEntity<ProblemDetail> handleRateLimitExceeded(RateLimitExceededException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+        problemDetail.setTitle("Too Many Requests");
+        // Retry-After is whole seconds; round up so clients never come back before a token is available
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(problemDetail);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    ResponseEntity<ProblemDetail> handleServiceOverloaded(ServiceOverloadedException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        problemDetail.setTitle("Service Overloaded");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problemDetail);
+    }
+
+    @ExceptionHandler(CannotCreateTransactionException.class)
+    ResponseEntity<ProblemDetail> handleDatabaseUnavailable(CannotCreateTransactionException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE,
+                "No database connection available");
+        problemDetail.setTitle("Database Unavailable");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(problemDetail);
+    }
+
     @ExceptionHandler(Exception.class)
     ProblemDetail handleGeneralException(Exception ex) {
         ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, ex.getMessage());
@@ -0,0 +1,8 @@
+package net.profitwarning.api.exception;
+
+public class IngestFailedException extends RuntimeException {
+
+    public IngestFailedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
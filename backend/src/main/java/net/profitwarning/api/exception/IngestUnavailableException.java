@@ -0,0 +1,8 @@
+package net.profitwarning.api.exception;
+
+public class IngestUnavailableException extends RuntimeException {
+
+    public IngestUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package net.profitwarning.api.exception;
+
+import org.springframework.lang.Nullable;
+
+public class InvalidBatchException extends RuntimeException {
+
+    private final Integer index;
+
+    public InvalidBatchException(String message, @Nullable Integer index) {
+        super(message);
+        this.index = index;
+    }
+
+    @Nullable
+    public Integer getIndex() {
+        return index;
+    }
+}
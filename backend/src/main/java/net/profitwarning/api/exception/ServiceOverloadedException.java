@@ -0,0 +1,8 @@
+package net.profitwarning.api.exception;
+
+public class ServiceOverloadedException extends RuntimeException {
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.Column;
 import org.hibernate.annotations.CreationTimestamp;
@@ -14,8 +15,10 @@ import java.time.Instant;
 @Table(name = "testmessages")
 public class TestMessage {
 
+    // Pooled sequence (see V4 migration) so Hibernate can batch inserts; IDENTITY disables JDBC batching
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "testmessages_id_seq")
+    @SequenceGenerator(name = "testmessages_id_seq", sequenceName = "testmessages_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "message")
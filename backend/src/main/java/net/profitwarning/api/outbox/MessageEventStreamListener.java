@@ -0,0 +1,74 @@
+package net.profitwarning.api.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.service.MessageStreamBroadcaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.stream.StreamListener;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tails the message event stream on every node. Each {@code message.created} entry is handed to the
+ * SSE broadcaster under its stream id, and the local collection version is refreshed as a backstop
+ * for page-cache invalidations missed on the pub/sub channel.
+ * <p>
+ * Refreshes are coalesced: at most one runs and one more is queued, however many entries arrive,
+ * so a write burst costs each node a handful of {@code GET}s rather than one per event.
+ */
+public class MessageEventStreamListener implements StreamListener<String, MapRecord<String, String, String>> {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageEventStreamListener.class);
+
+    private final MessageStreamBroadcaster broadcaster;
+    private final MessageCollectionVersion collectionVersion;
+    private final ObjectMapper objectMapper;
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    // One thread, so refreshes never overlap; virtual, so it does not hold the JVM open
+    private final ExecutorService refreshExecutor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("message-version-refresh").factory());
+
+    public MessageEventStreamListener(MessageStreamBroadcaster broadcaster,
+                                      MessageCollectionVersion collectionVersion,
+                                      ObjectMapper objectMapper) {
+        this.broadcaster = broadcaster;
+        this.collectionVersion = collectionVersion;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void onMessage(MapRecord<String, String, String> record) {
+        scheduleRefresh();
+        if (!MessageOutbox.MESSAGE_CREATED.equals(record.getValue().get(RedisStreamEventPublisher.TYPE))) {
+            return;
+        }
+        String payload = record.getValue().get(RedisStreamEventPublisher.PAYLOAD);
+        try {
+            MessageResponse message = objectMapper.readValue(payload, MessageResponse.class);
+            broadcaster.publish(record.getId().getValue(), message);
+        } catch (JsonProcessingException | IllegalArgumentException ex) {
+            logger.warn("Skipping unreadable message event {}", record.getId(), ex);
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshPending.compareAndSet(false, true)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            // Cleared before reading, so an entry arriving during the GET schedules one more refresh
+            refreshPending.set(false);
+            try {
+                collectionVersion.refresh();
+            } catch (RuntimeException ex) {
+                logger.warn("Failed to refresh message collection version", ex);
+            }
+        });
+    }
+}
@@ -0,0 +1,85 @@
+package net.profitwarning.api.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.service.MessageSavedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a {@code message_outbox} row for every {@link MessageSavedEvent}. Events are collected per
+ * transaction and inserted in one JDBC batch just before it commits, so the outbox rows commit or
+ * roll back together with the messages and an ingest batch costs one extra round-trip, not one
+ * per message.
+ */
+public class MessageOutbox {
+
+    public static final String MESSAGE_CREATED = "message.created";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO message_outbox (message_id, event_type, payload) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public MessageOutbox(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    // A plain listener on purpose: it has to run inside the publishing transaction
+    @EventListener
+    public void onMessageSaved(MessageSavedEvent event) {
+        PendingEvent pending = new PendingEvent(event.message().id(), MESSAGE_CREATED, serialize(event.message()));
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(pending));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        List<PendingEvent> batch = (List<PendingEvent>) TransactionSynchronizationManager.getResource(this);
+        if (batch == null) {
+            List<PendingEvent> newBatch = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, newBatch);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(newBatch);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(MessageOutbox.this);
+                }
+            });
+            batch = newBatch;
+        }
+        batch.add(pending);
+    }
+
+    private void insert(List<PendingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (statement, event) -> {
+            statement.setLong(1, event.messageId());
+            statement.setString(2, event.type());
+            statement.setString(3, event.payload());
+        });
+    }
+
+    private String serialize(MessageResponse message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize message " + message.id(), ex);
+        }
+    }
+
+    private record PendingEvent(long messageId, String type, String payload) {}
+}
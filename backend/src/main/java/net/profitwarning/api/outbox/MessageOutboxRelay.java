@@ -0,0 +1,142 @@
+package net.profitwarning.api.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves events from {@code message_outbox} to an {@link OutboxEventPublisher}. Each batch is locked
+ * with {@code FOR UPDATE SKIP LOCKED}, published, and deleted in the same transaction: if publishing
+ * fails the rows stay and are retried, and if the node dies after publishing but before the commit
+ * the batch is published again. Delivery is therefore at-least-once, and several nodes can run the
+ * relay side by side without publishing the same row concurrently.
+ */
+public class MessageOutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageOutboxRelay.class);
+
+    private static final String SELECT_SQL = """
+            SELECT id, message_id, event_type, payload
+            FROM message_outbox
+            ORDER BY id
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED""";
+    private static final String DELETE_SQL = "DELETE FROM message_outbox WHERE id = ?";
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(
+            rs.getLong("id"), rs.getLong("message_id"), rs.getString("event_type"), rs.getString("payload"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxEventPublisher publisher;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private final Counter publishedEvents;
+    private final Counter failedBatches;
+    private final DistributionSummary batchSizes;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public MessageOutboxRelay(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              OutboxEventPublisher publisher,
+                              MeterRegistry meterRegistry,
+                              int batchSize,
+                              Duration pollInterval,
+                              Duration retryDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.publisher = publisher;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+        this.publishedEvents = Counter.builder("messages.outbox.published")
+                .description("Outbox events handed to the publisher and removed from the table")
+                .register(meterRegistry);
+        this.failedBatches = Counter.builder("messages.outbox.failures")
+                .description("Outbox batches that failed to publish and will be retried")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("messages.outbox.batch.size")
+                .description("Events published per relay batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Publishes and deletes at most one batch.
+     *
+     * @return the number of events published
+     */
+    public int relayBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = jdbcTemplate.query(SELECT_SQL, ROW_MAPPER, batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            publisher.publish(events);
+            jdbcTemplate.batchUpdate(DELETE_SQL, events, events.size(),
+                    (statement, event) -> statement.setLong(1, event.id()));
+            return events.size();
+        });
+        int count = published != null ? published : 0;
+        if (count > 0) {
+            batchSizes.record(count);
+            publishedEvents.increment(count);
+        }
+        return count;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("message-outbox-relay").start(this::relay);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = worker;
+        if (current == null) {
+            return;
+        }
+        LockSupport.unpark(current);
+        try {
+            current.join(Duration.ofSeconds(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void relay() {
+        while (running) {
+            Duration pause;
+            try {
+                // A full batch means there is probably more waiting, so go again straight away
+                pause = relayBatch() < batchSize ? pollInterval : Duration.ZERO;
+            } catch (RuntimeException ex) {
+                failedBatches.increment();
+                logger.warn("Failed to relay outbox batch, retrying in {}", retryDelay, ex);
+                pause = retryDelay;
+            }
+            if (running && pause.isPositive()) {
+                // Parking rather than sleeping, so stop() can wake the worker without interrupting JDBC
+                LockSupport.parkNanos(this, pause.toNanos());
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package net.profitwarning.api.outbox;
+
+/**
+ * One row of {@code message_outbox}. The id is assigned by the database and travels with the
+ * event, so consumers can drop the duplicates at-least-once delivery allows.
+ */
+public record OutboxEvent(long id, long messageId, String type, String payload) {}
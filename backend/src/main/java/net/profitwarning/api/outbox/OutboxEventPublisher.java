@@ -0,0 +1,13 @@
+package net.profitwarning.api.outbox;
+
+import java.util.List;
+
+/**
+ * Delivers a batch of outbox events downstream. Must either deliver the whole batch or throw, in
+ * which case the relay keeps the rows and retries them.
+ */
+@FunctionalInterface
+public interface OutboxEventPublisher {
+
+    void publish(List<OutboxEvent> events);
+}
@@ -0,0 +1,92 @@
+package net.profitwarning.api.outbox;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisCallback;
+import org.springframework.data.redis.connection.RedisStreamCommands.XAddOptions;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Appends outbox events to a Redis stream, one entry per event, in a single pipelined round-trip
+ * per batch. Consumers read the stream with {@code XREADGROUP} and {@code XACK}, so every consumer
+ * group keeps its own offset and redelivers entries that were read but never acknowledged.
+ *
+ * <p>The configured groups are created at offset {@code 0} before the first entry is added, so
+ * they see every event from the start. The stream is trimmed to roughly {@code maxLength} entries;
+ * a group that falls further behind than that loses the oldest events.
+ */
+public class RedisStreamEventPublisher implements OutboxEventPublisher {
+
+    public static final String EVENT_ID = "eventId";
+    public static final String TYPE = "type";
+    public static final String MESSAGE_ID = "messageId";
+    public static final String PAYLOAD = "payload";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String streamKey;
+    private final List<String> consumerGroups;
+    private final XAddOptions addOptions;
+
+    private volatile boolean groupsCreated;
+
+    public RedisStreamEventPublisher(StringRedisTemplate redisTemplate,
+                                     String streamKey,
+                                     List<String> consumerGroups,
+                                     long maxLength) {
+        this.redisTemplate = redisTemplate;
+        this.streamKey = streamKey;
+        this.consumerGroups = List.copyOf(consumerGroups);
+        this.addOptions = XAddOptions.maxlen(maxLength).approximateTrimming(true);
+    }
+
+    @Override
+    public void publish(List<OutboxEvent> events) {
+        if (!groupsCreated) {
+            consumerGroups.forEach(this::createGroup);
+            groupsCreated = true;
+        }
+        byte[] key = bytes(streamKey);
+        // executePipelined throws if any XADD failed, which rolls the relay batch back
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (OutboxEvent event : events) {
+                Map<byte[], byte[]> fields = new LinkedHashMap<>();
+                fields.put(bytes(EVENT_ID), bytes(Long.toString(event.id())));
+                fields.put(bytes(TYPE), bytes(event.type()));
+                fields.put(bytes(MESSAGE_ID), bytes(Long.toString(event.messageId())));
+                fields.put(bytes(PAYLOAD), bytes(event.payload()));
+                connection.streamCommands().xAdd(StreamRecords.rawBytes(fields).withStreamKey(key), addOptions);
+            }
+            return null;
+        });
+    }
+
+    private void createGroup(String group) {
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection ->
+                    connection.streamCommands().xGroupCreate(bytes(streamKey), group, ReadOffset.from("0"), true));
+        } catch (DataAccessException ex) {
+            if (!isBusyGroup(ex)) {
+                throw ex;
+            }
+        }
+    }
+
+    private static boolean isBusyGroup(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains("BUSYGROUP")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,77 @@
+package net.profitwarning.api.ratelimit;
+
+import net.profitwarning.api.exception.ServiceOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Turns requests away before they queue for a database connection. A request is shed when the
+ * node already has {@code maxInFlight} requests in progress, or when callers are queuing for a
+ * connection and have recently waited longer than {@code maxDbWait}. Shedding early keeps the
+ * latency of admitted requests bounded instead of letting every request time out together.
+ */
+public class LoadShedder {
+
+    public enum Reason {
+        IN_FLIGHT,
+        DB_WAIT
+    }
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int maxInFlight;
+    private final Supplier<Duration> dbWait;
+    private final Duration maxDbWait;
+
+    /**
+     * @param maxInFlight concurrent requests above which new ones are shed; 0 disables the check
+     * @param dbWait current connection wait, {@link Duration#ZERO} when nobody is queuing
+     * @param maxDbWait wait above which new requests are shed; zero disables the check
+     */
+    public LoadShedder(int maxInFlight, Supplier<Duration> dbWait, Duration maxDbWait) {
+        this.maxInFlight = maxInFlight;
+        this.dbWait = dbWait;
+        this.maxDbWait = maxDbWait;
+    }
+
+    /**
+     * Admits the request or throws; every successful call must be paired with {@link #exit()}.
+     */
+    public void enter() {
+        if (maxDbWait.isPositive() && dbWait.get().compareTo(maxDbWait) > 0) {
+            throw new Shed(Reason.DB_WAIT, "Database connections are saturated");
+        }
+        int current = inFlight.incrementAndGet();
+        if (maxInFlight > 0 && current > maxInFlight) {
+            inFlight.decrementAndGet();
+            throw new Shed(Reason.IN_FLIGHT, "Too many requests in progress");
+        }
+    }
+
+    public void exit() {
+        inFlight.decrementAndGet();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Carries the reason to the interceptor's metrics; handled like any other
+     * {@link ServiceOverloadedException}.
+     */
+    public static final class Shed extends ServiceOverloadedException {
+
+        private final Reason reason;
+
+        Shed(Reason reason, String message) {
+            super(message);
+            this.reason = reason;
+        }
+
+        public Reason getReason() {
+            return reason;
+        }
+    }
+}
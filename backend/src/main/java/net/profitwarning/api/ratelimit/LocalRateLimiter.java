@@ -0,0 +1,74 @@
+package net.profitwarning.api.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token buckets. Buckets live in a Caffeine map, whose striped locking keeps clients from
+ * contending with each other; each bucket is only locked by requests for its own key. Idle buckets
+ * expire once they would have refilled completely, and the map is size-bounded so a flood of new
+ * keys (e.g. spoofed addresses) cannot exhaust the heap.
+ */
+public class LocalRateLimiter implements RateLimiter {
+
+    private final Cache<String, Bucket> buckets;
+    private final int capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+
+    public LocalRateLimiter(int capacity, double refillPerSecond, long maxBuckets) {
+        this(capacity, refillPerSecond, maxBuckets, System::nanoTime);
+    }
+
+    LocalRateLimiter(int capacity, double refillPerSecond, long maxBuckets, LongSupplier nanoTime) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalArgumentException("capacity must be at least 1 and refillPerSecond positive");
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / 1e9;
+        this.nanoTime = nanoTime;
+        // A bucket idle this long is full again, so dropping it changes nothing
+        Duration fullRefill = Duration.ofNanos((long) Math.ceil(capacity / tokensPerNano));
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfterAccess(fullRefill.plusSeconds(1))
+                .ticker(nanoTime::getAsLong)
+                .build();
+    }
+
+    @Override
+    public Decision tryAcquire(String key) {
+        long now = nanoTime.getAsLong();
+        return buckets.get(key, ignored -> new Bucket(capacity, now)).take(now);
+    }
+
+    public long bucketCount() {
+        return buckets.estimatedSize();
+    }
+
+    private final class Bucket {
+
+        private double tokens;
+        private long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+
+        synchronized Decision take(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerNano);
+                refilledAt = now;
+            }
+            if (tokens >= 1) {
+                tokens -= 1;
+                return Decision.ALLOWED;
+            }
+            return Decision.denied(Duration.ofNanos((long) Math.ceil((1 - tokens) / tokensPerNano)));
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package net.profitwarning.api.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.profitwarning.api.exception.RateLimitExceededException;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies the per-client rate limit and the {@link LoadShedder} to API requests. Runs as an MVC
+ * interceptor rather than a servlet filter so the route pattern is already resolved and rejections
+ * are rendered by {@code GlobalExceptionHandler} like every other error.
+ *
+ * <p>Clients are identified by the API key header when it carries one of the configured keys,
+ * otherwise by remote address; each client gets a separate bucket per route. An unknown key counts
+ * as no key, so rotating made-up keys does not buy fresh buckets. Async requests (SSE, exports) leave the in-flight count
+ * once the servlet thread is released.
+ */
+public class RateLimitInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED = RateLimitInterceptor.class.getName() + ".ADMITTED";
+
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final String apiKeyHeader;
+    // Hashes of the configured keys; also what the buckets are keyed by
+    private final Set<String> apiKeyHashes;
+    private final Counter rateLimited;
+    private final Map<LoadShedder.Reason, Counter> shed = new EnumMap<>(LoadShedder.Reason.class);
+
+    public RateLimitInterceptor(RateLimiter rateLimiter, LoadShedder loadShedder, String apiKeyHeader,
+                                Collection<String> apiKeys, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        this.apiKeyHeader = apiKeyHeader;
+        this.apiKeyHashes = apiKeys.stream()
+                .filter(key -> !key.isBlank())
+                .map(RateLimitInterceptor::sha256)
+                .collect(Collectors.toUnmodifiableSet());
+        this.rateLimited = rejectedCounter(meterRegistry, "rate_limit");
+        for (LoadShedder.Reason reason : LoadShedder.Reason.values()) {
+            shed.put(reason, rejectedCounter(meterRegistry, reason.name().toLowerCase(Locale.ROOT)));
+        }
+        Gauge.builder("http.server.requests.in.flight", loadShedder, LoadShedder::getInFlight)
+                .description("API requests currently admitted by the load shedder")
+                .register(meterRegistry);
+        if (rateLimiter instanceof LocalRateLimiter local) {
+            Gauge.builder("ratelimit.buckets", local, LocalRateLimiter::bucketCount)
+                    .description("Client buckets held in memory")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        // The async re-dispatch of a request that was already admitted
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(clientId(request) + " " + route(request));
+        if (!decision.allowed()) {
+            rateLimited.increment();
+            throw new RateLimitExceededException("Rate limit exceeded", decision.retryAfter());
+        }
+        try {
+            loadShedder.enter();
+        } catch (LoadShedder.Shed ex) {
+            shed.get(ex.getReason()).increment();
+            throw ex;
+        }
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request,
+                                               @NonNull HttpServletResponse response,
+                                               @NonNull Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, @Nullable Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            loadShedder.exit();
+        }
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String apiKey = request.getHeader(apiKeyHeader);
+        if (apiKey != null && !apiKey.isBlank()) {
+            // Hashed so raw keys never end up in Redis or heap dumps
+            String hash = sha256(apiKey);
+            if (apiKeyHashes.contains(hash)) {
+                return "key:" + hash;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : request.getRequestURI());
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("http.server.requests.rejected")
+                .description("API requests refused by rate limiting or load shedding")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
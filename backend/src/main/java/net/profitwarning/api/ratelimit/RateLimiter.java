@@ -0,0 +1,24 @@
+package net.profitwarning.api.ratelimit;
+
+import java.time.Duration;
+
+/**
+ * Token-bucket limiter keyed by an opaque string. Each key has its own bucket that holds up to
+ * {@code capacity} tokens and refills at a fixed rate; a request takes one token or is refused.
+ */
+public interface RateLimiter {
+
+    Decision tryAcquire(String key);
+
+    /**
+     * @param retryAfter time until the next token is available; zero when allowed
+     */
+    record Decision(boolean allowed, Duration retryAfter) {
+
+        static final Decision ALLOWED = new Decision(true, Duration.ZERO);
+
+        static Decision denied(Duration retryAfter) {
+            return new Decision(false, retryAfter);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package net.profitwarning.api.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide token buckets: each request runs one Lua script that refills and takes from a Redis
+ * hash, so all nodes share a client's budget. The script uses the Redis clock, so node clock skew
+ * does not matter. While Redis is unreachable the limiter falls back to per-node buckets instead
+ * of failing requests.
+ */
+public class RedisRateLimiter implements RateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    // KEYS[1] bucket hash; ARGV[1] capacity; ARGV[2] tokens per second. Returns {allowed, waitMillis}.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> TAKE_SCRIPT = RedisScript.of("""
+            local capacity = tonumber(ARGV[1])
+            local rate = tonumber(ARGV[2])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(state[1]) or capacity
+            local ts = tonumber(state[2]) or now
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate / 1000)
+            local allowed = 0
+            local wait = 0
+            if tokens >= 1 then
+                tokens = tokens - 1
+                allowed = 1
+            else
+                wait = math.ceil((1 - tokens) * 1000 / rate)
+            end
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now)
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity * 1000 / rate) + 1000)
+            return {allowed, wait}
+            """, List.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final RateLimiter fallback;
+    private final String capacity;
+    private final String refillPerSecond;
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicBoolean fallingBack = new AtomicBoolean();
+
+    public RedisRateLimiter(StringRedisTemplate redisTemplate, int capacity, double refillPerSecond,
+                            RateLimiter fallback) {
+        this.redisTemplate = redisTemplate;
+        this.fallback = fallback;
+        this.capacity = Integer.toString(capacity);
+        this.refillPerSecond = Double.toString(refillPerSecond);
+    }
+
+    @Override
+    public Decision tryAcquire(String key) {
+        List<?> result;
+        try {
+            result = redisTemplate.execute(TAKE_SCRIPT, List.of(KEY_PREFIX + key), capacity, refillPerSecond);
+        } catch (DataAccessException ex) {
+            fallbacks.incrementAndGet();
+            // Logged once per outage rather than per request
+            if (fallingBack.compareAndSet(false, true)) {
+                logger.warn("Redis rate limiting unavailable, using per-node buckets", ex);
+            }
+            return fallback.tryAcquire(key);
+        }
+        if (fallingBack.compareAndSet(true, false)) {
+            logger.info("Redis rate limiting restored");
+        }
+        if (result == null || result.size() < 2) {
+            return fallback.tryAcquire(key);
+        }
+        if (((Number) result.get(0)).longValue() == 1L) {
+            return Decision.ALLOWED;
+        }
+        return Decision.denied(Duration.ofMillis(((Number) result.get(1)).longValue()));
+    }
+
+    public long getFallbackCount() {
+        return fallbacks.get();
+    }
+}
@@ -0,0 +1,15 @@
+package net.profitwarning.api.repository;
+
+import java.time.Instant;
+
+/** A message matching a full-text search, with its {@code ts_rank} relevance. */
+public interface MessageSearchHit {
+
+    Long getId();
+
+    String getContent();
+
+    Instant getCreatedAt();
+
+    float getRank();
+}
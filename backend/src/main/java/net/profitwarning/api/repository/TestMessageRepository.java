@@ -1,9 +1,108 @@
 package net.profitwarning.api.repository;
 
+import jakarta.persistence.QueryHint;
+import net.profitwarning.api.dto.MessageResponse;
 import net.profitwarning.api.model.TestMessage;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Page and id reads project straight into {@link MessageResponse} with constructor expressions:
+ * Hibernate returns plain records, so nothing is registered in the persistence context, no
+ * dirty-checking snapshot is taken and the service has nothing left to map.
+ */
 @Repository
 public interface TestMessageRepository extends JpaRepository<TestMessage, Long> {
+
+    // Largest page plus the look-ahead row (TestMessageService.MAX_PAGE_SIZE + 1), so a page arrives
+    // in a single round-trip
+    String PAGE_FETCH_SIZE = "101";
+
+    @Query("""
+            select new net.profitwarning.api.dto.MessageResponse(m.id, m.content, m.createdAt)
+            from TestMessage m
+            order by m.createdAt, m.id""")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PAGE_FETCH_SIZE)})
+    List<MessageResponse> findByOrderByCreatedAtAscIdAsc(Limit limit);
+
+    // Row-value comparison lets Postgres seek straight into idx_testmessages_created_at_id
+    @Query("""
+            select new net.profitwarning.api.dto.MessageResponse(m.id, m.content, m.createdAt)
+            from TestMessage m
+            where (m.createdAt, m.id) > (:createdAt, :id)
+            order by m.createdAt, m.id""")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PAGE_FETCH_SIZE)})
+    List<MessageResponse> findPageAfter(@Param("createdAt") Instant createdAt, @Param("id") Long id, Limit limit);
+
+    // The created_at bounds let Postgres skip the monthly partitions outside [from, to)
+    @Query("""
+            select new net.profitwarning.api.dto.MessageResponse(m.id, m.content, m.createdAt)
+            from TestMessage m
+            where m.createdAt >= :from and m.createdAt < :to
+            order by m.createdAt, m.id""")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PAGE_FETCH_SIZE)})
+    List<MessageResponse> findPageInRange(@Param("from") Instant from, @Param("to") Instant to, Limit limit);
+
+    @Query("""
+            select new net.profitwarning.api.dto.MessageResponse(m.id, m.content, m.createdAt)
+            from TestMessage m
+            where m.createdAt >= :from and m.createdAt < :to and (m.createdAt, m.id) > (:createdAt, :id)
+            order by m.createdAt, m.id""")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = PAGE_FETCH_SIZE)})
+    List<MessageResponse> findPageInRangeAfter(@Param("from") Instant from, @Param("to") Instant to,
+                                               @Param("createdAt") Instant createdAt, @Param("id") Long id,
+                                               Limit limit);
+
+    @Query("select new net.profitwarning.api.dto.MessageResponse(m.id, m.content, m.createdAt) from TestMessage m where m.id = :id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<MessageResponse> findResponseById(@Param("id") Long id);
+
+    // Read-only, so it may go to a replica. Only rows found are cached and messages never change, so
+    // a lagging replica can at most leave out an id that is too new; nothing stale is cached.
+    @Query("select new net.profitwarning.api.dto.MessageResponse(m.id, m.content, m.createdAt) from TestMessage m where m.id in :ids")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    @Transactional(readOnly = true)
+    List<MessageResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Matches come from idx_testmessages_message_tsv; the text search configuration must be the one
+    // message_tsv is generated with (V5 migration) or the index cannot be used
+    @Query(value = """
+            select m.id as "id", m.message as "content", m.created_at as "createdAt",
+                   ts_rank(m.message_tsv, q) as "rank"
+            from testmessages m, websearch_to_tsquery('english', :query) q
+            where m.message_tsv @@ q
+            order by "rank" desc, m.id desc
+            limit :limit""", nativeQuery = true)
+    List<MessageSearchHit> search(@Param("query") String query, @Param("limit") int limit);
+
+    // ts_rank is real; the cursor carries the exact value so the row-value comparison resumes precisely
+    @Query(value = """
+            select m.id as "id", m.message as "content", m.created_at as "createdAt",
+                   ts_rank(m.message_tsv, q) as "rank"
+            from testmessages m, websearch_to_tsquery('english', :query) q
+            where m.message_tsv @@ q
+              and (ts_rank(m.message_tsv, q), m.id) < (cast(:rank as real), :id)
+            order by "rank" desc, m.id desc
+            limit :limit""", nativeQuery = true)
+    List<MessageSearchHit> searchAfter(@Param("query") String query, @Param("rank") float rank,
+                                       @Param("id") long id, @Param("limit") int limit);
 }
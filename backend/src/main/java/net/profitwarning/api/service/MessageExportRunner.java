@@ -0,0 +1,94 @@
+package net.profitwarning.api.service;
+
+import net.profitwarning.api.exception.ExportUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs export bodies on their own threads and streams what they write through a
+ * {@link ResponseBodyEmitter}. The emitter carries the export timeout, so only exports outlive
+ * {@code spring.mvc.async.request-timeout}. Each export holds a database connection for as long as
+ * the client keeps reading, so at most {@code maxConcurrent} run at once; further ones are refused.
+ */
+public class MessageExportRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageExportRunner.class);
+
+    // Every emitter send is written and flushed on its own, so hand it large chunks
+    private static final int SEND_BUFFER = 64 * 1024;
+
+    private final Semaphore permits;
+    private final Duration timeout;
+    private final ThreadFactory threadFactory = Thread.ofPlatform().name("message-export-", 1).factory();
+
+    public MessageExportRunner(int maxConcurrent, Duration timeout) {
+        this.permits = new Semaphore(maxConcurrent);
+        this.timeout = timeout;
+    }
+
+    public ResponseBodyEmitter start(MediaType mediaType, StreamingResponseBody body) {
+        if (!permits.tryAcquire()) {
+            throw new ExportUnavailableException("Too many exports in progress");
+        }
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeout.toMillis());
+        try {
+            threadFactory.newThread(() -> run(emitter, mediaType, body)).start();
+        } catch (RuntimeException | Error ex) {
+            permits.release();
+            throw ex;
+        }
+        return emitter;
+    }
+
+    private void run(ResponseBodyEmitter emitter, MediaType mediaType, StreamingResponseBody body) {
+        try {
+            OutputStream out = new BufferedOutputStream(new EmitterOutputStream(emitter, mediaType), SEND_BUFFER);
+            body.writeTo(out);
+            out.flush();
+            emitter.complete();
+        } catch (IOException | RuntimeException ex) {
+            // Typically the client went away or the export ran past its timeout
+            logger.debug("Export aborted", ex);
+            emitter.completeWithError(ex);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static final class EmitterOutputStream extends OutputStream {
+
+        private final ResponseBodyEmitter emitter;
+        private final MediaType mediaType;
+
+        EmitterOutputStream(ResponseBodyEmitter emitter, MediaType mediaType) {
+            this.emitter = emitter;
+            this.mediaType = mediaType;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                emitter.send(Arrays.copyOfRange(b, off, off + len), mediaType);
+            } catch (IllegalStateException ex) {
+                // Thrown once the emitter has timed out or failed; abandons the export cursor
+                throw new IOException("Export response is already complete", ex);
+            }
+        }
+    }
+}
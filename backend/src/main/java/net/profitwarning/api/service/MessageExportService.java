@@ -0,0 +1,195 @@
+package net.profitwarning.api.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.exception.InvalidQueryParameterException;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes every message to an output stream as NDJSON or CSV straight from a JDBC cursor. Rows are
+ * read {@code fetchSize} at a time and encoded as they arrive, without entities or DTOs, so memory
+ * use does not depend on the size of the table.
+ */
+public class MessageExportService {
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new InvalidQueryParameterException("format", "Unsupported export format");
+        }
+    }
+
+    // (created_at, id) order is served by idx_testmessages_created_at_id, partition by partition
+    private static final String EXPORT_QUERY =
+            "SELECT id, message, created_at FROM testmessages ORDER BY created_at, id";
+    private static final int WRITE_BUFFER = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory;
+    private final Counter exportedRows;
+
+    /**
+     * @param jdbcTemplate        must have a fetch size; without one the driver buffers the whole result
+     * @param transactionTemplate Postgres only uses a server-side cursor when auto-commit is off
+     */
+    public MessageExportService(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                JsonFactory jsonFactory,
+                                MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.jsonFactory = jsonFactory;
+        this.exportedRows = Counter.builder("messages.export.rows")
+                .description("Messages written by exports")
+                .register(meterRegistry);
+    }
+
+    /** Streams all messages to {@code out} and returns how many were written; {@code out} is left open. */
+    public long export(Format format, OutputStream out) throws IOException {
+        try {
+            Long rows = transactionTemplate.execute(status -> switch (format) {
+                case NDJSON -> writeNdjson(out);
+                case CSV -> writeCsv(out);
+            });
+            return rows != null ? rows : 0L;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private long writeNdjson(OutputStream out) {
+        try (JsonGenerator generator = jsonFactory.createGenerator(new NonClosingOutputStream(out), JsonEncoding.UTF8)) {
+            long rows = forEachRow(rs -> {
+                generator.writeStartObject();
+                generator.writeNumberField("id", rs.getLong(1));
+                generator.writeStringField("content", rs.getString(2));
+                generator.writeStringField("createdAt", createdAt(rs).toString());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            });
+            generator.flush();
+            return rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private long writeCsv(OutputStream out) {
+        try (Writer writer = new BufferedWriter(
+                new OutputStreamWriter(new NonClosingOutputStream(out), StandardCharsets.UTF_8), WRITE_BUFFER)) {
+            writer.write("id,content,created_at\r\n");
+            long rows = forEachRow(rs -> {
+                writer.write(Long.toString(rs.getLong(1)));
+                writer.write(',');
+                writeCsvField(writer, rs.getString(2));
+                writer.write(',');
+                writer.write(createdAt(rs).toString());
+                writer.write("\r\n");
+            });
+            writer.flush();
+            return rows;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private long forEachRow(RowWriter rowWriter) {
+        long[] rows = {0};
+        jdbcTemplate.query(EXPORT_QUERY, rs -> {
+            try {
+                rowWriter.write(rs);
+            } catch (IOException ex) {
+                // Typically the client went away; abandons the cursor
+                throw new UncheckedIOException(ex);
+            }
+            rows[0]++;
+        });
+        exportedRows.increment(rows[0]);
+        return rows[0];
+    }
+
+    // created_at is a timestamp without zone holding UTC (hibernate.jdbc.time_zone=UTC)
+    private static Instant createdAt(ResultSet rs) throws SQLException {
+        return rs.getObject(3, LocalDateTime.class).toInstant(ZoneOffset.UTC);
+    }
+
+    // RFC 4180: quote fields containing separators, quotes or line breaks, doubling embedded quotes
+    static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+    }
+
+    // The caller owns the response stream (and any gzip wrapper around it)
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package net.profitwarning.api.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.exception.IngestUnavailableException;
+import net.profitwarning.api.exception.InvalidBatchException;
+import net.profitwarning.api.model.TestMessage;
+import net.profitwarning.api.repository.TestMessageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind queue for message inserts. Producers enqueue commands and get a future for the saved
+ * message; a single worker drains the queue into multi-row batches, each saved in one transaction
+ * so Hibernate can use JDBC batching. The worker holds at most one connection, so bursts cannot
+ * starve the request pool.
+ * <p>
+ * Capacity is handed out as semaphore permits, so a batch is admitted whole or not at all.
+ */
+public class MessageIngestQueue implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageIngestQueue.class);
+
+    private static final Duration IDLE_POLL = Duration.ofMillis(200);
+
+    private final TestMessageRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageCollectionVersion collectionVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BlockingQueue<PendingMessage> queue;
+    // One permit per free queue slot; taken before enqueueing and returned as the worker drains
+    private final Semaphore capacity;
+    private final int maxCapacity;
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration offerTimeout;
+    private final DistributionSummary batchSizes;
+    private final Timer flushTimer;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public MessageIngestQueue(TestMessageRepository repository,
+                              TransactionTemplate transactionTemplate,
+                              MessageCollectionVersion collectionVersion,
+                              ApplicationEventPublisher eventPublisher,
+                              MeterRegistry meterRegistry,
+                              int capacity,
+                              int batchSize,
+                              Duration linger,
+                              Duration offerTimeout) {
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.collectionVersion = collectionVersion;
+        this.eventPublisher = eventPublisher;
+        this.queue = new LinkedBlockingQueue<>();
+        // Fair, so a large batch waiting for room is not overtaken forever by single messages
+        this.capacity = new Semaphore(capacity, true);
+        this.maxCapacity = capacity;
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.offerTimeout = offerTimeout;
+        Gauge.builder("messages.ingest.queue.depth", queue, BlockingQueue::size)
+                .description("Messages waiting to be written")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("messages.ingest.batch.size")
+                .description("Messages written per insert batch")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("messages.ingest.flush")
+                .description("Time to write one insert batch")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<MessageResponse> submit(CreateMessageCommand command) {
+        return submitAll(List.of(command)).thenApply(saved -> saved.get(0));
+    }
+
+    /**
+     * Enqueues every command in order, or none of them: room for the whole batch is reserved
+     * before anything is enqueued, so a rejected batch can be retried without writing duplicates.
+     */
+    public CompletableFuture<List<MessageResponse>> submitAll(List<CreateMessageCommand> commands) {
+        if (!running) {
+            throw new IngestUnavailableException("Message ingest is not running");
+        }
+        if (commands.size() > maxCapacity) {
+            throw new InvalidBatchException("Batch exceeds ingest queue capacity of " + maxCapacity, null);
+        }
+        try {
+            if (!capacity.tryAcquire(commands.size(), offerTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IngestUnavailableException("Message ingest queue is full");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IngestUnavailableException("Interrupted while enqueueing messages");
+        }
+        List<CompletableFuture<MessageResponse>> results = new ArrayList<>(commands.size());
+        for (CreateMessageCommand command : commands) {
+            PendingMessage pending = new PendingMessage(command.content(), new CompletableFuture<>());
+            // Cannot fail: the queue is unbounded and admission is gated by the permits above
+            queue.add(pending);
+            results.add(pending.result());
+        }
+        return CompletableFuture.allOf(results.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> results.stream().map(CompletableFuture::join).toList());
+    }
+
+    public int depth() {
+        return queue.size();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = Thread.ofPlatform().name("message-ingest").start(this::drain);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread current = worker;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.join(Duration.ofSeconds(30));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drain() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        // Keep draining after stop() so accepted messages are not lost on shutdown
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                capacity.release(batch.size());
+                flush(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<PendingMessage> batch) throws InterruptedException {
+        PendingMessage first = queue.poll(IDLE_POLL.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + linger.toNanos();
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PendingMessage next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void flush(List<PendingMessage> batch) {
+        batchSizes.record(batch.size());
+        try {
+            List<MessageResponse> saved = flushTimer.record(() -> transactionTemplate.execute(status -> {
+                List<TestMessage> entities = new ArrayList<>(batch.size());
+                for (PendingMessage pending : batch) {
+                    TestMessage entity = new TestMessage();
+                    entity.setContent(pending.content());
+                    entities.add(entity);
+                }
+                List<MessageResponse> responses = repository.saveAll(entities).stream()
+                        .map(TestMessageService::toResponse)
+                        .toList();
+                collectionVersion.incrementAfterCommit();
+                // Published inside the transaction so the outbox rows commit with the batch;
+                // transactional listeners still only see it after commit
+                responses.forEach(response -> eventPublisher.publishEvent(new MessageSavedEvent(response)));
+                return responses;
+            }));
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(saved.get(i));
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Failed to write batch of {} messages", batch.size(), ex);
+            batch.forEach(pending -> pending.result().completeExceptionally(ex));
+        }
+    }
+
+    private record PendingMessage(String content, CompletableFuture<MessageResponse> result) {}
+}
@@ -0,0 +1,195 @@
+package net.profitwarning.api.service;
+
+import net.profitwarning.api.cache.CacheNames;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code testmessages} (V7 migration) created ahead of the clock and
+ * retires those that ended before the retention period. Runs at startup and then on
+ * {@code app.partitions.cron}; a transaction-scoped advisory lock lets only one node work on the
+ * partitions at a time.
+ */
+public class MessagePartitionMaintainer {
+
+    public enum ExpiredAction {
+        // Keep the table outside testmessages, e.g. for archiving
+        DETACH,
+        DROP
+    }
+
+    static final String TABLE = "testmessages";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    // Arbitrary, but fixed across nodes and releases
+    static final long ADVISORY_LOCK_KEY = 4_711_001L;
+
+    private static final Logger logger = LoggerFactory.getLogger(MessagePartitionMaintainer.class);
+    private static final Pattern PARTITION_NAME = Pattern.compile(TABLE + "_p(\\d{4})(\\d{2})");
+    // Holds rows moved out of the default partition while their month's partition is created
+    private static final String STAGING = "testmessages_staging";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessageCollectionVersion collectionVersion;
+    private final CacheManager cacheManager;
+    private final Clock clock;
+    private final int premadeMonths;
+    @Nullable
+    private final Period retention;
+    private final ExpiredAction expiredAction;
+
+    /**
+     * @param premadeMonths how many months after the current one get a partition in advance
+     * @param retention     age after which a month is retired; {@code null} keeps every month
+     */
+    public MessagePartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                      TransactionTemplate transactionTemplate,
+                                      MessageCollectionVersion collectionVersion,
+                                      CacheManager cacheManager,
+                                      Clock clock,
+                                      int premadeMonths,
+                                      @Nullable Period retention,
+                                      ExpiredAction expiredAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.collectionVersion = collectionVersion;
+        this.cacheManager = cacheManager;
+        this.clock = clock;
+        this.premadeMonths = premadeMonths;
+        this.retention = retention;
+        this.expiredAction = expiredAction;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${app.partitions.cron:0 15 0 * * *}")
+    public void maintain() {
+        List<String> retired;
+        try {
+            retired = transactionTemplate.execute(status -> maintainPartitions());
+        } catch (DataAccessException | TransactionException ex) {
+            // Rolled back as a whole: rows keep landing in the default partition until a run succeeds
+            logger.warn("Partition maintenance of {} failed", TABLE, ex);
+            return;
+        }
+        if (retired != null && !retired.isEmpty()) {
+            // Cached pages and messages may still hold rows from the retired months
+            collectionVersion.increment();
+            Cache messages = cacheManager.getCache(CacheNames.MESSAGES);
+            if (messages != null) {
+                messages.clear();
+            }
+        }
+    }
+
+    private List<String> maintainPartitions() {
+        Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+                ADVISORY_LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            logger.debug("Partition maintenance is running on another node");
+            return List.of();
+        }
+        Set<String> partitions = new HashSet<>(jdbcTemplate.queryForList("""
+                SELECT c.relname
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = ?""", String.class, TABLE));
+
+        YearMonth current = YearMonth.now(clock);
+        List<YearMonth> missing = new ArrayList<>();
+        for (int i = 0; i <= premadeMonths; i++) {
+            YearMonth month = current.plusMonths(i);
+            if (!partitions.contains(partitionName(month))) {
+                missing.add(month);
+            }
+        }
+        if (!missing.isEmpty() && partitions.contains(DEFAULT_PARTITION)) {
+            // Creating a partition fails while the default partition holds rows in its range. Writers
+            // wait until commit, so nothing lands in the default partition after its rows are moved.
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN EXCLUSIVE MODE");
+        }
+        for (YearMonth month : missing) {
+            createPartition(month, partitions.contains(DEFAULT_PARTITION));
+        }
+
+        if (retention == null) {
+            return List.of();
+        }
+        List<String> expired = expiredPartitions(partitions, LocalDate.now(clock).minus(retention));
+        for (String name : expired) {
+            // Names come from the catalog and matched PARTITION_NAME, so they are safe to inline
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + name);
+            if (expiredAction == ExpiredAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + name);
+            }
+            logger.info("Retired partition {} ({})", name, expiredAction);
+        }
+        return expired;
+    }
+
+    private void createPartition(YearMonth month, boolean hasDefault) {
+        String name = partitionName(month);
+        String range = "created_at >= '" + month.atDay(1) + "' AND created_at < '" + month.plusMonths(1).atDay(1) + "'";
+        int moved = 0;
+        if (hasDefault) {
+            jdbcTemplate.execute("CREATE TEMPORARY TABLE " + STAGING + " AS"
+                    + " SELECT id, message, created_at FROM " + DEFAULT_PARTITION + " WITH NO DATA");
+            moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range
+                    + " RETURNING id, message, created_at) INSERT INTO " + STAGING + " SELECT * FROM moved");
+        }
+        jdbcTemplate.execute("CREATE TABLE " + name + " PARTITION OF " + TABLE
+                + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        if (hasDefault) {
+            if (moved > 0) {
+                jdbcTemplate.update("INSERT INTO " + TABLE + " (id, message, created_at)"
+                        + " SELECT id, message, created_at FROM " + STAGING);
+            }
+            jdbcTemplate.execute("DROP TABLE " + STAGING);
+        }
+        logger.info("Created partition {} ({} rows moved from {})", name, moved, DEFAULT_PARTITION);
+    }
+
+    static String partitionName(YearMonth month) {
+        return TABLE + "_p" + month.format(PARTITION_SUFFIX);
+    }
+
+    // A month is expired once it ended on or before the cutoff; the default partition never is
+    static List<String> expiredPartitions(Collection<String> partitions, LocalDate cutoff) {
+        return partitions.stream()
+                .filter(name -> {
+                    Matcher matcher = PARTITION_NAME.matcher(name);
+                    if (!matcher.matches()) {
+                        return false;
+                    }
+                    YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+                    return !month.plusMonths(1).atDay(1).isAfter(cutoff);
+                })
+                .sorted()
+                .toList();
+    }
+}
@@ -0,0 +1,9 @@
+package net.profitwarning.api.service;
+
+import net.profitwarning.api.dto.MessageResponse;
+
+/**
+ * Published for every persisted message, inside the transaction that saves it. Listeners that must
+ * not see rolled-back writes should use {@code @TransactionalEventListener}.
+ */
+public record MessageSavedEvent(MessageResponse message) {}
@@ -0,0 +1,239 @@
+package net.profitwarning.api.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.dto.MessageResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans saved messages out to Server-Sent Events subscribers. Events come from the shared Redis
+ * stream of message events, so every node sees every write, and the stream entry id is used as the
+ * SSE event id: a Last-Event-ID handed out by one node means the same position on any other.
+ * <p>
+ * Each subscriber gets a bounded queue drained by its own virtual thread, so a slow client only
+ * ever blocks itself; when its queue overflows the subscription is closed and the client reconnects
+ * with Last-Event-ID. Recent events are kept in a ring so a reconnecting client receives what it
+ * missed.
+ */
+public class MessageStreamBroadcaster implements DisposableBean {
+
+    public static final String MESSAGE_EVENT = "message";
+    // Sent when the requested Last-Event-ID is outside what this node can replay
+    public static final String RESET_EVENT = "reset";
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageStreamBroadcaster.class);
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ArrayDeque<StreamEvent> history;
+    private final int historySize;
+    private final int bufferSize;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final Counter dropped;
+    // Stream position this node started tailing from; it has not seen anything older
+    private final StreamId horizon;
+
+    public MessageStreamBroadcaster(MeterRegistry meterRegistry, int bufferSize, int historySize,
+                                    Duration heartbeat, Duration timeout) {
+        this(meterRegistry, bufferSize, historySize, heartbeat, timeout, Clock.systemUTC());
+    }
+
+    MessageStreamBroadcaster(MeterRegistry meterRegistry, int bufferSize, int historySize,
+                             Duration heartbeat, Duration timeout, Clock clock) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.history = new ArrayDeque<>(historySize);
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+        // Redis stream ids start with the Redis server time in milliseconds
+        this.horizon = new StreamId(clock.millis(), 0);
+        Gauge.builder("messages.stream.subscribers", subscribers, Set::size)
+                .description("Open message stream subscriptions")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("messages.stream.dropped")
+                .description("Subscriptions closed because the client fell behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param lastEventId the Last-Event-ID the client sent; an unparseable id is treated like a
+     *                    fresh subscription rather than an error, since EventSource retries blindly
+     */
+    public SseEmitter subscribe(@Nullable String lastEventId) {
+        StreamId resumeAfter = StreamId.parse(lastEventId);
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize), resumeAfter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        // Register and snapshot under the same lock as publish, so no event falls between replay and live
+        synchronized (history) {
+            if (resumeAfter != null) {
+                replay(subscriber, resumeAfter);
+            }
+            subscribers.add(subscriber);
+        }
+        Thread.ofVirtual().name("message-stream-", 0).start(() -> drain(subscriber));
+        return emitter;
+    }
+
+    /**
+     * Publishes one stream entry. Entries must arrive in stream order, as a single stream reader
+     * delivers them; a redelivered entry is ignored.
+     */
+    public void publish(String streamId, MessageResponse message) {
+        StreamId id = StreamId.parse(streamId);
+        if (id == null) {
+            throw new IllegalArgumentException("Not a stream id: " + streamId);
+        }
+        List<Subscriber> overflowed = new ArrayList<>();
+        synchronized (history) {
+            StreamEvent newest = history.peekLast();
+            if (newest != null && id.compareTo(newest.id()) <= 0) {
+                return;
+            }
+            StreamEvent event = new StreamEvent(id, MESSAGE_EVENT, message);
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(event);
+            for (Subscriber subscriber : subscribers) {
+                // A client that resumed with an id this node has not reached yet already has these
+                if (subscriber.resumeAfter() != null && id.compareTo(subscriber.resumeAfter()) <= 0) {
+                    continue;
+                }
+                if (!subscriber.queue().offer(event)) {
+                    overflowed.add(subscriber);
+                }
+            }
+        }
+        for (Subscriber subscriber : overflowed) {
+            subscribers.remove(subscriber);
+            subscriber.queue().clear();
+            dropped.increment();
+            subscriber.emitter().complete();
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void destroy() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        subscribers.clear();
+    }
+
+    private void replay(Subscriber subscriber, StreamId lastEventId) {
+        StreamEvent newest = history.peekLast();
+        if (newest == null || lastEventId.compareTo(newest.id()) >= 0) {
+            // Nothing newer on this node; a position from before this node started cannot be vouched for
+            if (lastEventId.compareTo(horizon) < 0) {
+                reset(subscriber, newest);
+            }
+            return;
+        }
+        if (history.stream().noneMatch(event -> event.id().equals(lastEventId))) {
+            // Left the ring, or older than this node: tell the client to reload
+            reset(subscriber, newest);
+            return;
+        }
+        for (StreamEvent event : history) {
+            if (event.id().compareTo(lastEventId) > 0 && !subscriber.queue().offer(event)) {
+                reset(subscriber, newest);
+                return;
+            }
+        }
+    }
+
+    private static void reset(Subscriber subscriber, @Nullable StreamEvent newest) {
+        subscriber.queue().clear();
+        subscriber.queue().offer(new StreamEvent(newest != null ? newest.id() : null, RESET_EVENT, null));
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (subscribers.contains(subscriber) || !subscriber.queue().isEmpty()) {
+                StreamEvent event = subscriber.queue().poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                if (event == null) {
+                    // Comment line keeps proxies from closing an idle connection
+                    subscriber.emitter().send(SseEmitter.event().comment("heartbeat"));
+                    continue;
+                }
+                SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.name());
+                if (event.id() != null) {
+                    builder = builder.id(event.id().toString());
+                }
+                builder = event.message() != null
+                        ? builder.data(event.message(), MediaType.APPLICATION_JSON)
+                        : builder.data("");
+                subscriber.emitter().send(builder);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            logger.debug("Message stream subscriber disconnected: {}", ex.getMessage());
+            subscribers.remove(subscriber);
+            subscriber.emitter().completeWithError(ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Redis stream entry id, {@code <millis>-<sequence>}, ordered the way Redis orders entries.
+     */
+    record StreamId(long millis, long sequence) implements Comparable<StreamId> {
+
+        @Nullable
+        static StreamId parse(@Nullable String value) {
+            if (value == null) {
+                return null;
+            }
+            int dash = value.indexOf('-');
+            if (dash <= 0) {
+                return null;
+            }
+            try {
+                long millis = Long.parseLong(value.substring(0, dash).trim());
+                long sequence = Long.parseLong(value.substring(dash + 1).trim());
+                return millis >= 0 && sequence >= 0 ? new StreamId(millis, sequence) : null;
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        }
+
+        @Override
+        public int compareTo(StreamId other) {
+            int byMillis = Long.compare(millis, other.millis);
+            return byMillis != 0 ? byMillis : Long.compare(sequence, other.sequence);
+        }
+
+        @Override
+        public String toString() {
+            return millis + "-" + sequence;
+        }
+    }
+
+    private record StreamEvent(@Nullable StreamId id, String name, @Nullable MessageResponse message) {}
+
+    private record Subscriber(SseEmitter emitter, BlockingQueue<StreamEvent> queue, @Nullable StreamId resumeAfter) {}
+}
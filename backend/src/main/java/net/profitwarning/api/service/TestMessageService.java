@@ -1,50 +1,293 @@
 package net.profitwarning.api.service;
 
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.profitwarning.api.cache.CacheNames;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.cache.TwoTierCache;
 import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessageCursor;
+import net.profitwarning.api.dto.MessagePageResponse;
 import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.dto.MessageSearchCursor;
+import net.profitwarning.api.exception.InvalidQueryParameterException;
 import net.profitwarning.api.model.TestMessage;
+import net.profitwarning.api.repository.MessageSearchHit;
 import net.profitwarning.api.repository.TestMessageRepository;
-import org.springframework.cache.annotation.CacheEvict;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 @Service
 public class TestMessageService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_SEARCH_QUERY_LENGTH = 256;
+    public static final int MAX_BULK_IDS = 500;
+    // Tagged with class and method by TimedAspect
+    public static final String SERVICE_TIMER = "messages.service";
+
+    private static final Logger logger = LoggerFactory.getLogger(TestMessageService.class);
+
+    // Stand-ins for an open end of a time range; no row can be older or newer
+    private static final Instant EARLIEST = Instant.EPOCH;
+    private static final Instant LATEST = Instant.parse("9999-12-31T00:00:00Z");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
     private final TestMessageRepository repository;
+    private final MessageCollectionVersion collectionVersion;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final Timer pageQueryTimer;
 
-    TestMessageService(TestMessageRepository repository) {
+    TestMessageService(TestMessageRepository repository,
+                       MessageCollectionVersion collectionVersion,
+                       ApplicationEventPublisher eventPublisher,
+                       CacheManager cacheManager,
+                       MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.collectionVersion = collectionVersion;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.pageQueryTimer = pagePhaseTimer(meterRegistry, "query");
+    }
+
+    /**
+     * Current version of the message collection. Any write changes it, so it doubles as the
+     * validator for list responses; reading it never touches the database.
+     */
+    public long collectionVersion() {
+        return collectionVersion.current();
     }
 
-    @Cacheable(value = "testMessages")
+    // Keyed by collection version: a write retires all cached pages without touching per-id entries.
+    // sync = true lets TwoTierCache run one query per key however many callers miss at once.
+    // A lagging replica could return a page without the write that produced this version, and it would
+    // stay cached under that version; the router keeps reads on the primary until that write is older
+    // than max-lag (see CacheConfig#messageCollectionVersion).
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Cacheable(value = CacheNames.MESSAGE_PAGES, sync = true,
+            key = "'v' + #root.target.collectionVersion() + ':' "
+                    + "+ T(net.profitwarning.api.service.TestMessageService).pageCacheKey(#cursor, #size, #from, #to)")
     @Transactional(readOnly = true)
-    public List<MessageResponse> getMessages() {
-        return repository.findAll().stream()
-                .map(message -> new MessageResponse(message.getId(), message.getContent(), message.getCreatedAt()))
+    public MessagePageResponse getMessages(@Nullable String cursor, int size,
+                                           @Nullable Instant from, @Nullable Instant to) {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidQueryParameterException("to", "to must be after from");
+        }
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        // One extra row tells us whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        MessageCursor after = cursor != null ? MessageCursor.decode(cursor) : null;
+        // Rows arrive as MessageResponse already, see TestMessageRepository
+        List<MessageResponse> rows = pageQueryTimer.record(() -> findPage(after, from, to, limit));
+        List<MessageResponse> items = rows.stream().limit(pageSize).toList();
+        String nextCursor = rows.size() > pageSize ? MessageCursor.of(items.getLast()).encode() : null;
+        return new MessagePageResponse(items, nextCursor);
+    }
+
+    /**
+     * Cache key form of a page request, without the collection version. Uses the clamped page size and
+     * the re-encoded cursor, so requests that load the same rows share one entry; a malformed cursor
+     * is rejected before anything is looked up.
+     */
+    public static String pageCacheKey(@Nullable String cursor, int size, @Nullable Instant from, @Nullable Instant to) {
+        String after = cursor != null ? MessageCursor.decode(cursor).encode() : null;
+        return after + ":" + Math.clamp(size, 1, MAX_PAGE_SIZE) + ":" + from + ":" + to;
+    }
+
+    private List<MessageResponse> findPage(@Nullable MessageCursor after, @Nullable Instant from, @Nullable Instant to,
+                                               Limit limit) {
+        if (from == null && to == null) {
+            return after == null
+                    ? repository.findByOrderByCreatedAtAscIdAsc(limit)
+                    : repository.findPageAfter(after.createdAt(), after.id(), limit);
+        }
+        Instant lower = from != null ? from : EARLIEST;
+        Instant upper = to != null ? to : LATEST;
+        return after == null
+                ? repository.findPageInRange(lower, upper, limit)
+                : repository.findPageInRangeAfter(lower, upper, after.createdAt(), after.id(), limit);
+    }
+
+    // Not keyed by collection version: a write would retire every cached search. Results may instead
+    // miss new messages for the cache's TTL (app.cache.time-to-live[testMessageSearch]).
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Cacheable(value = CacheNames.MESSAGE_SEARCH, sync = true,
+            key = "T(net.profitwarning.api.service.TestMessageService).searchCacheKey(#query, #cursor, #size)")
+    @Transactional(readOnly = true)
+    public MessagePageResponse searchMessages(String query, @Nullable String cursor, int size) {
+        String normalized = normalizeSearchQuery(query);
+        if (normalized.isEmpty()) {
+            throw new InvalidQueryParameterException("q", "Search query must not be blank");
+        }
+        if (normalized.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new InvalidQueryParameterException("q", "Search query exceeds " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        }
+        int pageSize = Math.clamp(size, 1, MAX_PAGE_SIZE);
+        MessageSearchCursor after = cursor != null ? MessageSearchCursor.decode(cursor) : null;
+        List<MessageSearchHit> hits = after == null
+                ? repository.search(normalized, pageSize + 1)
+                : repository.searchAfter(normalized, after.rank(), after.id(), pageSize + 1);
+        List<MessageResponse> items = hits.stream()
+                .limit(pageSize)
+                .map(hit -> new MessageResponse(hit.getId(), hit.getContent(), hit.getCreatedAt()))
                 .toList();
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            MessageSearchHit last = hits.get(pageSize - 1);
+            nextCursor = new MessageSearchCursor(last.getRank(), last.getId()).encode();
+        }
+        return new MessagePageResponse(items, nextCursor);
+    }
+
+    public static String searchCacheKey(@Nullable String query, @Nullable String cursor, int size) {
+        String after = cursor != null ? MessageSearchCursor.decode(cursor).encode() : null;
+        return normalizeSearchQuery(query) + "|" + after + "|" + Math.clamp(size, 1, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Cache key form of a search query. Only folds differences the text search parser ignores
+     * anyway, so equal keys always produce equal results.
+     */
+    public static String normalizeSearchQuery(@Nullable String query) {
+        if (query == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(query.strip()).replaceAll(" ").toLowerCase(Locale.ROOT);
     }
 
-    @Cacheable(value = "testMessages", key = "#id")
+    // TwoTierCache does not store null loads, so an absent id is not cached (sync forbids "unless").
+    // Routed like pages, so a message created less than max-lag ago is read from the primary, never a 404.
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    @Cacheable(value = CacheNames.MESSAGES, key = "#id", sync = true)
     @Transactional(readOnly = true)
     public Optional<MessageResponse> getMessageById(@NonNull Long id) {
         Objects.requireNonNull(id, "ID must not be null");
-        return repository.findById(id)
-                .map(message -> new MessageResponse(message.getId(), message.getContent(), message.getCreatedAt()));
+        return repository.findResponseById(id);
+    }
+
+    /**
+     * Messages for the given ids in request order; unknown ids are left out and repeated ids are
+     * returned once. Shares the per-id cache with {@link #getMessageById(Long)}: cached entries are
+     * read in one round-trip, the misses in one {@code IN} query, and the loaded rows are written
+     * back in one pipeline.
+     */
+    // No @Transactional: the repository call opens its own read-only transaction (see
+    // TestMessageRepository#findResponsesByIdIn), so no connection is held while Redis is consulted
+    @Timed(value = SERVICE_TIMER, histogram = true)
+    public List<MessageResponse> getMessagesByIds(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BULK_IDS) {
+            throw new InvalidQueryParameterException("ids", "ids must contain between 1 and " + MAX_BULK_IDS + " ids");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new InvalidQueryParameterException("ids", "ids must not contain blank entries");
+        }
+        Set<Long> unique = new LinkedHashSet<>(ids);
+        Cache cache = Objects.requireNonNull(cacheManager.getCache(CacheNames.MESSAGES));
+        Map<Object, Object> cached = cachedByIds(cache, unique);
+
+        List<Long> misses = unique.stream().filter(id -> !cached.containsKey(id)).toList();
+        Map<Long, MessageResponse> loaded = new HashMap<>();
+        if (!misses.isEmpty()) {
+            repository.findResponsesByIdIn(misses).forEach(message -> loaded.put(message.id(), message));
+            if (cache instanceof TwoTierCache twoTierCache) {
+                twoTierCache.putAll(loaded);
+            } else {
+                loaded.forEach(cache::put);
+            }
+        }
+        return unique.stream()
+                .map(id -> cached.containsKey(id) ? (MessageResponse) cached.get(id) : loaded.get(id))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static Map<Object, Object> cachedByIds(Cache cache, Set<Long> ids) {
+        if (cache instanceof TwoTierCache twoTierCache) {
+            return twoTierCache.getAll(ids);
+        }
+        Map<Object, Object> hits = new HashMap<>();
+        for (Long id : ids) {
+            MessageResponse message = cache.get(id, MessageResponse.class);
+            if (message != null) {
+                hits.put(id, message);
+            }
+        }
+        return hits;
     }
 
-    @CacheEvict(value = "testMessages", allEntries = true)
+    @Timed(value = SERVICE_TIMER, histogram = true)
     @Transactional
     public MessageResponse saveMessage(CreateMessageCommand command) {
         TestMessage testMessage = new TestMessage();
         testMessage.setContent(command.content());
         TestMessage saved = repository.save(testMessage);
-        return new MessageResponse(saved.getId(), saved.getContent(), saved.getCreatedAt());
+        collectionVersion.incrementAfterCommit();
+        MessageResponse response = toResponse(saved);
+        cacheAfterCommit(response);
+        eventPublisher.publishEvent(new MessageSavedEvent(response));
+        return response;
+    }
+
+    // Write-through of the per-id entry, deferred like the version bump so a rolled-back insert is
+    // never served from the cache. The message is committed by then, so a cache failure only costs
+    // a later miss.
+    private void cacheAfterCommit(MessageResponse message) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache(message);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache(message);
+            }
+        });
+    }
+
+    private void cache(MessageResponse message) {
+        try {
+            Objects.requireNonNull(cacheManager.getCache(CacheNames.MESSAGES)).put(message.id(), message);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to cache saved message {}", message.id(), ex);
+        }
+    }
+
+    // Times the repository call of a page read; only runs on cache misses. Rows are projected in the
+    // query, so there is no separate mapping phase any more.
+    private static Timer pagePhaseTimer(MeterRegistry meterRegistry, String phase) {
+        return Timer.builder("messages.page.read")
+                .description("Time spent per phase of an uncached page read")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    static MessageResponse toResponse(TestMessage message) {
+        return new MessageResponse(message.getId(), message.getContent(), message.getCreatedAt());
     }
 }
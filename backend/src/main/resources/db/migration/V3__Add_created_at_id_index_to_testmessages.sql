@@ -0,0 +1,4 @@
+-- Supports keyset pagination ordered by (created_at, id)
+-- CONCURRENTLY avoids blocking writes while the index is built on large tables
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_testmessages_created_at_id
+ON testmessages (created_at, id);
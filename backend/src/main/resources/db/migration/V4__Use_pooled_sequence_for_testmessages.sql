@@ -0,0 +1,3 @@
+-- TestMessage ids now come from a pooled SEQUENCE generator (allocationSize = 50) instead of IDENTITY,
+-- which lets Hibernate batch inserts. The BIGSERIAL sequence must step by the same allocation size.
+ALTER SEQUENCE testmessages_id_seq INCREMENT BY 50;
@@ -0,0 +1,6 @@
+-- Full-text search vector maintained by Postgres on every insert/update of message.
+-- Adding a STORED generated column rewrites the table under an exclusive lock; on large
+-- tables run this in a maintenance window.
+ALTER TABLE testmessages
+ADD COLUMN IF NOT EXISTS message_tsv tsvector
+GENERATED ALWAYS AS (to_tsvector('english', coalesce(message, ''))) STORED;
@@ -0,0 +1,4 @@
+-- Lets "message_tsv @@ tsquery" find matching rows without scanning the table
+-- CONCURRENTLY avoids blocking writes while the index is built on large tables
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_testmessages_message_tsv
+ON testmessages USING GIN (message_tsv);
@@ -0,0 +1,54 @@
+-- Rebuilds testmessages as a table range-partitioned by month on created_at, so time-window reads
+-- only touch the months they cover and expired months can be detached or dropped as a whole
+-- (see MessagePartitionMaintainer). Rows are copied in one transaction under an exclusive lock;
+-- on large tables run this in a maintenance window.
+--
+-- Partitions are named testmessages_pYYYYMM. A unique key on a partitioned table must include the
+-- partition key, so the primary key becomes (id, created_at); ids still come from the shared
+-- sequence and stay unique on their own.
+
+ALTER TABLE testmessages RENAME TO testmessages_unpartitioned;
+-- The BIGSERIAL sequence would otherwise be dropped with the old table
+ALTER SEQUENCE testmessages_id_seq OWNED BY NONE;
+ALTER INDEX IF EXISTS idx_testmessages_created_at_id RENAME TO idx_testmessages_unpartitioned_created_at_id;
+ALTER INDEX IF EXISTS idx_testmessages_message_tsv RENAME TO idx_testmessages_unpartitioned_message_tsv;
+
+CREATE TABLE testmessages (
+    id BIGINT NOT NULL DEFAULT nextval('testmessages_id_seq'),
+    message VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    message_tsv tsvector GENERATED ALWAYS AS (to_tsvector('english', coalesce(message, ''))) STORED,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE testmessages_id_seq OWNED BY testmessages.id;
+
+-- Catches rows outside every monthly partition; stays empty as long as partitions are created ahead
+CREATE TABLE testmessages_default PARTITION OF testmessages DEFAULT;
+
+DO $$
+DECLARE
+    month_start DATE;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT coalesce(date_trunc('month', min(created_at))::date, date_trunc('month', CURRENT_DATE)::date)
+    INTO month_start
+    FROM testmessages_unpartitioned;
+
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF testmessages FOR VALUES FROM (%L) TO (%L)',
+                       'testmessages_p' || to_char(month_start, 'YYYYMM'),
+                       month_start,
+                       (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO testmessages (id, message, created_at)
+SELECT id, message, created_at FROM testmessages_unpartitioned;
+
+DROP TABLE testmessages_unpartitioned;
+
+-- Created on the parent, so every partition (including future ones) gets its own copy
+CREATE INDEX idx_testmessages_created_at_id ON testmessages (created_at, id);
+CREATE INDEX idx_testmessages_message_tsv ON testmessages USING GIN (message_tsv);
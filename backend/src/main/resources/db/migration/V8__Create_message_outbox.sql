@@ -0,0 +1,10 @@
+-- Transactional outbox for message change events. Rows are inserted in the same transaction as
+-- the message they describe and deleted by MessageOutboxRelay once the event is on the Redis
+-- stream, so the table only holds events that are not yet published.
+CREATE TABLE message_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    message_id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
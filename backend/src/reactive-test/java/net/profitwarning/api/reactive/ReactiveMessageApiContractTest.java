@@ -0,0 +1,10 @@
+package net.profitwarning.api.reactive;
+
+import net.profitwarning.api.contract.MessageApiContract;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(classes = ReactiveApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"docker", "reactive"})
+class ReactiveMessageApiContractTest extends MessageApiContract {
+}
@@ -0,0 +1,82 @@
+package net.profitwarning.api.reactive;
+
+import net.profitwarning.api.ApiServiceApplication;
+import net.profitwarning.api.support.LoadDriver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput of the servlet and the reactive stack under the same burst of 5,000 concurrent clients,
+ * against the docker-compose Postgres and Redis. Both get ten database connections. Run with
+ * {@code mvn -Preactive,load-tests test -Dtest=ReactiveStackLoadTest}.
+ */
+@Tag("load")
+class ReactiveStackLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveStackLoadTest.class);
+
+    private static final int CLIENTS = 5_000;
+    private static final int REQUESTS_PER_CLIENT = 4;
+    private static final Instant EPOCH_START = Instant.parse("2020-01-01T00:00:00Z");
+
+    private final LoadDriver driver = new LoadDriver();
+
+    @Test
+    void reactiveStackKeepsUpWithServletStack() throws Exception {
+        LoadDriver.Result servlet = run(new SpringApplicationBuilder(ApiServiceApplication.class)
+                .properties(
+                        // Every simulated client shares one address; the reactive stack has no limiter either
+                        "app.rate-limit.enabled=false",
+                        "server.tomcat.accept-count=" + CLIENTS,
+                        "server.tomcat.max-connections=" + (CLIENTS * 2)));
+        LoadDriver.Result reactive = run(new SpringApplicationBuilder(ReactiveApiApplication.class)
+                .profiles("reactive"));
+
+        logger.info("servlet:  {}", servlet);
+        logger.info("reactive: {}", reactive);
+
+        assertThat(servlet.errors()).isZero();
+        assertThat(reactive.errors()).isZero();
+        assertThat(reactive.throughput()).isGreaterThanOrEqualTo(servlet.throughput() * 0.8);
+    }
+
+    private LoadDriver.Result run(SpringApplicationBuilder application) throws InterruptedException {
+        try (ConfigurableApplicationContext context = application
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.show-sql=false",
+                        "logging.level.net.profitwarning=INFO")
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI messages = URI.create("http://localhost:" + port + "/api/v1/messages");
+            // Warm up JIT, pools and caches before measuring
+            driver.run(200, 5, i -> request(messages, i));
+            return driver.run(CLIENTS, REQUESTS_PER_CLIENT, i -> request(messages, i));
+        }
+    }
+
+    // Writes alternate with page reads; each read asks for a distinct range start, so the servlet page
+    // cache never answers and both stacks go to Postgres for every request
+    private static HttpRequest request(URI messages, int i) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(60));
+        if (i % 2 == 0) {
+            return builder.uri(messages)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"load " + i + "\"}"))
+                    .build();
+        }
+        return builder.uri(URI.create(messages + "?size=20&from=" + EPOCH_START.plusMillis(i))).GET().build();
+    }
+}
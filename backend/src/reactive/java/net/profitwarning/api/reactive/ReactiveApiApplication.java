@@ -0,0 +1,31 @@
+package net.profitwarning.api.reactive;
+
+import net.profitwarning.api.ApiServiceApplication;
+import net.profitwarning.api.exception.GlobalExceptionHandler;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Non-blocking variant of {@link ApiServiceApplication}: the same {@code /api/v1/messages} contract
+ * served by WebFlux on Netty, R2DBC and reactive Redis. Compiled only with {@code -Preactive}.
+ *
+ * <p>Only this package is scanned, so none of the servlet stack's beans are created. The JDBC
+ * {@code DataSource} and JPA are switched off; Flyway still runs the shared migrations over its own
+ * JDBC connection ({@code spring.flyway.url}) before the first request. The {@code reactive}
+ * profile keeps these classes out of {@link ApiServiceApplication}, which scans this package too.
+ */
+@Profile("reactive")
+@SpringBootApplication(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@Import(GlobalExceptionHandler.class)
+public class ReactiveApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(ReactiveApiApplication.class);
+        application.setAdditionalProfiles("reactive");
+        application.run(args);
+    }
+}
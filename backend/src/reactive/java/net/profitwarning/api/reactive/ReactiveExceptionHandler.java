@@ -0,0 +1,64 @@
+package net.profitwarning.api.reactive;
+
+import net.profitwarning.api.exception.GlobalExceptionHandler;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MissingRequestValueException;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.stream.Collectors;
+
+/**
+ * WebFlux reports binding and validation failures with its own exception types; this maps them to
+ * the problem details {@link GlobalExceptionHandler} produces for their servlet counterparts. Runs
+ * first so the catch-all there does not turn them into 500s; everything else falls through to it.
+ */
+@Profile("reactive")
+@RestControllerAdvice
+@Order(Ordered.HIGHEST_PRECEDENCE)
+class ReactiveExceptionHandler {
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    ProblemDetail handleValidationErrors(WebExchangeBindException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Validation failed");
+        problemDetail.setTitle("Invalid Request Content");
+        String errors = ex.getFieldErrors()
+                .stream()
+                .map(error -> error.getField() + ": " + error.getDefaultMessage())
+                .collect(Collectors.joining(", "));
+        problemDetail.setProperty("errors", errors);
+        return problemDetail;
+    }
+
+    @ExceptionHandler(MissingRequestValueException.class)
+    ProblemDetail handleMissingQueryParameter(MissingRequestValueException ex) {
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Missing " + ex.getName());
+        problemDetail.setTitle("Invalid Query Parameter");
+        problemDetail.setProperty("parameter", ex.getName());
+        return problemDetail;
+    }
+
+    // Conversion failures of query and path parameters, and unreadable bodies
+    @ExceptionHandler(ServerWebInputException.class)
+    ProblemDetail handleInvalidInput(ServerWebInputException ex) {
+        MethodParameter parameter = ex.getMethodParameter();
+        String name = parameter != null ? parameter.getParameterName() : null;
+        if (name == null || parameter.hasParameterAnnotation(RequestBody.class)) {
+            ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Malformed request body");
+            problemDetail.setTitle("Invalid Request Content");
+            return problemDetail;
+        }
+        ProblemDetail problemDetail = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, "Malformed " + name);
+        problemDetail.setTitle("Invalid Query Parameter");
+        problemDetail.setProperty("parameter", name);
+        return problemDetail;
+    }
+}
@@ -0,0 +1,91 @@
+package net.profitwarning.api.reactive;
+
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.cache.StampedValue;
+import net.profitwarning.api.dto.MessageResponse;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-id message cache and collection version on reactive Redis. Uses the key layout, value codec
+ * and TTL of the servlet stack's {@code testMessages} L2 cache and the same version counter, so
+ * both stacks can share one Redis. There is no local tier, and puts are not announced, as in
+ * {@code TwoTierCache}; entries {@code TwoTierCache} loaded are read through their {@link StampedValue}.
+ */
+public class ReactiveMessageCache {
+
+    private final ReactiveRedisTemplate<String, Object> redisTemplate;
+    private final ReactiveStringRedisTemplate stringRedisTemplate;
+    private final String keyPrefix;
+    private final Duration timeToLive;
+
+    public ReactiveMessageCache(ReactiveRedisTemplate<String, Object> redisTemplate,
+                                ReactiveStringRedisTemplate stringRedisTemplate,
+                                String keyPrefix,
+                                Duration timeToLive) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.timeToLive = timeToLive;
+    }
+
+    public Mono<MessageResponse> get(long id) {
+        return redisTemplate.opsForValue().get(key(id)).map(StampedValue::unwrap).ofType(MessageResponse.class);
+    }
+
+    /** Cached messages for the given ids in one {@code MGET}; ids without an entry are absent. */
+    public Mono<Map<Long, MessageResponse>> getAll(Collection<Long> ids) {
+        List<Long> idList = List.copyOf(ids);
+        return redisTemplate.opsForValue()
+                .multiGet(idList.stream().map(this::key).toList())
+                .map(values -> {
+                    Map<Long, MessageResponse> hits = new HashMap<>();
+                    for (int i = 0; i < idList.size(); i++) {
+                        if (StampedValue.unwrap(values.get(i)) instanceof MessageResponse message) {
+                            hits.put(idList.get(i), message);
+                        }
+                    }
+                    return hits;
+                });
+    }
+
+    public Mono<Void> put(MessageResponse message) {
+        return (timeToLive.isZero() || timeToLive.isNegative()
+                ? redisTemplate.opsForValue().set(key(message.id()), message)
+                : redisTemplate.opsForValue().set(key(message.id()), message, timeToLive))
+                .then();
+    }
+
+    // All SETs are in flight at once on the shared connection, which Lettuce pipelines
+    public Mono<Void> putAll(Collection<MessageResponse> messages) {
+        return Flux.fromIterable(messages).flatMap(this::put).then();
+    }
+
+    public Mono<Long> collectionVersion() {
+        return stringRedisTemplate.opsForValue()
+                .get(MessageCollectionVersion.VERSION_KEY)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L);
+    }
+
+    // Same counter and channel as MessageCollectionVersion#increment, so servlet nodes retire their pages too
+    public Mono<Long> incrementCollectionVersion() {
+        return stringRedisTemplate.opsForValue()
+                .increment(MessageCollectionVersion.VERSION_KEY)
+                .flatMap(version -> stringRedisTemplate
+                        .convertAndSend(MessageCollectionVersion.VERSION_CHANNEL, Long.toString(version))
+                        .thenReturn(version));
+    }
+
+    private String key(long id) {
+        return keyPrefix + id;
+    }
+}
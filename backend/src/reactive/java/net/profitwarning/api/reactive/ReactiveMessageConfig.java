@@ -0,0 +1,89 @@
+package net.profitwarning.api.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.profitwarning.api.cache.CacheNames;
+import net.profitwarning.api.cache.CompactMessageRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.NonNull;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+import java.time.Duration;
+
+@Profile("reactive")
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+class ReactiveMessageConfig {
+
+    @Value("${cors.allowed-origins:http://localhost:4200}")
+    private String allowedOrigins;
+
+    // Tomcat is on the classpath for the servlet stack and would otherwise be picked to host WebFlux
+    @Bean
+    NettyReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    ReactiveMessageRepository reactiveMessageRepository(DatabaseClient databaseClient) {
+        return new ReactiveMessageRepository(databaseClient);
+    }
+
+    // Key prefix and TTL follow spring.cache.redis.* exactly as CacheConfig applies them to the L2 cache
+    @Bean
+    ReactiveMessageCache reactiveMessageCache(ReactiveRedisConnectionFactory connectionFactory,
+                                              ReactiveStringRedisTemplate stringRedisTemplate,
+                                              CacheProperties cacheProperties,
+                                              ResourceLoader resourceLoader) {
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(RedisSerializer.string())
+                .value(new CompactMessageRedisSerializer(resourceLoader.getClassLoader()))
+                .build();
+        CacheProperties.Redis redis = cacheProperties.getRedis();
+        String keyPrefix = !redis.isUseKeyPrefix()
+                ? ""
+                : (redis.getKeyPrefix() != null ? redis.getKeyPrefix() : "") + CacheNames.MESSAGES + "::";
+        Duration timeToLive = redis.getTimeToLive() != null ? redis.getTimeToLive() : Duration.ZERO;
+        return new ReactiveMessageCache(new ReactiveRedisTemplate<>(connectionFactory, context), stringRedisTemplate,
+                keyPrefix, timeToLive);
+    }
+
+    @Bean
+    ReactiveMessageService reactiveMessageService(ReactiveMessageRepository repository,
+                                                  ReactiveMessageCache cache,
+                                                  ReactiveTransactionManager transactionManager,
+                                                  ObjectMapper objectMapper) {
+        return new ReactiveMessageService(repository, cache, TransactionalOperator.create(transactionManager),
+                objectMapper);
+    }
+
+    @Bean
+    WebFluxConfigurer reactiveCorsConfigurer() {
+        return new WebFluxConfigurer() {
+            @Override
+            public void addCorsMappings(@NonNull CorsRegistry registry) {
+                registry.addMapping("/api/**")
+                        .allowedOrigins(allowedOrigins.split(","))
+                        .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
+                        .allowedHeaders("*")
+                        .allowCredentials(true)
+                        .maxAge(3600);
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+package net.profitwarning.api.reactive;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import net.profitwarning.api.controller.MessageCacheControl;
+import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessageListResponse;
+import net.profitwarning.api.dto.MessagePageResponse;
+import net.profitwarning.api.dto.MessageResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.lang.Nullable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.Period;
+import java.util.List;
+
+/**
+ * The read/write subset of the servlet {@code MessageController} on WebFlux: pages, lookups by id
+ * and creation, with the same status codes, validators and cache headers. Search, export, the SSE
+ * stream and batch ingest are served by the servlet stack only.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/v1/messages")
+@Tag(name = "Messages", description = "Endpoints for managing test messages")
+class ReactiveMessageController {
+
+    private final ReactiveMessageService messageService;
+    @Nullable
+    private final Period retention;
+
+    ReactiveMessageController(ReactiveMessageService messageService,
+                              @Value("${app.partitions.retention:#{null}}") @Nullable Period retention) {
+        this.messageService = messageService;
+        this.retention = retention;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get messages", description = "Retrieves one page of messages ordered by creation time, optionally created in [from, to); pass nextCursor back as cursor to continue")
+    Mono<ResponseEntity<MessagePageResponse>> getMessages(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            ServerWebExchange exchange) {
+        // Taken before the read: a concurrent write can only make the ETag older than the body, never newer
+        return messageService.collectionVersion().flatMap(version -> {
+            String etag = "\"v" + version + "\"";
+            if (exchange.checkNotModified(etag)) {
+                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build());
+            }
+            return messageService.getMessages(cursor, size, from, to)
+                    .map(page -> ResponseEntity.ok()
+                            .cacheControl(CacheControl.noCache())
+                            .eTag(etag)
+                            .body(page));
+        });
+    }
+
+    @GetMapping(params = "ids")
+    @Operation(summary = "Get messages by IDs", description = "Retrieves up to 500 messages by comma-separated ids in one call, in request order; unknown ids are left out")
+    Mono<ResponseEntity<MessageListResponse>> getMessagesByIds(@RequestParam List<Long> ids) {
+        return messageService.getMessagesByIds(ids).map(messages -> ResponseEntity.ok(new MessageListResponse(messages)));
+    }
+
+    @PostMapping(path = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Get messages by IDs (body)", description = "Same as GET with ids, for id lists too long for a URL: a JSON array of up to 500 ids")
+    Mono<ResponseEntity<MessageListResponse>> lookupMessages(@RequestBody List<Long> ids) {
+        return messageService.getMessagesByIds(ids).map(messages -> ResponseEntity.ok(new MessageListResponse(messages)));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get message by ID", description = "Retrieves a message by its ID")
+    Mono<ResponseEntity<MessageResponse>> getMessageById(@PathVariable Long id, ServerWebExchange exchange) {
+        // Looked up even for a matching If-None-Match (usually a cache hit): a message removed by
+        // partition retention must answer 404, not 304
+        String etag = "\"m" + id + "\"";
+        return messageService.getMessageById(id)
+                .map(message -> {
+                    Instant createdAt = message.createdAt();
+                    if (exchange.checkNotModified(etag, createdAt)) {
+                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<MessageResponse>build();
+                    }
+                    return ResponseEntity.ok()
+                            .cacheControl(MessageCacheControl.of(createdAt, retention))
+                            .eTag(etag)
+                            .lastModified(createdAt)
+                            .body(message);
+                })
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    @Operation(summary = "Save a message", description = "Saves a new message to the database")
+    Mono<ResponseEntity<MessageResponse>> saveMessage(@RequestBody @Valid CreateMessageCommand command) {
+        return messageService.saveMessage(command)
+                .map(response -> ResponseEntity.status(HttpStatus.CREATED).body(response));
+    }
+}
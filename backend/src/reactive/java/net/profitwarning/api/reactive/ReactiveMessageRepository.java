@@ -0,0 +1,111 @@
+package net.profitwarning.api.reactive;
+
+import io.r2dbc.spi.Readable;
+import net.profitwarning.api.dto.MessageCursor;
+import net.profitwarning.api.dto.MessageResponse;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+/**
+ * R2DBC counterpart of {@code TestMessageRepository}: the same statements, with rows mapped straight
+ * into {@link MessageResponse}.
+ *
+ * <p>{@code created_at} is a {@code TIMESTAMP} without time zone that holds UTC. It is read and
+ * written as a UTC {@code LocalDateTime}, as Hibernate does on the servlet stack
+ * ({@code hibernate.jdbc.time_zone=UTC}), so both stacks agree on every instant whatever the
+ * JVM's default zone.
+ */
+public class ReactiveMessageRepository {
+
+    private static final String COLUMNS = "id, message, created_at";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveMessageRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<MessageResponse> findById(long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM testmessages WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveMessageRepository::toResponse)
+                .one();
+    }
+
+    // One statement whatever the number of ids: the list is bound as a single array parameter
+    public Flux<MessageResponse> findByIdIn(Collection<Long> ids) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM testmessages WHERE id = ANY(:ids)")
+                .bind("ids", ids.toArray(Long[]::new))
+                .map(ReactiveMessageRepository::toResponse)
+                .all();
+    }
+
+    /**
+     * Keyset page in {@code (created_at, id)} order, optionally limited to {@code [from, to)}; the
+     * same seek and partition pruning as the JPQL page queries.
+     */
+    public Flux<MessageResponse> findPage(@Nullable MessageCursor after, @Nullable Instant from, @Nullable Instant to,
+                                          int limit) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM testmessages WHERE TRUE");
+        if (from != null) {
+            sql.append(" AND created_at >= :from");
+        }
+        if (to != null) {
+            sql.append(" AND created_at < :to");
+        }
+        if (after != null) {
+            sql.append(" AND (created_at, id) > (:createdAt, :id)");
+        }
+        sql.append(" ORDER BY created_at, id LIMIT :limit");
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("limit", limit);
+        if (from != null) {
+            spec = spec.bind("from", toLocal(from));
+        }
+        if (to != null) {
+            spec = spec.bind("to", toLocal(to));
+        }
+        if (after != null) {
+            spec = spec.bind("createdAt", toLocal(after.createdAt())).bind("id", after.id());
+        }
+        return spec.map(ReactiveMessageRepository::toResponse).all();
+    }
+
+    // The id comes from the column default, i.e. one nextval of the pooled sequence (V4). Hibernate
+    // only uses the 50 ids ending at values it drew itself, so a value drawn here never collides.
+    public Mono<MessageResponse> insert(String content, Instant createdAt) {
+        return databaseClient.sql("INSERT INTO testmessages (message, created_at) VALUES (:content, :createdAt) RETURNING "
+                        + COLUMNS)
+                .bind("content", content)
+                .bind("createdAt", toLocal(createdAt))
+                .map(ReactiveMessageRepository::toResponse)
+                .one();
+    }
+
+    // Same row MessageOutbox writes on the servlet stack, so the relay publishes it like any other
+    public Mono<Void> insertOutboxEvent(long messageId, String type, String payload) {
+        return databaseClient.sql("INSERT INTO message_outbox (message_id, event_type, payload) VALUES (:messageId, :type, :payload)")
+                .bind("messageId", messageId)
+                .bind("type", type)
+                .bind("payload", payload)
+                .then();
+    }
+
+    // created_at holds UTC, as the servlet stack writes it with hibernate.jdbc.time_zone=UTC
+    private static MessageResponse toResponse(Readable row) {
+        LocalDateTime createdAt = row.get("created_at", LocalDateTime.class);
+        return new MessageResponse(row.get("id", Long.class), row.get("message", String.class),
+                createdAt != null ? createdAt.toInstant(ZoneOffset.UTC) : null);
+    }
+
+    private static LocalDateTime toLocal(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,121 @@
+package net.profitwarning.api.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessageCursor;
+import net.profitwarning.api.dto.MessagePageResponse;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.exception.InvalidQueryParameterException;
+import net.profitwarning.api.outbox.MessageOutbox;
+import net.profitwarning.api.service.TestMessageService;
+import org.springframework.lang.Nullable;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reactive counterpart of {@link TestMessageService} with the same limits and validation. Pages are
+ * read from the database on every call; only per-id reads are cached. Saved messages get the same
+ * outbox row as on the servlet stack, so stream consumers and SSE subscribers see them too.
+ */
+public class ReactiveMessageService {
+
+    private final ReactiveMessageRepository repository;
+    private final ReactiveMessageCache cache;
+    private final TransactionalOperator transactionalOperator;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveMessageService(ReactiveMessageRepository repository,
+                                  ReactiveMessageCache cache,
+                                  TransactionalOperator transactionalOperator,
+                                  ObjectMapper objectMapper) {
+        this.repository = repository;
+        this.cache = cache;
+        this.transactionalOperator = transactionalOperator;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<Long> collectionVersion() {
+        return cache.collectionVersion();
+    }
+
+    public Mono<MessagePageResponse> getMessages(@Nullable String cursor, int size,
+                                                 @Nullable Instant from, @Nullable Instant to) {
+        return Mono.defer(() -> {
+            if (from != null && to != null && !from.isBefore(to)) {
+                throw new InvalidQueryParameterException("to", "to must be after from");
+            }
+            int pageSize = Math.clamp(size, 1, TestMessageService.MAX_PAGE_SIZE);
+            MessageCursor after = cursor != null ? MessageCursor.decode(cursor) : null;
+            // One extra row tells us whether another page exists without a count query
+            return repository.findPage(after, from, to, pageSize + 1)
+                    .collectList()
+                    .map(rows -> {
+                        List<MessageResponse> items = rows.stream().limit(pageSize).toList();
+                        String nextCursor = rows.size() > pageSize ? MessageCursor.of(items.getLast()).encode() : null;
+                        return new MessagePageResponse(items, nextCursor);
+                    });
+        });
+    }
+
+    public Mono<MessageResponse> getMessageById(long id) {
+        return cache.get(id)
+                .switchIfEmpty(Mono.defer(() -> repository.findById(id)
+                        .flatMap(message -> cache.put(message).thenReturn(message))));
+    }
+
+    /** See {@link TestMessageService#getMessagesByIds(List)}. */
+    public Mono<List<MessageResponse>> getMessagesByIds(List<Long> ids) {
+        return Mono.defer(() -> {
+            if (ids.isEmpty() || ids.size() > TestMessageService.MAX_BULK_IDS) {
+                throw new InvalidQueryParameterException("ids",
+                        "ids must contain between 1 and " + TestMessageService.MAX_BULK_IDS + " ids");
+            }
+            if (ids.stream().anyMatch(Objects::isNull)) {
+                throw new InvalidQueryParameterException("ids", "ids must not contain blank entries");
+            }
+            Set<Long> unique = new LinkedHashSet<>(ids);
+            return cache.getAll(unique).flatMap(cached -> {
+                List<Long> misses = unique.stream().filter(id -> !cached.containsKey(id)).toList();
+                Mono<Map<Long, MessageResponse>> loaded = misses.isEmpty()
+                        ? Mono.just(Map.of())
+                        : repository.findByIdIn(misses)
+                                .collectList()
+                                .flatMap(rows -> cache.putAll(rows).thenReturn(rows.stream()
+                                        .collect(Collectors.toMap(MessageResponse::id, Function.identity()))));
+                return loaded.map(found -> unique.stream()
+                        .map(id -> cached.containsKey(id) ? cached.get(id) : found.get(id))
+                        .filter(Objects::nonNull)
+                        .toList());
+            });
+        });
+    }
+
+    // The message and its outbox row commit together; the cache and version are touched only after that
+    public Mono<MessageResponse> saveMessage(CreateMessageCommand command) {
+        return repository.insert(command.content(), Instant.now())
+                .flatMap(saved -> repository.insertOutboxEvent(saved.id(), MessageOutbox.MESSAGE_CREATED, serialize(saved))
+                        .thenReturn(saved))
+                .as(transactionalOperator::transactional)
+                .flatMap(saved -> cache.put(saved)
+                        .then(cache.incrementCollectionVersion())
+                        .thenReturn(saved));
+    }
+
+    private String serialize(MessageResponse message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Cannot serialize message " + message.id(), ex);
+        }
+    }
+}
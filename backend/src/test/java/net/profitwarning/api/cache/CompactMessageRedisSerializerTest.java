@@ -0,0 +1,89 @@
+package net.profitwarning.api.cache;
+
+import net.profitwarning.api.dto.MessagePageResponse;
+import net.profitwarning.api.dto.MessageResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactMessageRedisSerializerTest {
+
+    private final CompactMessageRedisSerializer serializer =
+            new CompactMessageRedisSerializer(getClass().getClassLoader());
+
+    @Test
+    void givenMessage_whenRoundTripped_thenEqual() {
+        MessageResponse message = new MessageResponse(42L, "Grüße 🚀", Instant.parse("2026-01-15T10:30:00.123456789Z"));
+
+        assertThat(serializer.deserialize(serializer.serialize(message))).isEqualTo(message);
+    }
+
+    @Test
+    void givenMessageWithNullFields_whenRoundTripped_thenEqual() {
+        MessageResponse message = new MessageResponse(null, null, null);
+
+        assertThat(serializer.deserialize(serializer.serialize(message))).isEqualTo(message);
+    }
+
+    @Test
+    void givenPage_whenRoundTripped_thenEqual() {
+        Instant now = Instant.now();
+        MessagePageResponse page = new MessagePageResponse(List.of(
+                new MessageResponse(1L, "Message 1", now),
+                new MessageResponse(2L, "Message 2", now)
+        ), "cursor-token");
+
+        assertThat(serializer.deserialize(serializer.serialize(page))).isEqualTo(page);
+        assertThat(serializer.deserialize(serializer.serialize(new MessagePageResponse(List.of(), null))))
+                .isEqualTo(new MessagePageResponse(List.of(), null));
+    }
+
+    @Test
+    void givenMessageList_whenRoundTripped_thenEqual() {
+        List<MessageResponse> messages = List.of(new MessageResponse(7L, "Message", Instant.EPOCH));
+
+        assertThat(serializer.deserialize(serializer.serialize(messages))).isEqualTo(messages);
+    }
+
+    @Test
+    void givenStampedPage_whenRoundTripped_thenEqual() {
+        StampedValue stamped = new StampedValue(new MessagePageResponse(
+                List.of(new MessageResponse(1L, "Message 1", Instant.EPOCH)), null), 1_767_225_600_000L, 12_345_678L);
+
+        assertThat(serializer.deserialize(serializer.serialize(stamped))).isEqualTo(stamped);
+    }
+
+    @Test
+    void givenNullValue_whenRoundTripped_thenNullValue() {
+        assertThat(serializer.deserialize(serializer.serialize(NullValue.INSTANCE))).isSameAs(NullValue.INSTANCE);
+    }
+
+    @Test
+    void givenUnknownType_whenRoundTripped_thenJdkFallbackUsed() {
+        Map<String, Long> value = Map.of("count", 3L);
+
+        assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+    }
+
+    @Test
+    void givenEntryWrittenByJdkSerializer_whenDeserialized_thenReadable() {
+        MessageResponse message = new MessageResponse(1L, "Legacy", Instant.EPOCH);
+        byte[] legacy = RedisSerializer.java().serialize(message);
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo(message);
+    }
+
+    @Test
+    void givenMessage_whenSerialized_thenSmallerThanJdk() {
+        MessageResponse message = new MessageResponse(1L, "Hello", Instant.now());
+
+        assertThat(serializer.serialize(message).length)
+                .isLessThan(RedisSerializer.java().serialize(message).length / 5);
+    }
+}
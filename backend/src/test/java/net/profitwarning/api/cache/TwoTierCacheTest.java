@@ -0,0 +1,232 @@
+package net.profitwarning.api.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+@SuppressWarnings("null")
+class TwoTierCacheTest {
+
+    private final ConcurrentMapCache remote = new ConcurrentMapCache("messages");
+
+    @Test
+    void whenManyCallersMissAtOnce_thenLoaderRunsOnce() throws Exception {
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 0);
+        int callers = 50;
+        AtomicInteger loaderCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(callers);
+
+        List<Future<String>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    started.countDown();
+                    return cache.get("key", () -> {
+                        loaderCalls.incrementAndGet();
+                        release.await();
+                        return "value";
+                    });
+                }));
+            }
+            started.await();
+            // Give every caller time to reach the cache before the single load completes
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("value");
+            }
+        }
+
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(cache.getLoadCount()).isEqualTo(1);
+        assertThat(cache.getCoalescedLoadCount()).isEqualTo(callers - 1L);
+        assertThat(StampedValue.unwrap(remote.get("key").get())).isEqualTo("value");
+    }
+
+    @Test
+    void whenLoaderFails_thenWaitingCallersSeeTheFailure() throws Exception {
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 0);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            Future<Object> leader = executor.submit(() -> cache.get("key", () -> {
+                loading.countDown();
+                release.await();
+                throw new IllegalStateException("database down");
+            }));
+            loading.await();
+            Future<Object> follower = executor.submit(() -> cache.get("key", () -> "unused"));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThatThrownBy(leader::get).hasRootCauseMessage("database down");
+            assertThatThrownBy(follower::get).hasRootCauseMessage("database down");
+        }
+        assertThat(cache.getLocalCache().getIfPresent("key")).isNull();
+    }
+
+    @Test
+    void whenLoaderReturnsNull_thenNothingIsCached() {
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 0);
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        cache.get("missing", () -> {
+            loaderCalls.incrementAndGet();
+            return null;
+        });
+        cache.get("missing", () -> {
+            loaderCalls.incrementAndGet();
+            return null;
+        });
+
+        assertThat(loaderCalls).hasValue(2);
+        assertThat(remote.get("missing")).isNull();
+    }
+
+    @Test
+    void whenEntryIsCloseToExpiry_thenItIsRefreshedEarlyOffTheCallersThread() throws Exception {
+        List<Runnable> refreshes = new ArrayList<>();
+        // A huge beta stretches the refresh window of a 10ms load over the whole minute of remote TTL
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 1e9, refreshes::add);
+        AtomicInteger loaderCalls = new AtomicInteger();
+
+        cache.get("key", () -> {
+            Thread.sleep(10);
+            return "v" + loaderCalls.incrementAndGet();
+        });
+        Object served = cache.get("key", () -> "v" + loaderCalls.incrementAndGet());
+
+        // The triggering caller gets the current value; the reload waits for the refresh executor
+        assertThat(served).isEqualTo("v1");
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.getFirst().run();
+
+        assertThat(cache.getEarlyRefreshCount()).isEqualTo(1);
+        assertThat(StampedValue.unwrap(remote.get("key").get())).isEqualTo("v2");
+        assertThat(cache.get("key", String.class)).isEqualTo("v2");
+    }
+
+    @Test
+    void whenRefreshExecutorRejects_thenCachedValueIsServed() throws Exception {
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 1e9, task -> {
+            throw new RejectedExecutionException("busy");
+        });
+        cache.get("key", () -> {
+            Thread.sleep(10);
+            return "v1";
+        });
+
+        assertThat(cache.get("key", () -> "v2")).isEqualTo("v1");
+        assertThat(cache.getEarlyRefreshCount()).isZero();
+    }
+
+    @Test
+    void whenEarlyRefreshDisabled_thenFreshEntryIsServedFromLocalTier() {
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 0);
+        cache.get("key", () -> "v1");
+
+        assertThat(cache.get("key", () -> "v2")).isEqualTo("v1");
+        assertThat(cache.getEarlyRefreshCount()).isZero();
+    }
+
+    @Test
+    void whenLoadedEntryIsCopiedFromRemote_thenItIsRefreshedAgainstTheRemoteExpiry() {
+        List<Runnable> refreshes = new ArrayList<>();
+        TwoTierCache cache = cache(Duration.ofMinutes(10), 1e9, refreshes::add);
+        // Loaded by another node nine minutes ago; L2 copies used to carry no load cost and never refreshed
+        remote.put("key", new StampedValue("v1", System.currentTimeMillis() - Duration.ofMinutes(9).toMillis(),
+                Duration.ofMillis(10).toNanos()));
+
+        assertThat(cache.get("key", () -> "v2")).isEqualTo("v1");
+        assertThat(refreshes).hasSize(1);
+    }
+
+    @Test
+    void whenLocalEntryExpires_thenItIsRefilledFromRemoteWithoutLoading() {
+        TwoTierCache cache = cache(Duration.ofMinutes(10), 1);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        cache.get("key", () -> "v" + loaderCalls.incrementAndGet());
+
+        cache.evictLocal("key");
+
+        assertThat(cache.get("key", () -> "v" + loaderCalls.incrementAndGet())).isEqualTo("v1");
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(cache.getEarlyRefreshCount()).isZero();
+    }
+
+    @Test
+    void whenAnotherNodeRefreshedFirst_thenItsRemoteCopyIsTakenInsteadOfLoading() {
+        List<Runnable> refreshes = new ArrayList<>();
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 1e9, refreshes::add);
+        AtomicInteger loaderCalls = new AtomicInteger();
+        cache.get("key", () -> {
+            Thread.sleep(10);
+            return "v" + loaderCalls.incrementAndGet();
+        });
+        cache.get("key", () -> "v" + loaderCalls.incrementAndGet());
+        remote.put("key", new StampedValue("peer", System.currentTimeMillis() + 1, 1L));
+
+        refreshes.getFirst().run();
+
+        assertThat(loaderCalls).hasValue(1);
+        assertThat(cache.get("key", String.class)).isEqualTo("peer");
+    }
+
+    @Test
+    void whenGetAll_thenLocalAndRemoteHitsAreMergedAndMissesLeftOut() {
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 0);
+        cache.put(1L, "local");
+        remote.put(2L, "remote");
+
+        Map<Object, Object> hits = cache.getAll(List.of(1L, 2L, 3L));
+
+        assertThat(hits).containsOnly(entry(1L, "local"), entry(2L, "remote"));
+        // The remote hit was copied into L1
+        assertThat(cache.getLocalCache().getIfPresent("2")).isNotNull();
+    }
+
+    @Test
+    void whenPutAll_thenBothTiersHoldEveryEntry() {
+        TwoTierCache cache = cache(Duration.ofMinutes(1), 0);
+
+        cache.putAll(Map.of(1L, "one", 2L, "two"));
+
+        assertThat(remote.get(1L).get()).isEqualTo("one");
+        assertThat(remote.get(2L).get()).isEqualTo("two");
+        assertThat(cache.getAll(List.of(2L, 1L))).containsOnly(entry(1L, "one"), entry(2L, "two"));
+    }
+
+    private TwoTierCache cache(Duration remoteTtl, double refreshAheadBeta) {
+        return cache(remoteTtl, refreshAheadBeta, Runnable::run);
+    }
+
+    private TwoTierCache cache(Duration remoteTtl, double refreshAheadBeta, Executor refreshExecutor) {
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> local = Caffeine.newBuilder()
+                .maximumSize(100)
+                .recordStats()
+                .build();
+        return new TwoTierCache("messages", local, remote, (name, key) -> { }, remoteTtl, refreshAheadBeta,
+                refreshExecutor, null, null);
+    }
+}
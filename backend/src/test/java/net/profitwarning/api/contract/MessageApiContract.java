@@ -0,0 +1,161 @@
+package net.profitwarning.api.contract;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HTTP contract of {@code /api/v1/messages} shared by the servlet and the reactive stack. Subclasses
+ * start one of them on a random port against the docker-compose Postgres and Redis; every check
+ * goes over the wire, so both stacks are held to the same status codes, headers and bodies. Test
+ * methods are public so subclasses in other packages inherit them.
+ */
+@SuppressWarnings("null")
+public abstract class MessageApiContract {
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void createdMessageIsServedByIdWithImmutableValidators() throws Exception {
+        JsonNode created = create("contract by id");
+
+        HttpResponse<String> response = send(get("/" + created.get("id").asLong()));
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(json(response).get("content").asText()).isEqualTo("contract by id");
+        assertThat(json(response).get("createdAt").asText()).isEqualTo(created.get("createdAt").asText());
+        assertThat(response.headers().firstValue("ETag")).contains("\"m" + created.get("id").asLong() + "\"");
+        assertThat(response.headers().firstValue("Cache-Control").orElseThrow()).contains("immutable");
+    }
+
+    @Test
+    public void knownMessageAnswersNotModifiedForItsETag() throws Exception {
+        long id = create("contract etag").get("id").asLong();
+
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/" + id))
+                .header("If-None-Match", "\"m" + id + "\"")
+                .GET());
+
+        assertThat(response.statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    public void unknownIdIsNotFound() throws Exception {
+        assertThat(send(get("/" + Long.MAX_VALUE)).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void unknownIdIsNotFoundEvenForAMatchingETag() throws Exception {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/" + Long.MAX_VALUE))
+                .header("If-None-Match", "\"m" + Long.MAX_VALUE + "\"")
+                .GET());
+
+        assertThat(response.statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    public void pagesFollowTheCursorInCreationOrder() throws Exception {
+        Instant from = Instant.now().minusMillis(1);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(create("contract page " + i).get("id").asLong());
+        }
+        String range = "&from=" + from + "&to=" + Instant.now().plusSeconds(1);
+
+        JsonNode first = json(send(get("?size=2" + range)));
+        JsonNode second = json(send(get("?size=2" + range + "&cursor=" + first.get("nextCursor").asText())));
+
+        List<Long> seen = new ArrayList<>();
+        first.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+        second.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+        assertThat(seen).containsExactlyElementsOf(ids);
+        assertThat(second.get("nextCursor").isNull()).isTrue();
+    }
+
+    @Test
+    public void unchangedCollectionAnswersNotModifiedUntilAWrite() throws Exception {
+        HttpResponse<String> page = send(get("?size=1"));
+        String etag = page.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> unchanged = send(HttpRequest.newBuilder(uri("?size=1")).header("If-None-Match", etag).GET());
+        create("contract version bump");
+        HttpResponse<String> changed = send(HttpRequest.newBuilder(uri("?size=1")).header("If-None-Match", etag).GET());
+
+        assertThat(page.statusCode()).isEqualTo(200);
+        assertThat(unchanged.statusCode()).isEqualTo(304);
+        assertThat(changed.statusCode()).isEqualTo(200);
+        assertThat(changed.headers().firstValue("ETag")).isNotEqualTo(page.headers().firstValue("ETag"));
+    }
+
+    @Test
+    public void bulkLookupKeepsRequestOrderAndLeavesOutUnknownIds() throws Exception {
+        long a = create("contract bulk a").get("id").asLong();
+        long b = create("contract bulk b").get("id").asLong();
+        String ids = b + "," + Long.MAX_VALUE + "," + a + "," + b;
+
+        JsonNode byQuery = json(send(get("?ids=" + ids))).get("messages");
+        JsonNode byBody = json(send(post("/lookup", "[" + ids + "]"))).get("messages");
+
+        for (JsonNode result : List.of(byQuery, byBody)) {
+            assertThat(result.size()).isEqualTo(2);
+            assertThat(result.get(0).get("id").asLong()).isEqualTo(b);
+            assertThat(result.get(1).get("id").asLong()).isEqualTo(a);
+        }
+    }
+
+    @Test
+    public void malformedQueryParametersAreNamedInTheProblem() throws Exception {
+        HttpResponse<String> cursor = send(get("?cursor=broken"));
+        HttpResponse<String> ids = send(get("?ids=1,abc"));
+
+        assertThat(cursor.statusCode()).isEqualTo(400);
+        assertThat(json(cursor).get("parameter").asText()).isEqualTo("cursor");
+        assertThat(ids.statusCode()).isEqualTo(400);
+        assertThat(json(ids).get("parameter").asText()).isEqualTo("ids");
+    }
+
+    private JsonNode create(String content) throws Exception {
+        HttpResponse<String> response = send(post("", objectMapper.writeValueAsString(
+                objectMapper.createObjectNode().put("content", content))));
+        assertThat(response.statusCode()).isEqualTo(201);
+        return json(response);
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://localhost:" + port + "/api/v1/messages" + pathAndQuery);
+    }
+
+    private HttpRequest.Builder get(String pathAndQuery) {
+        return HttpRequest.newBuilder(uri(pathAndQuery)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private JsonNode json(HttpResponse<String> response) throws IOException {
+        return objectMapper.readTree(response.body());
+    }
+}
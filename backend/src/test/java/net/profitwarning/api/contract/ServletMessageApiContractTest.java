@@ -0,0 +1,7 @@
+package net.profitwarning.api.contract;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ServletMessageApiContractTest extends MessageApiContract {
+}
@@ -2,28 +2,58 @@ package net.profitwarning.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessagePageResponse;
 import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.exception.GlobalExceptionHandler;
+import net.profitwarning.api.exception.IngestUnavailableException;
+import net.profitwarning.api.exception.InvalidQueryParameterException;
+import net.profitwarning.api.service.MessageExportRunner;
+import net.profitwarning.api.service.MessageExportService;
+import net.profitwarning.api.service.MessageIngestQueue;
+import net.profitwarning.api.service.MessageStreamBroadcaster;
 import net.profitwarning.api.service.TestMessageService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(MessageController.class)
+@Import({GlobalExceptionHandler.class, MessageControllerTest.ExportRunnerConfig.class})
 @SuppressWarnings("null") // Suppress false-positive null warnings from Eclipse JDT
 class MessageControllerTest {
 
@@ -36,6 +66,15 @@ class MessageControllerTest {
     @MockitoBean
     private TestMessageService testMessageService;
 
+    @MockitoBean
+    private MessageIngestQueue messageIngestQueue;
+
+    @MockitoBean
+    private MessageStreamBroadcaster messageStreamBroadcaster;
+
+    @MockitoBean
+    private MessageExportService messageExportService;
+
     @Test
     void shouldGetMessages() throws Exception {
         Instant now = Instant.now();
@@ -43,17 +82,188 @@ class MessageControllerTest {
                 new MessageResponse(1L, "Message 1", now),
                 new MessageResponse(2L, "Message 2", now)
         );
-        when(testMessageService.getMessages()).thenReturn(messages);
+        when(testMessageService.getMessages(null, 20, null, null)).thenReturn(new MessagePageResponse(messages, "next-token"));
 
         mockMvc.perform(get("/api/v1/messages"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.length()").value(2))
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].content").value("Message 1"))
-                .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].content").value("Message 2"));
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].content").value("Message 1"))
+                .andExpect(jsonPath("$.items[1].id").value(2))
+                .andExpect(jsonPath("$.items[1].content").value("Message 2"))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+
+        verify(testMessageService).getMessages(null, 20, null, null);
+    }
+
+    @Test
+    void shouldPassCursorAndSizeToService() throws Exception {
+        when(testMessageService.getMessages("abc", 5, null, null)).thenReturn(new MessagePageResponse(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/messages").param("cursor", "abc").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(testMessageService).getMessages("abc", 5, null, null);
+    }
+
+    @Test
+    void shouldReturnBadRequestForMalformedCursor() throws Exception {
+        when(testMessageService.getMessages("broken", 20, null, null))
+                .thenThrow(new InvalidQueryParameterException("cursor", "Malformed cursor"));
+
+        mockMvc.perform(get("/api/v1/messages").param("cursor", "broken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid Query Parameter"))
+                .andExpect(jsonPath("$.parameter").value("cursor"));
+    }
+
+    @Test
+    void shouldGetMessagesByIdsInRequestOrder() throws Exception {
+        Instant now = Instant.now();
+        when(testMessageService.getMessagesByIds(List.of(3L, 1L))).thenReturn(List.of(
+                new MessageResponse(3L, "Message 3", now),
+                new MessageResponse(1L, "Message 1", now)));
+
+        mockMvc.perform(get("/api/v1/messages").param("ids", "3,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages.length()").value(2))
+                .andExpect(jsonPath("$.messages[0].id").value(3))
+                .andExpect(jsonPath("$.messages[1].id").value(1));
+
+        verify(testMessageService, never()).getMessages(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void shouldLookUpMessagesByIdsFromBody() throws Exception {
+        when(testMessageService.getMessagesByIds(List.of(2L, 5L)))
+                .thenReturn(List.of(new MessageResponse(2L, "Message 2", Instant.now())));
+
+        mockMvc.perform(post("/api/v1/messages/lookup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[2, 5]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.messages.length()").value(1))
+                .andExpect(jsonPath("$.messages[0].id").value(2));
+    }
+
+    @Test
+    void shouldReturnBadRequestForMalformedIds() throws Exception {
+        mockMvc.perform(get("/api/v1/messages").param("ids", "1,abc"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.parameter").value("ids"));
+
+        verify(testMessageService, never()).getMessagesByIds(anyList());
+    }
+
+    @Test
+    void shouldSearchMessages() throws Exception {
+        MessageResponse hit = new MessageResponse(7L, "Hello world", Instant.now());
+        when(testMessageService.searchMessages("hello", null, 20))
+                .thenReturn(new MessagePageResponse(List.of(hit), "next-token"));
+
+        mockMvc.perform(get("/api/v1/messages/search").param("q", "hello"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(7))
+                .andExpect(jsonPath("$.nextCursor").value("next-token"));
+    }
+
+    @Test
+    void shouldReturnBadRequestForBlankSearchQuery() throws Exception {
+        when(testMessageService.searchMessages(" ", null, 20))
+                .thenThrow(new InvalidQueryParameterException("q", "Search query must not be blank"));
+
+        mockMvc.perform(get("/api/v1/messages/search").param("q", " "))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.parameter").value("q"));
+    }
+
+    @Test
+    void shouldPassTimeRangeToService() throws Exception {
+        Instant from = Instant.parse("2026-09-01T00:00:00Z");
+        Instant to = Instant.parse("2026-10-01T00:00:00Z");
+        when(testMessageService.getMessages(null, 20, from, to)).thenReturn(new MessagePageResponse(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/messages")
+                        .param("from", "2026-09-01T00:00:00Z")
+                        .param("to", "2026-10-01T00:00:00Z"))
+                .andExpect(status().isOk());
+
+        verify(testMessageService).getMessages(null, 20, from, to);
+    }
+
+    @Test
+    void shouldReturnBadRequestForMalformedTimestamp() throws Exception {
+        mockMvc.perform(get("/api/v1/messages").param("from", "last tuesday"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid Query Parameter"))
+                .andExpect(jsonPath("$.parameter").value("from"));
+
+        verify(testMessageService, never()).getMessages(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void shouldReturnBadRequestForMalformedPathVariable() throws Exception {
+        mockMvc.perform(get("/api/v1/messages/not-a-number"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid Path Variable"))
+                .andExpect(jsonPath("$.pathVariable").value("id"))
+                .andExpect(jsonPath("$.parameter").doesNotExist());
+    }
+
+    @Test
+    void shouldReturnBadRequestForMissingSearchQuery() throws Exception {
+        mockMvc.perform(get("/api/v1/messages/search"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.parameter").value("q"));
+    }
+
+    @Test
+    void shouldStreamNdjsonExport() throws Exception {
+        givenExportWrites(MessageExportService.Format.NDJSON, "{\"id\":1}\n");
+
+        MvcResult started = mockMvc.perform(get("/api/v1/messages/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The export writes from its own thread; wait for it to complete the response
+        started.getAsyncResult(5_000);
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"messages.ndjson\""))
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void shouldGzipCsvExportWhenAccepted() throws Exception {
+        givenExportWrites(MessageExportService.Format.CSV, "id,content,created_at\r\n");
 
-        verify(testMessageService).getMessages();
+        MvcResult started = mockMvc.perform(get("/api/v1/messages/export")
+                        .param("format", "csv")
+                        .header("Accept-Encoding", "br, gzip;q=0.8"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        started.getAsyncResult(5_000);
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,content,created_at\r\n");
+        }
+    }
+
+    @Test
+    void shouldRejectUnknownExportFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/messages/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.parameter").value("format"));
     }
 
     @Test
@@ -96,4 +306,192 @@ class MessageControllerTest {
 
         verify(testMessageService).getMessageById(999L);
     }
+
+    @Test
+    void shouldSaveJsonBatch() throws Exception {
+        List<CreateMessageCommand> commands = List.of(new CreateMessageCommand("A"), new CreateMessageCommand("B"));
+        Instant now = Instant.now();
+        when(messageIngestQueue.submitAll(commands)).thenReturn(CompletableFuture.completedFuture(List.of(
+                new MessageResponse(11L, "A", now),
+                new MessageResponse(12L, "B", now))));
+
+        mockMvc.perform(post("/api/v1/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(commands)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.ids[0]").value(11))
+                .andExpect(jsonPath("$.ids[1]").value(12));
+    }
+
+    @Test
+    void shouldSaveNdjsonBatch() throws Exception {
+        List<CreateMessageCommand> commands = List.of(new CreateMessageCommand("A"), new CreateMessageCommand("B"));
+        when(messageIngestQueue.submitAll(commands)).thenReturn(CompletableFuture.completedFuture(List.of(
+                new MessageResponse(21L, "A", Instant.now()),
+                new MessageResponse(22L, "B", Instant.now()))));
+
+        mockMvc.perform(post("/api/v1/messages/batch")
+                        .contentType(MessageController.APPLICATION_NDJSON_VALUE)
+                        .content("{\"content\":\"A\"}\n\n{\"content\":\"B\"}\n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.ids[0]").value(21))
+                .andExpect(jsonPath("$.ids[1]").value(22));
+    }
+
+    @Test
+    void shouldRejectBatchWithBlankItemBeforeEnqueueing() throws Exception {
+        mockMvc.perform(post("/api/v1/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"content\":\"A\"},{\"content\":\" \"}]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid Batch"))
+                .andExpect(jsonPath("$.index").value(1));
+
+        verify(messageIngestQueue, never()).submitAll(anyList());
+    }
+
+    @Test
+    void shouldRejectMalformedNdjsonLine() throws Exception {
+        mockMvc.perform(post("/api/v1/messages/batch")
+                        .contentType(MessageController.APPLICATION_NDJSON_VALUE)
+                        .content("{\"content\":\"A\"}\nnot-json\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.index").value(1));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenIngestQueueIsFull() throws Exception {
+        when(messageIngestQueue.submitAll(anyList()))
+                .thenThrow(new IngestUnavailableException("Message ingest queue is full"));
+
+        mockMvc.perform(post("/api/v1/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"content\":\"A\"}]"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title").value("Ingest Unavailable"));
+    }
+
+    @Test
+    void shouldReturnIngestFailedWithoutRetryAfterWhenBatchWriteFails() throws Exception {
+        when(messageIngestQueue.submitAll(anyList()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("database down")));
+
+        mockMvc.perform(post("/api/v1/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"content\":\"A\"}]"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().doesNotExist("Retry-After"))
+                .andExpect(jsonPath("$.title").value("Ingest Failed"));
+    }
+
+    @Test
+    void shouldRejectJsonBatchThatIsNotAnArray() throws Exception {
+        mockMvc.perform(post("/api/v1/messages/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"A\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.title").value("Invalid Batch"));
+
+        verify(messageIngestQueue, never()).submitAll(anyList());
+    }
+
+    @Test
+    void shouldSubscribeToStreamWithLastEventId() throws Exception {
+        when(messageStreamBroadcaster.subscribe("1700000000000-3")).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/messages/stream")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header("Last-Event-ID", "1700000000000-3"))
+                .andExpect(request().asyncStarted());
+
+        verify(messageStreamBroadcaster).subscribe("1700000000000-3");
+    }
+
+    @Test
+    void shouldSubscribeWithoutLastEventId() throws Exception {
+        when(messageStreamBroadcaster.subscribe(null)).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/v1/messages/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+
+        verify(messageStreamBroadcaster).subscribe(null);
+    }
+
+    @Test
+    void shouldReturnNotModifiedForUnchangedCollection() throws Exception {
+        when(testMessageService.collectionVersion()).thenReturn(7L);
+
+        mockMvc.perform(get("/api/v1/messages").header("If-None-Match", "\"v7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v7\""));
+
+        verify(testMessageService, never()).getMessages(any(), anyInt(), any(), any());
+    }
+
+    @Test
+    void shouldReturnPageWithNewETagAfterCollectionChanged() throws Exception {
+        when(testMessageService.collectionVersion()).thenReturn(8L);
+        when(testMessageService.getMessages(null, 20, null, null)).thenReturn(new MessagePageResponse(List.of(), null));
+
+        mockMvc.perform(get("/api/v1/messages").header("If-None-Match", "\"v7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v8\""))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void shouldSendValidatorsForMessageById() throws Exception {
+        Instant createdAt = Instant.parse("2026-01-15T10:30:00Z");
+        when(testMessageService.getMessageById(1L)).thenReturn(Optional.of(new MessageResponse(1L, "Test", createdAt)));
+
+        mockMvc.perform(get("/api/v1/messages/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"m1\""))
+                .andExpect(header().dateValue("Last-Modified", createdAt.toEpochMilli()))
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public, immutable"));
+    }
+
+    @Test
+    void shouldReturnNotModifiedForKnownMessage() throws Exception {
+        when(testMessageService.getMessageById(1L))
+                .thenReturn(Optional.of(new MessageResponse(1L, "Test", Instant.parse("2026-01-15T10:30:00Z"))));
+
+        mockMvc.perform(get("/api/v1/messages/1").header("If-None-Match", "\"m1\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void shouldReturnNotFoundForRemovedMessageDespiteMatchingETag() throws Exception {
+        when(testMessageService.getMessageById(1L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/v1/messages/1").header("If-None-Match", "\"m1\""))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldHonourIfModifiedSinceForMessageById() throws Exception {
+        Instant createdAt = Instant.parse("2026-01-15T10:30:00Z");
+        when(testMessageService.getMessageById(1L)).thenReturn(Optional.of(new MessageResponse(1L, "Test", createdAt)));
+
+        mockMvc.perform(get("/api/v1/messages/1").header("If-Modified-Since", "Thu, 15 Jan 2026 10:30:00 GMT"))
+                .andExpect(status().isNotModified());
+    }
+
+    private void givenExportWrites(MessageExportService.Format format, String output) throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(output.getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(messageExportService).export(eq(format), any(OutputStream.class));
+    }
+
+    @TestConfiguration
+    static class ExportRunnerConfig {
+
+        @Bean
+        MessageExportRunner messageExportRunner() {
+            return new MessageExportRunner(2, Duration.ofMinutes(1));
+        }
+    }
 }
@@ -0,0 +1,59 @@
+package net.profitwarning.api.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings("null")
+class BulkheadDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+
+    @Test
+    void whenAllPermitsHeld_thenNextCallerTimesOut() throws SQLException {
+        given(target.getConnection()).willAnswer(invocation -> mock(Connection.class));
+        BulkheadDataSource dataSource = new BulkheadDataSource("test", target, 2, Duration.ofMillis(50));
+
+        dataSource.getConnection();
+        dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void whenConnectionClosed_thenPermitReturnedOnce() throws SQLException {
+        Connection physical = mock(Connection.class);
+        given(target.getConnection()).willReturn(physical);
+        BulkheadDataSource dataSource = new BulkheadDataSource("test", target, 1, Duration.ofMillis(50));
+
+        Connection connection = dataSource.getConnection();
+        connection.close();
+        connection.close();
+
+        verify(physical, times(2)).close();
+        Connection next = dataSource.getConnection();
+        assertThat(next).isNotNull();
+        // A double close must not have produced a second permit
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLTransientConnectionException.class);
+    }
+
+    @Test
+    void whenPoolFails_thenPermitIsReleased() throws SQLException {
+        given(target.getConnection()).willThrow(new SQLException("pool exhausted"));
+        BulkheadDataSource dataSource = new BulkheadDataSource("test", target, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+        assertThatThrownBy(dataSource::getConnection).hasMessage("pool exhausted");
+    }
+}
@@ -0,0 +1,142 @@
+package net.profitwarning.api.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Three in-memory H2 databases stand in for the primary and two replicas; each knows its own name
+// and reports whatever lag the test writes into it.
+@SuppressWarnings("null")
+class ReplicaRoutingDataSourceTest {
+
+    private static final String LAG_QUERY = "SELECT seconds FROM replica_lag";
+
+    private final List<AutoCloseable> closeables = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (AutoCloseable closeable : closeables) {
+            closeable.close();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToReplica_writesGoToPrimary() {
+        Routing routing = routing(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+
+        assertThat(routing.readNode()).startsWith("replica");
+        assertThat(routing.writeNode()).isEqualTo("primary");
+    }
+
+    @Test
+    void whenReplicasLag_thenReadsFallBackToPrimary() {
+        Routing routing = routing(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+        routing.setLag(routing.replicaA, 10);
+        routing.setLag(routing.replicaB, 10);
+        routing.router.probeLag();
+
+        assertThat(routing.readNode()).isEqualTo("primary");
+
+        routing.setLag(routing.replicaB, 0);
+        routing.router.probeLag();
+
+        assertThat(routing.readNode()).isEqualTo("replica-b");
+    }
+
+    @Test
+    void whenLastWriteIsWithinMaxLag_thenReadsStayOnPrimary() {
+        Routing routing = routing(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+        AtomicReference<Duration> sinceLastWrite = new AtomicReference<>(Duration.ofSeconds(1));
+        routing.router.setTimeSinceLastWrite(sinceLastWrite::get);
+
+        assertThat(routing.readNode()).isEqualTo("primary");
+
+        sinceLastWrite.set(Duration.ofSeconds(6));
+
+        assertThat(routing.readNode()).startsWith("replica");
+    }
+
+    @Test
+    void roundRobinAlternatesBetweenReplicas() {
+        Routing routing = routing(ReplicaRoutingDataSource.Strategy.ROUND_ROBIN);
+
+        List<String> nodes = List.of(routing.readNode(), routing.readNode(), routing.readNode(), routing.readNode());
+
+        assertThat(nodes).containsOnly("replica-a", "replica-b");
+        assertThat(nodes.get(0)).isNotEqualTo(nodes.get(1));
+        assertThat(nodes.get(1)).isNotEqualTo(nodes.get(2));
+    }
+
+    @Test
+    void leastConnectionsAvoidsBusyReplica() throws Exception {
+        Routing routing = routing(ReplicaRoutingDataSource.Strategy.LEAST_CONNECTIONS);
+
+        try (Connection held = routing.replicaA.getConnection()) {
+            assertThat(routing.readNode()).isEqualTo("replica-b");
+            assertThat(routing.readNode()).isEqualTo("replica-b");
+        }
+    }
+
+    private Routing routing(ReplicaRoutingDataSource.Strategy strategy) {
+        HikariDataSource primary = database("primary");
+        HikariDataSource replicaA = database("replica-a");
+        HikariDataSource replicaB = database("replica-b");
+        // A long interval keeps the scheduled probe out of the way; tests call probeLag() directly
+        ReplicaRoutingDataSource router = new ReplicaRoutingDataSource(
+                List.of(new ReplicaRoutingDataSource.Replica("replica-a", replicaA, replicaA),
+                        new ReplicaRoutingDataSource.Replica("replica-b", replicaB, replicaB)),
+                primary, strategy, Duration.ofSeconds(5), Duration.ofHours(1), LAG_QUERY);
+        ReadOnlyRoutingDataSourceProxy proxy = new ReadOnlyRoutingDataSourceProxy(primary, router);
+        closeables.add(proxy);
+        router.probeLag();
+        return new Routing(proxy, router, replicaA, replicaB);
+    }
+
+    private static HikariDataSource database(String node) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + node + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        pool.setPoolName(node);
+        pool.setMaximumPoolSize(4);
+        JdbcTemplate jdbc = new JdbcTemplate(pool);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(32))");
+        jdbc.update("INSERT INTO node VALUES (?)", node);
+        jdbc.execute("CREATE TABLE replica_lag (seconds DOUBLE PRECISION)");
+        jdbc.update("INSERT INTO replica_lag VALUES (0)");
+        return pool;
+    }
+
+    private record Routing(ReadOnlyRoutingDataSourceProxy dataSource, ReplicaRoutingDataSource router,
+                           HikariDataSource replicaA, HikariDataSource replicaB) {
+
+        String readNode() {
+            return nodeIn(true);
+        }
+
+        String writeNode() {
+            return nodeIn(false);
+        }
+
+        void setLag(HikariDataSource replica, double seconds) {
+            new JdbcTemplate(replica).update("UPDATE replica_lag SET seconds = ?", seconds);
+        }
+
+        private String nodeIn(boolean readOnly) {
+            TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            transaction.setReadOnly(readOnly);
+            return transaction.execute(status ->
+                    new JdbcTemplate(dataSource).queryForObject("SELECT name FROM node", String.class));
+        }
+    }
+}
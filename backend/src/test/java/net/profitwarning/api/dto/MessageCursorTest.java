@@ -0,0 +1,37 @@
+package net.profitwarning.api.dto;
+
+import net.profitwarning.api.exception.InvalidQueryParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageCursorTest {
+
+    @Test
+    void givenCursor_whenEncodedAndDecoded_thenRoundTrips() {
+        MessageCursor cursor = new MessageCursor(Instant.parse("2026-01-15T10:30:00.123456Z"), 42L);
+
+        MessageCursor decoded = MessageCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+    }
+
+    @Test
+    void givenCursor_whenEncoded_thenTokenIsUrlSafe() {
+        String token = new MessageCursor(Instant.now(), Long.MAX_VALUE).encode();
+
+        assertThat(token).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void givenGarbageToken_whenDecoded_thenInvalidQueryParameter() {
+        assertThatThrownBy(() -> MessageCursor.decode("not a cursor!"))
+                .isInstanceOf(InvalidQueryParameterException.class)
+                .hasMessage("Malformed cursor");
+        assertThatThrownBy(() -> MessageCursor.decode("AAAA"))
+                .isInstanceOf(InvalidQueryParameterException.class);
+    }
+}
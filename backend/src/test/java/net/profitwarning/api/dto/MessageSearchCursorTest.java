@@ -0,0 +1,31 @@
+package net.profitwarning.api.dto;
+
+import net.profitwarning.api.exception.InvalidQueryParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageSearchCursorTest {
+
+    @Test
+    void givenCursor_whenEncodedAndDecoded_thenRankIsExact() {
+        MessageSearchCursor cursor = new MessageSearchCursor(0.0607927f, 42L);
+
+        MessageSearchCursor decoded = MessageSearchCursor.decode(cursor.encode());
+
+        assertThat(decoded).isEqualTo(cursor);
+        assertThat(Float.floatToIntBits(decoded.rank())).isEqualTo(Float.floatToIntBits(0.0607927f));
+    }
+
+    @Test
+    void givenListCursor_whenDecodedAsSearchCursor_thenInvalidQueryParameter() {
+        String listCursor = new MessageCursor(Instant.now(), 1L).encode();
+
+        assertThatThrownBy(() -> MessageSearchCursor.decode(listCursor))
+                .isInstanceOf(InvalidQueryParameterException.class)
+                .hasMessage("Malformed cursor");
+    }
+}
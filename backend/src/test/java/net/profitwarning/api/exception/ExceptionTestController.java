@@ -2,6 +2,9 @@ package net.profitwarning.api.exception;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
+import org.springframework.core.MethodParameter;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -9,6 +12,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.lang.reflect.Method;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+
 @RestController
 @RequestMapping("/api/v1/test-exception-handler")
 @SuppressWarnings("null")
@@ -20,9 +27,9 @@ class ExceptionTestController {
 
     @PostMapping("/manual-validation")
     void triggerManualValidation() throws MethodArgumentNotValidException, NoSuchMethodException {
-        java.lang.reflect.Method method = ExceptionTestController.class.getDeclaredMethod("triggerValidation", TestExceptionRequest.class);
-        org.springframework.core.MethodParameter parameter = new org.springframework.core.MethodParameter(method, 0);
-        throw new MethodArgumentNotValidException(parameter, new org.springframework.validation.BeanPropertyBindingResult(new TestExceptionRequest(""), "test"));
+        Method method = ExceptionTestController.class.getDeclaredMethod("triggerValidation", TestExceptionRequest.class);
+        MethodParameter parameter = new MethodParameter(method, 0);
+        throw new MethodArgumentNotValidException(parameter, new BeanPropertyBindingResult(new TestExceptionRequest(""), "test"));
     }
 
     @GetMapping("/exception")
@@ -30,6 +37,22 @@ class ExceptionTestController {
         throw new RuntimeException("Unexpected error");
     }
 
+    @GetMapping("/no-connection")
+    void triggerNoConnection() {
+        throw new CannotCreateTransactionException("Could not open JPA EntityManager for transaction",
+                new SQLTransientConnectionException("No connection permit available within 5000ms"));
+    }
+
+    @GetMapping("/rate-limited")
+    void triggerRateLimited() {
+        throw new RateLimitExceededException("Rate limit exceeded", Duration.ofMillis(1_500));
+    }
+
+    @GetMapping("/overloaded")
+    void triggerOverloaded() {
+        throw new ServiceOverloadedException("Too many requests in progress");
+    }
+
     record TestExceptionRequest(
             @NotBlank(message = "Name is required")
             String name
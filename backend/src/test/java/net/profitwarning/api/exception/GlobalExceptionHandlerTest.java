@@ -7,6 +7,7 @@ import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -36,4 +37,29 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.title").value("Internal Server Error"))
                 .andExpect(jsonPath("$.detail").value("Unexpected error"));
     }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenNoConnectionCanBeObtained() throws Exception {
+        mockMvc.perform(get("/api/v1/test-exception-handler/no-connection"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title").value("Database Unavailable"));
+    }
+
+    @Test
+    void shouldReturnTooManyRequestsWithRetryAfterRoundedUp() throws Exception {
+        mockMvc.perform(get("/api/v1/test-exception-handler/rate-limited"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.title").value("Too Many Requests"));
+    }
+
+    @Test
+    void shouldReturnServiceUnavailableWhenOverloaded() throws Exception {
+        mockMvc.perform(get("/api/v1/test-exception-handler/overloaded"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title").value("Service Overloaded"))
+                .andExpect(jsonPath("$.detail").value("Too many requests in progress"));
+    }
 }
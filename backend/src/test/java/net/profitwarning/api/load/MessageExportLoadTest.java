@@ -0,0 +1,119 @@
+package net.profitwarning.api.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.profitwarning.api.service.MessageExportService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports 1,000,000 rows as gzipped NDJSON in a child JVM limited to a 64 MB heap, far less than
+ * the rows would need if they were materialized. An embedded H2 file database stands in for
+ * Postgres. Excluded from the default build; run with {@code mvn test -Pload-tests}.
+ */
+@Tag("load")
+class MessageExportLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageExportLoadTest.class);
+
+    private static final int ROWS = 1_000_000;
+    private static final String MAX_HEAP = "-Xmx64m";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void exportsMillionRowsInSmallHeap() throws Exception {
+        // LAZY_QUERY_EXECUTION makes H2 stream the result instead of buffering it, like a Postgres cursor
+        String url = "jdbc:h2:file:" + directory.resolve("export") + ";CACHE_SIZE=8192;LAZY_QUERY_EXECUTION=TRUE";
+        populate(url);
+        Path result = directory.resolve("result.txt");
+
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                MAX_HEAP,
+                "-cp", System.getProperty("java.class.path"),
+                Exporter.class.getName(),
+                url,
+                result.toString())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        int exitCode = process.waitFor();
+
+        assertThat(exitCode).as(output).isZero();
+        String summary = Files.readString(result);
+        logger.info("Export in {} heap: {}", MAX_HEAP, summary);
+        assertThat(summary).contains("rows=" + ROWS);
+    }
+
+    private static void populate(String url) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL(url);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE testmessages (id BIGINT PRIMARY KEY, message VARCHAR(255), created_at TIMESTAMP NOT NULL)");
+        jdbcTemplate.execute("INSERT INTO testmessages SELECT X, 'Exported message number ' || X, "
+                + "DATEADD('SECOND', X, TIMESTAMP '2026-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + ROWS + ")");
+        jdbcTemplate.execute("CREATE INDEX idx_testmessages_created_at_id ON testmessages (created_at, id)");
+    }
+
+    /** Entry point of the child JVM: exports everything and writes the row count to the given file. */
+    public static final class Exporter {
+
+        public static void main(String[] args) throws IOException {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL(args[0]);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setFetchSize(1000);
+            MessageExportService exportService = new MessageExportService(jdbcTemplate,
+                    new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                    new ObjectMapper().getFactory(), new SimpleMeterRegistry());
+
+            CountingOutputStream counting = new CountingOutputStream(OutputStream.nullOutputStream());
+            long rows;
+            try (GZIPOutputStream gzip = new GZIPOutputStream(counting, 64 * 1024)) {
+                rows = exportService.export(MessageExportService.Format.NDJSON, gzip);
+            }
+            Files.writeString(Path.of(args[1]), "rows=" + rows + " gzippedBytes=" + counting.count
+                    + " maxHeap=" + Runtime.getRuntime().maxMemory());
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
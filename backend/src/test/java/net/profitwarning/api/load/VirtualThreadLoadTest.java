@@ -0,0 +1,82 @@
+package net.profitwarning.api.load;
+
+import net.profitwarning.api.ApiServiceApplication;
+import net.profitwarning.api.support.LoadDriver;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares tail latency of platform-thread and virtual-thread request handling with 5,000
+ * concurrent clients against a real Postgres and Redis (the docker profile). Excluded from the
+ * default build; run with {@code mvn test -Pload-tests}.
+ */
+@Tag("load")
+class VirtualThreadLoadTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    private static final int CLIENTS = 5_000;
+    private static final int REQUESTS_PER_CLIENT = 4;
+
+    private final LoadDriver driver = new LoadDriver();
+
+    @Test
+    void virtualThreadsKeepP99WithinPlatformThreadBaseline() throws Exception {
+        LoadDriver.Result platform = runWith(false);
+        LoadDriver.Result virtual = runWith(true);
+
+        logger.info("platform threads: {}", platform);
+        logger.info("virtual threads:  {}", virtual);
+
+        // The bulkhead queues callers instead of failing them, so neither mode should see 5xx
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+        assertThat(virtual.percentile(99)).isLessThanOrEqualTo(platform.percentile(99).multipliedBy(3).dividedBy(2));
+    }
+
+    private LoadDriver.Result runWith(boolean virtualThreads) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiServiceApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false",
+                        "logging.level.net.profitwarning=INFO",
+                        // Every simulated client shares one address; this test measures the thread model only
+                        "app.rate-limit.enabled=false",
+                        // The whole burst queues on the bulkhead; measure queuing, not the production fail-fast
+                        "app.datasource.bulkhead.acquire-timeout=60s",
+                        // Let platform-thread Tomcat accept the whole burst rather than refusing connections
+                        "server.tomcat.accept-count=" + CLIENTS,
+                        "server.tomcat.max-connections=" + (CLIENTS * 2))
+                .run()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI messages = URI.create("http://localhost:" + port + "/api/v1/messages");
+            // Warm up JIT, pools and caches before measuring
+            driver.run(200, 5, i -> request(messages, i));
+            return driver.run(CLIENTS, REQUESTS_PER_CLIENT, i -> request(messages, i));
+        }
+    }
+
+    // Alternate writes, which always need a connection, with page reads, which usually hit the cache
+    private static HttpRequest request(URI messages, int i) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(60));
+        if (i % 2 == 0) {
+            return builder.uri(messages)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"load " + i + "\"}"))
+                    .build();
+        }
+        return builder.uri(URI.create(messages + "?size=20")).GET().build();
+    }
+}
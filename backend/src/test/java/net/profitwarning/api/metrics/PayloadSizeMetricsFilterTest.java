@@ -0,0 +1,91 @@
+package net.profitwarning.api.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SuppressWarnings("null")
+class PayloadSizeMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final PayloadSizeMetricsFilter filter = new PayloadSizeMetricsFilter(registry);
+
+    @Test
+    void shouldRecordRequestAndResponseSizesPerEndpoint() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/messages");
+        request.setContent("{\"content\":\"Hello\"}".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        byte[] body = "{\"id\":1,\"content\":\"Hello\"}".getBytes(StandardCharsets.UTF_8);
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req,
+                                   HttpServletResponse res) throws IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/messages");
+                res.setStatus(201);
+                res.getOutputStream().write(body);
+            }
+        }));
+
+        DistributionSummary responseSize = registry.get("http.server.response.size")
+                .tags("method", "POST", "uri", "/api/v1/messages", "status", "201")
+                .summary();
+        assertThat(responseSize.count()).isEqualTo(1);
+        assertThat(responseSize.totalAmount()).isEqualTo(body.length);
+        assertThat(registry.get("http.server.request.size").summary().totalAmount()).isEqualTo(19);
+        assertThat(response.getContentAsByteArray()).isEqualTo(body);
+    }
+
+    @Test
+    void shouldCountBytesWrittenThroughWriter() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/messages/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding("UTF-8");
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req,
+                                   HttpServletResponse res) throws IOException {
+                res.getWriter().write("héllo");
+            }
+        }));
+
+        DistributionSummary responseSize = registry.get("http.server.response.size").tag("uri", "UNKNOWN").summary();
+        assertThat(responseSize.totalAmount()).isEqualTo(6);
+    }
+
+    @Test
+    void shouldCountBytesReadWhenRequestIsChunked() throws Exception {
+        // Chunked uploads carry no Content-Length
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/messages/batch") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.setContent("{\"content\":\"a\"}\n{\"content\":\"b\"}\n".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req,
+                                   HttpServletResponse res) throws IOException {
+                req.getInputStream().readAllBytes();
+            }
+        }));
+
+        assertThat(registry.get("http.server.request.size").summary().totalAmount()).isEqualTo(32);
+    }
+}
@@ -0,0 +1,77 @@
+package net.profitwarning.api.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.service.MessageStreamBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings("null")
+class MessageEventStreamListenerTest {
+
+    private final MessageStreamBroadcaster broadcaster = mock(MessageStreamBroadcaster.class);
+    private final MessageCollectionVersion collectionVersion = mock(MessageCollectionVersion.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MessageEventStreamListener listener =
+            new MessageEventStreamListener(broadcaster, collectionVersion, objectMapper);
+
+    @Test
+    void whenMessageCreatedEntryArrives_thenItIsBroadcastUnderItsStreamId() throws Exception {
+        MessageResponse message = new MessageResponse(7L, "Hello", Instant.parse("2026-01-15T10:30:00Z"));
+
+        listener.onMessage(entry("1700000000000-4", MessageOutbox.MESSAGE_CREATED, objectMapper.writeValueAsString(message)));
+
+        verify(broadcaster).publish("1700000000000-4", message);
+    }
+
+    @Test
+    void whenPayloadIsUnreadable_thenEntryIsSkipped() {
+        listener.onMessage(entry("1700000000000-5", MessageOutbox.MESSAGE_CREATED, "not-json"));
+
+        verify(broadcaster, never()).publish(anyString(), any());
+    }
+
+    @Test
+    void whenEntriesArriveInABurst_thenVersionRefreshesAreCoalesced() {
+        CountDownLatch releaseRefresh = new CountDownLatch(1);
+        given(collectionVersion.refresh()).willAnswer(invocation -> {
+            releaseRefresh.await(5, TimeUnit.SECONDS);
+            return 1L;
+        });
+
+        for (int i = 0; i < 100; i++) {
+            listener.onMessage(entry("1700000000000-" + i, "other.event", "{}"));
+        }
+        releaseRefresh.countDown();
+
+        // One refresh was running when the burst started and at most one more was queued behind it
+        verify(collectionVersion, timeout(5_000).atLeastOnce()).refresh();
+        verify(collectionVersion, after(200).atMost(2)).refresh();
+    }
+
+    private static MapRecord<String, String, String> entry(String id, String type, String payload) {
+        return StreamRecords.newRecord()
+                .in("messages:events")
+                .withId(RecordId.of(id))
+                .ofMap(Map.of(
+                        RedisStreamEventPublisher.TYPE, type,
+                        RedisStreamEventPublisher.PAYLOAD, payload));
+    }
+}
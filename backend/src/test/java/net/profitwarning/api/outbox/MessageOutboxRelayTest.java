@@ -0,0 +1,146 @@
+package net.profitwarning.api.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.service.MessageSavedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("null")
+class MessageOutboxRelayTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Stands in for the Redis stream
+    private final List<OutboxEvent> published = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean publisherDown = new AtomicBoolean();
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private MessageOutbox outbox;
+    private MessageOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:outbox-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("""
+                CREATE TABLE message_outbox (
+                    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                    message_id BIGINT NOT NULL,
+                    event_type VARCHAR(64) NOT NULL,
+                    payload VARCHAR(4096) NOT NULL,
+                    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP NOT NULL)""");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        outbox = new MessageOutbox(jdbcTemplate, new ObjectMapper().findAndRegisterModules());
+        OutboxEventPublisher publisher = events -> {
+            if (publisherDown.get()) {
+                throw new IllegalStateException("Redis is down");
+            }
+            published.addAll(events);
+        };
+        relay = new MessageOutboxRelay(jdbcTemplate, transactionTemplate, publisher, meterRegistry,
+                100, Duration.ofMillis(10), Duration.ofMillis(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        relay.stop();
+        dataSource.close();
+    }
+
+    @Test
+    void whenTransactionCommits_thenOneOutboxRowPerMessage() {
+        transactionTemplate.executeWithoutResult(status -> save(1, 2, 3));
+
+        assertThat(pendingRows()).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT payload FROM message_outbox WHERE message_id = 2", String.class))
+                .contains("\"id\":2", "\"content\":\"Message 2\"");
+    }
+
+    @Test
+    void whenTransactionRollsBack_thenNoOutboxRows() {
+        transactionTemplate.executeWithoutResult(status -> {
+            save(1, 2);
+            status.setRollbackOnly();
+        });
+
+        assertThat(pendingRows()).isZero();
+    }
+
+    @Test
+    void whenRelayed_thenPublishedInOrderAndRemoved() {
+        transactionTemplate.executeWithoutResult(status -> save(LongStream.rangeClosed(1, 250).toArray()));
+
+        assertThat(relay.relayBatch()).isEqualTo(100);
+        assertThat(relay.relayBatch()).isEqualTo(100);
+        assertThat(relay.relayBatch()).isEqualTo(50);
+        assertThat(relay.relayBatch()).isZero();
+
+        assertThat(published).extracting(OutboxEvent::messageId)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 250).boxed().toList());
+        assertThat(published).allMatch(event -> MessageOutbox.MESSAGE_CREATED.equals(event.type()));
+        assertThat(pendingRows()).isZero();
+        assertThat(meterRegistry.get("messages.outbox.published").counter().count()).isEqualTo(250.0);
+    }
+
+    @Test
+    void whenPublisherFails_thenRowsAreKeptAndRetried() {
+        transactionTemplate.executeWithoutResult(status -> save(1, 2));
+        publisherDown.set(true);
+
+        assertThatThrownBy(relay::relayBatch).isInstanceOf(IllegalStateException.class);
+        assertThat(pendingRows()).isEqualTo(2);
+
+        publisherDown.set(false);
+        assertThat(relay.relayBatch()).isEqualTo(2);
+        assertThat(published).extracting(OutboxEvent::messageId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void whenStarted_thenWorkerDrainsOutboxAndSurvivesFailures() throws InterruptedException {
+        publisherDown.set(true);
+        relay.start();
+        transactionTemplate.executeWithoutResult(status -> save(1, 2, 3));
+        TimeUnit.MILLISECONDS.sleep(50);
+        publisherDown.set(false);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (pendingRows() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+
+        assertThat(pendingRows()).isZero();
+        assertThat(published).extracting(OutboxEvent::messageId).containsExactly(1L, 2L, 3L);
+        assertThat(meterRegistry.get("messages.outbox.failures").counter().count()).isPositive();
+    }
+
+    private void save(long... ids) {
+        for (long id : ids) {
+            outbox.onMessageSaved(new MessageSavedEvent(new MessageResponse(id, "Message " + id, Instant.now())));
+        }
+    }
+
+    private int pendingRows() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM message_outbox", Integer.class);
+    }
+}
@@ -0,0 +1,53 @@
+package net.profitwarning.api.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final LocalRateLimiter limiter = new LocalRateLimiter(3, 10, 1_000, now::get);
+
+    @Test
+    void whenBurstExceedsCapacity_thenDeniedUntilNextToken() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("client").allowed()).isTrue();
+        }
+
+        RateLimiter.Decision denied = limiter.tryAcquire("client");
+
+        assertThat(denied.allowed()).isFalse();
+        assertThat(denied.retryAfter()).isCloseTo(Duration.ofMillis(100), Duration.ofMillis(1));
+    }
+
+    @Test
+    void whenTimePasses_thenTokensRefillUpToCapacity() {
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("client");
+        }
+
+        now.addAndGet(Duration.ofMillis(101).toNanos());
+        assertThat(limiter.tryAcquire("client").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("client").allowed()).isFalse();
+
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        assertThat(limiter.tryAcquire("client").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("client").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("client").allowed()).isTrue();
+        assertThat(limiter.tryAcquire("client").allowed()).isFalse();
+    }
+
+    @Test
+    void whenOneClientIsExhausted_thenOthersAreUnaffected() {
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire("noisy");
+        }
+
+        assertThat(limiter.tryAcquire("noisy").allowed()).isFalse();
+        assertThat(limiter.tryAcquire("quiet").allowed()).isTrue();
+    }
+}
@@ -0,0 +1,208 @@
+package net.profitwarning.api.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.profitwarning.api.exception.GlobalExceptionHandler;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SuppressWarnings("null")
+class RateLimitInterceptorTest {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+    private static final List<String> API_KEYS =
+            List.of("a", "b", "abuser", "client-0", "client-1", "client-2", "client-3");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void whenClientExceedsBurst_thenTooManyRequestsProblem() throws Exception {
+        MockMvc mockMvc = mockMvc(new LocalRateLimiter(2, 1, 100), unlimitedShedder(), new SlowController(0));
+
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "a")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "a")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "a"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title").value("Too Many Requests"));
+        // Another key has its own bucket
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "b")).andExpect(status().isOk());
+
+        assertThat(meterRegistry.get("http.server.requests.rejected").tag("reason", "rate_limit").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void whenConnectionWaitIsOverThreshold_thenServiceUnavailableProblem() throws Exception {
+        LoadShedder shedder = new LoadShedder(0, () -> Duration.ofSeconds(1), Duration.ofMillis(500));
+        MockMvc mockMvc = mockMvc(new LocalRateLimiter(10, 10, 100), shedder, new SlowController(0));
+
+        mockMvc.perform(get("/api/v1/slow"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.title").value("Service Overloaded"));
+
+        assertThat(meterRegistry.get("http.server.requests.rejected").tag("reason", "db_wait").counter().count())
+                .isEqualTo(1.0);
+        assertThat(shedder.getInFlight()).isZero();
+    }
+
+    @Test
+    void whenInFlightLimitIsReached_thenFurtherRequestsAreShedUntilOneExits() {
+        LoadShedder shedder = new LoadShedder(2, () -> Duration.ZERO, Duration.ZERO);
+        shedder.enter();
+        shedder.enter();
+
+        assertThatThrownBy(shedder::enter)
+                .isInstanceOfSatisfying(LoadShedder.Shed.class,
+                        ex -> assertThat(ex.getReason()).isEqualTo(LoadShedder.Reason.IN_FLIGHT));
+        assertThat(shedder.getInFlight()).isEqualTo(2);
+
+        shedder.exit();
+        shedder.enter();
+        assertThat(shedder.getInFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void whenApiKeyIsNotConfigured_thenClientIsLimitedByAddress() throws Exception {
+        MockMvc mockMvc = mockMvc(new LocalRateLimiter(2, 1, 100), unlimitedShedder(), new SlowController(0));
+
+        // Made-up keys from one address all draw from that address's bucket
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "made-up-1")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "made-up-2")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "made-up-3")).andExpect(status().isTooManyRequests());
+        mockMvc.perform(get("/api/v1/slow")).andExpect(status().isTooManyRequests());
+        // A configured key still has its own bucket
+        mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, "a")).andExpect(status().isOk());
+    }
+
+    /**
+     * The endpoint admits two requests at a time, like a small connection pool. An abusive client
+     * keeps sixteen threads busy against it while four clients send a steady, modest rate. The abuser
+     * is held to its bucket and turned away with 429; the well-behaved clients are never refused.
+     */
+    @Test
+    @Tag("load")
+    void whenAbusiveClientHammers_thenOnlyTheAbuserIsRejected() throws Exception {
+        int capacity = 10;
+        double refillPerSecond = 100;
+        MockMvc mockMvc = mockMvc(new LocalRateLimiter(capacity, refillPerSecond, 1_000), unlimitedShedder(),
+                new SlowController(10));
+
+        LoadResult result = runAgainstAbuser(mockMvc);
+
+        assertThat(result.wellBehavedFailures()).isZero();
+        assertThat(result.abusiveRejected()).isPositive();
+        // The bucket bounds what the abuser gets through, however many threads it uses
+        assertThat((double) result.abusiveAdmitted())
+                .isLessThanOrEqualTo(capacity + refillPerSecond * result.elapsed().toMillis() / 1000.0 + 1);
+    }
+
+    private LoadResult runAgainstAbuser(MockMvc mockMvc) throws Exception {
+        int abusiveThreads = 16;
+        int wellBehavedClients = 4;
+        int requestsPerClient = 40;
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger abusiveAdmitted = new AtomicInteger();
+        AtomicInteger abusiveRejected = new AtomicInteger();
+        AtomicInteger wellBehavedFailures = new AtomicInteger();
+        long start = System.nanoTime();
+        // Platform threads: the abuser spins without blocking once it is rejected, which would starve
+        // virtual threads sharing its carriers
+        try (ExecutorService executor = Executors.newFixedThreadPool(abusiveThreads + wellBehavedClients)) {
+            for (int i = 0; i < abusiveThreads; i++) {
+                executor.submit(() -> {
+                    while (!done.get()) {
+                        if (perform(mockMvc, "abuser") == 429) {
+                            abusiveRejected.incrementAndGet();
+                        } else {
+                            abusiveAdmitted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            List<Future<?>> clients = new ArrayList<>();
+            for (int c = 0; c < wellBehavedClients; c++) {
+                String key = "client-" + c;
+                clients.add(executor.submit(() -> {
+                    for (int r = 0; r < requestsPerClient; r++) {
+                        if (perform(mockMvc, key) != 200) {
+                            wellBehavedFailures.incrementAndGet();
+                        }
+                        TimeUnit.MILLISECONDS.sleep(20);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> client : clients) {
+                client.get();
+            }
+            done.set(true);
+        }
+        return new LoadResult(Duration.ofNanos(System.nanoTime() - start), wellBehavedFailures.get(),
+                abusiveAdmitted.get(), abusiveRejected.get());
+    }
+
+    private static int perform(MockMvc mockMvc, String apiKey) throws Exception {
+        return mockMvc.perform(get("/api/v1/slow").header(API_KEY_HEADER, apiKey)).andReturn().getResponse().getStatus();
+    }
+
+    private MockMvc mockMvc(RateLimiter rateLimiter, LoadShedder loadShedder, SlowController controller) {
+        return MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addMappedInterceptors(new String[] {"/api/**"},
+                        new RateLimitInterceptor(rateLimiter, loadShedder, API_KEY_HEADER, API_KEYS, meterRegistry))
+                .build();
+    }
+
+    private static LoadShedder unlimitedShedder() {
+        return new LoadShedder(0, () -> Duration.ZERO, Duration.ZERO);
+    }
+
+    private record LoadResult(Duration elapsed, int wellBehavedFailures, int abusiveAdmitted, int abusiveRejected) {}
+
+    // Two permits stand in for a saturated connection pool
+    @RestController
+    static class SlowController {
+
+        private final Semaphore connections = new Semaphore(2, true);
+        private final long holdMillis;
+
+        SlowController(long holdMillis) {
+            this.holdMillis = holdMillis;
+        }
+
+        @GetMapping("/api/v1/slow")
+        String slow() throws InterruptedException {
+            connections.acquire();
+            try {
+                TimeUnit.MILLISECONDS.sleep(holdMillis);
+                return "ok";
+            } finally {
+                connections.release();
+            }
+        }
+    }
+}
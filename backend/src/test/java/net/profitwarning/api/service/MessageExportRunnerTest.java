@@ -0,0 +1,48 @@
+package net.profitwarning.api.service;
+
+import net.profitwarning.api.exception.ExportUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MessageExportRunnerTest {
+
+    @Test
+    void whenMaxConcurrentExportsRun_thenFurtherExportsAreRefusedUntilOneFinishes() throws Exception {
+        MessageExportRunner runner = new MessageExportRunner(1, Duration.ofMinutes(1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        runner.start(MediaType.TEXT_PLAIN, out -> {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            finished.countDown();
+        });
+
+        assertThatThrownBy(() -> runner.start(MediaType.TEXT_PLAIN, out -> {}))
+                .isInstanceOf(ExportUnavailableException.class);
+
+        release.countDown();
+        assertThat(finished.await(5, TimeUnit.SECONDS)).isTrue();
+        // The permit is returned just after the body finishes
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (true) {
+            try {
+                assertThat(runner.start(MediaType.TEXT_PLAIN, out -> {})).isNotNull();
+                break;
+            } catch (ExportUnavailableException ex) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package net.profitwarning.api.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SuppressWarnings("null")
+class MessageExportServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private HikariDataSource dataSource;
+    private MessageExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:export-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE testmessages (id BIGINT PRIMARY KEY, message VARCHAR(255), created_at TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO testmessages VALUES (2, 'Second, with \"quotes\"', TIMESTAMP '2026-01-02 00:00:00')");
+        jdbcTemplate.update("INSERT INTO testmessages VALUES (1, 'First', TIMESTAMP '2026-01-01 00:00:00')");
+        jdbcTemplate.setFetchSize(1);
+        exportService = new MessageExportService(jdbcTemplate, new TransactionTemplate(
+                new DataSourceTransactionManager(dataSource)), new ObjectMapper().getFactory(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void whenExportedAsNdjson_thenOneObjectPerLineInCreationOrder() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.export(MessageExportService.Format.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(2);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("id").asLong()).isEqualTo(1L);
+        assertThat(first.get("content").asText()).isEqualTo("First");
+        // Stored timestamps are UTC wall-clock time, whatever the JVM zone
+        assertThat(first.get("createdAt").asText()).isEqualTo("2026-01-01T00:00:00Z");
+        assertThat(new ObjectMapper().readTree(lines[1]).get("content").asText()).isEqualTo("Second, with \"quotes\"");
+        assertThat(meterRegistry.get("messages.export.rows").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void whenExportedAsCsv_thenHeaderAndQuotedFields() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(MessageExportService.Format.CSV, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8).split("\r\n"))
+                .hasSize(3)
+                .startsWith("id,content,created_at")
+                .anySatisfy(line -> assertThat(line).startsWith("2,\"Second, with \"\"quotes\"\"\","));
+    }
+
+    @Test
+    void whenClientDisconnects_thenIOExceptionPropagates() {
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> exportService.export(MessageExportService.Format.CSV, broken))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Broken pipe");
+    }
+
+    @Test
+    void givenPlainValue_thenCsvFieldIsNotQuoted() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        MessageExportService.writeCsvField(writer, "plain");
+
+        assertThat(writer).hasToString("plain");
+    }
+}
@@ -0,0 +1,153 @@
+package net.profitwarning.api.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.exception.IngestUnavailableException;
+import net.profitwarning.api.exception.InvalidBatchException;
+import net.profitwarning.api.model.TestMessage;
+import net.profitwarning.api.repository.TestMessageRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings("null")
+class MessageIngestQueueTest {
+
+    private final TestMessageRepository repository = mock(TestMessageRepository.class);
+    private final MessageCollectionVersion collectionVersion = mock(MessageCollectionVersion.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong ids = new AtomicLong();
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private MessageIngestQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        given(repository.saveAll(anyList())).willAnswer(invocation -> {
+            List<TestMessage> entities = invocation.getArgument(0);
+            entities.forEach(entity -> {
+                entity.setId(ids.incrementAndGet());
+                entity.setCreatedAt(Instant.now());
+            });
+            return entities;
+        });
+        queue = new MessageIngestQueue(repository, new TransactionTemplate(transactionManager()), collectionVersion,
+                events::add, meterRegistry, 1_000, 100, Duration.ofMillis(50), Duration.ofMillis(10));
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.stop();
+    }
+
+    @Test
+    void whenBatchSubmitted_thenWrittenInBatchesAndIdsReturnedInOrder() throws Exception {
+        queue.start();
+        List<CreateMessageCommand> commands = IntStream.range(0, 250)
+                .mapToObj(i -> new CreateMessageCommand("Message " + i))
+                .toList();
+
+        List<MessageResponse> saved = queue.submitAll(commands).get(5, TimeUnit.SECONDS);
+
+        assertThat(saved).hasSize(250);
+        assertThat(saved).extracting(MessageResponse::content)
+                .containsExactlyElementsOf(commands.stream().map(CreateMessageCommand::content).toList());
+        assertThat(saved).extracting(MessageResponse::id).doesNotHaveDuplicates();
+
+        DistributionSummary batchSizes = meterRegistry.get("messages.ingest.batch.size").summary();
+        assertThat(batchSizes.totalAmount()).isEqualTo(250);
+        assertThat(batchSizes.max()).isLessThanOrEqualTo(100);
+        assertThat(batchSizes.count()).isLessThan(250);
+        verify(collectionVersion, atLeastOnce()).incrementAfterCommit();
+        assertThat(events).hasSize(250).allMatch(MessageSavedEvent.class::isInstance);
+    }
+
+    @Test
+    void whenQueueIsStopped_thenSubmitIsRejected() {
+        queue.start();
+        queue.stop();
+
+        assertThatThrownBy(() -> queue.submit(new CreateMessageCommand("late")))
+                .isInstanceOf(IngestUnavailableException.class);
+    }
+
+    @Test
+    void whenWriteFails_thenFuturesCompleteExceptionally() {
+        given(repository.saveAll(anyList())).willThrow(new IllegalStateException("database down"));
+        queue.start();
+
+        var result = queue.submit(new CreateMessageCommand("Message"));
+
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void whenBatchDoesNotFit_thenNoneOfItIsEnqueued() throws Exception {
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        given(repository.saveAll(anyList())).willAnswer(invocation -> {
+            flushStarted.countDown();
+            releaseFlush.await(5, TimeUnit.SECONDS);
+            return invocation.getArgument(0);
+        });
+        queue.stop();
+        queue = new MessageIngestQueue(repository, new TransactionTemplate(transactionManager()), collectionVersion,
+                events::add, meterRegistry, 3, 100, Duration.ofMillis(1), Duration.ofMillis(10));
+        queue.start();
+        // Park the worker inside a flush so nothing else is drained
+        queue.submit(new CreateMessageCommand("first"));
+        assertThat(flushStarted.await(5, TimeUnit.SECONDS)).isTrue();
+        queue.submitAll(List.of(new CreateMessageCommand("a"), new CreateMessageCommand("b")));
+
+        assertThatThrownBy(() -> queue.submitAll(List.of(new CreateMessageCommand("c"), new CreateMessageCommand("d"))))
+                .isInstanceOf(IngestUnavailableException.class);
+        assertThat(queue.depth()).isEqualTo(2);
+        releaseFlush.countDown();
+    }
+
+    @Test
+    void whenBatchExceedsCapacity_thenRejectedAsInvalid() {
+        queue.start();
+        List<CreateMessageCommand> commands = IntStream.range(0, 1_001)
+                .mapToObj(i -> new CreateMessageCommand("Message " + i))
+                .toList();
+
+        assertThatThrownBy(() -> queue.submitAll(commands)).isInstanceOf(InvalidBatchException.class);
+        assertThat(queue.depth()).isZero();
+    }
+
+    @Test
+    void queueDepthIsExposedAsGauge() {
+        assertThat(meterRegistry.get("messages.ingest.queue.depth").gauge().value()).isZero();
+    }
+}
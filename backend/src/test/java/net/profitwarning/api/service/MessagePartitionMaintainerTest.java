@@ -0,0 +1,142 @@
+package net.profitwarning.api.service;
+
+import net.profitwarning.api.cache.CacheNames;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Period;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@SuppressWarnings("null")
+class MessagePartitionMaintainerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-16T12:00:00Z"), ZoneOffset.UTC);
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final MessageCollectionVersion collectionVersion = mock(MessageCollectionVersion.class);
+    private final CacheManager cacheManager = mock(CacheManager.class);
+    private final Cache messagesCache = mock(Cache.class);
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        given(transactionManager.getTransaction(any())).willReturn(new SimpleTransactionStatus());
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        given(cacheManager.getCache(CacheNames.MESSAGES)).willReturn(messagesCache);
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).willReturn(true);
+    }
+
+    @Test
+    void whenMonthsAheadAreMissing_thenOnlyMissingPartitionsAreCreated() {
+        givenPartitions("testmessages_default", "testmessages_p202610", "testmessages_p202611");
+
+        maintainer(null, MessagePartitionMaintainer.ExpiredAction.DETACH).maintain();
+
+        verify(jdbcTemplate).execute("CREATE TABLE testmessages_p202612 PARTITION OF testmessages"
+                + " FOR VALUES FROM ('2026-12-01') TO ('2027-01-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE testmessages_p202701 PARTITION OF testmessages"
+                + " FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+        verify(jdbcTemplate, never()).execute(eq("CREATE TABLE testmessages_p202610 PARTITION OF testmessages"
+                + " FOR VALUES FROM ('2026-10-01') TO ('2026-11-01')"));
+        verify(collectionVersion, never()).increment();
+    }
+
+    @Test
+    void whenDefaultPartitionHoldsRowsOfAMissingMonth_thenTheyAreMovedIntoTheNewPartition() {
+        givenPartitions("testmessages_default", "testmessages_p202610", "testmessages_p202611",
+                "testmessages_p202612");
+        given(jdbcTemplate.update(startsWith("WITH moved AS (DELETE FROM testmessages_default"))).willReturn(2);
+
+        maintainer(null, MessagePartitionMaintainer.ExpiredAction.DETACH).maintain();
+
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("LOCK TABLE testmessages_default IN EXCLUSIVE MODE");
+        inOrder.verify(jdbcTemplate).update("WITH moved AS (DELETE FROM testmessages_default"
+                + " WHERE created_at >= '2027-01-01' AND created_at < '2027-02-01'"
+                + " RETURNING id, message, created_at) INSERT INTO testmessages_staging SELECT * FROM moved");
+        inOrder.verify(jdbcTemplate).execute("CREATE TABLE testmessages_p202701 PARTITION OF testmessages"
+                + " FOR VALUES FROM ('2027-01-01') TO ('2027-02-01')");
+        inOrder.verify(jdbcTemplate).update("INSERT INTO testmessages (id, message, created_at)"
+                + " SELECT id, message, created_at FROM testmessages_staging");
+        inOrder.verify(jdbcTemplate).execute("DROP TABLE testmessages_staging");
+    }
+
+    @Test
+    void whenRetentionElapsed_thenExpiredMonthsAreDroppedAndCachesRetired() {
+        givenPartitions("testmessages_default", "testmessages_p202608", "testmessages_p202609",
+                "testmessages_p202610", "testmessages_p202611", "testmessages_p202612", "testmessages_p202701");
+
+        maintainer(Period.ofMonths(1), MessagePartitionMaintainer.ExpiredAction.DROP).maintain();
+
+        // Cutoff 2026-09-16: August has ended before it, September has not
+        verify(jdbcTemplate).execute("ALTER TABLE testmessages DETACH PARTITION testmessages_p202608");
+        verify(jdbcTemplate).execute("DROP TABLE testmessages_p202608");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE testmessages DETACH PARTITION testmessages_p202609");
+        verify(collectionVersion).increment();
+        verify(messagesCache).clear();
+    }
+
+    @Test
+    void whenDetachConfigured_thenExpiredMonthsAreKept() {
+        givenPartitions("testmessages_p202608", "testmessages_p202610", "testmessages_p202611",
+                "testmessages_p202612", "testmessages_p202701");
+
+        maintainer(Period.ofMonths(1), MessagePartitionMaintainer.ExpiredAction.DETACH).maintain();
+
+        verify(jdbcTemplate).execute("ALTER TABLE testmessages DETACH PARTITION testmessages_p202608");
+        verify(jdbcTemplate, never()).execute("DROP TABLE testmessages_p202608");
+    }
+
+    @Test
+    void whenAnotherNodeHoldsTheLock_thenNothingIsChanged() {
+        given(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), any())).willReturn(false);
+
+        maintainer(Period.ofMonths(1), MessagePartitionMaintainer.ExpiredAction.DROP).maintain();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    @Test
+    void givenPartitionNames_thenOnlyMonthsEndedByCutoffAreExpired() {
+        List<String> expired = MessagePartitionMaintainer.expiredPartitions(
+                List.of("testmessages_p202609", "testmessages_default", "testmessages_p202607",
+                        "testmessages_p202608", "something_else"),
+                LocalDate.of(2026, 9, 1));
+
+        assertThat(expired).containsExactly("testmessages_p202607", "testmessages_p202608");
+    }
+
+    private void givenPartitions(String... names) {
+        given(jdbcTemplate.queryForList(anyString(), eq(String.class), eq(MessagePartitionMaintainer.TABLE)))
+                .willReturn(List.of(names));
+    }
+
+    private MessagePartitionMaintainer maintainer(Period retention, MessagePartitionMaintainer.ExpiredAction action) {
+        return new MessagePartitionMaintainer(jdbcTemplate, transactionTemplate, collectionVersion, cacheManager,
+                CLOCK, 3, retention, action);
+    }
+}
@@ -0,0 +1,177 @@
+package net.profitwarning.api.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.profitwarning.api.dto.MessageResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SuppressWarnings("null")
+class MessageStreamBroadcasterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private MessageStreamBroadcaster broadcaster = broadcaster(16, 4);
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.destroy();
+    }
+
+    @Test
+    void whenMessagePublished_thenSubscriberReceivesEvent() throws Exception {
+        MockHttpServletResponse response = subscribe(null);
+
+        broadcaster.publish("1000-0", message(7L));
+
+        String body = awaitContent(response, "id:1000-0");
+        assertThat(body).contains("event:message").contains("\"id\":7");
+        assertThat(meterRegistry.get("messages.stream.subscribers").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void whenResumingWithLastEventId_thenMissedEventsAreReplayed() throws Exception {
+        publish(1, 2, 3);
+
+        MockHttpServletResponse response = subscribe("1000-1");
+
+        String body = awaitContent(response, "id:1000-3");
+        assertThat(body).contains("id:1000-2").doesNotContain("id:1000-1\n");
+    }
+
+    @Test
+    void whenResumingAheadOfThisNode_thenAlreadySeenEventsAreSkipped() throws Exception {
+        publish(1);
+
+        // The client came from a node that had already delivered entry 2
+        MockHttpServletResponse response = subscribe("1000-2");
+        publish(2, 3);
+
+        String body = awaitContent(response, "id:1000-3");
+        assertThat(body).doesNotContain("id:1000-2").doesNotContain("event:reset");
+    }
+
+    @Test
+    void whenRedeliveredEntryPublished_thenItIsIgnored() throws Exception {
+        MockHttpServletResponse response = subscribe(null);
+
+        publish(1, 1, 2);
+
+        String body = awaitContent(response, "id:1000-2");
+        assertThat(body.split("id:1000-1\n", -1)).hasSize(2);
+    }
+
+    @Test
+    void whenLastEventIdIsMalformed_thenSubscriptionStartsFromNow() throws Exception {
+        publish(1);
+
+        MockHttpServletResponse response = subscribe("garbage");
+        publish(2);
+
+        String body = awaitContent(response, "id:1000-2");
+        assertThat(body).doesNotContain("id:1000-1\n").doesNotContain("event:reset");
+    }
+
+    @Test
+    void whenLastEventIdPredatesThisNode_thenResetIsSent() throws Exception {
+        broadcaster = broadcaster(16, 4, 5_000);
+
+        MockHttpServletResponse response = subscribe("1000-1");
+
+        assertThat(awaitContent(response, "event:reset")).doesNotContain("event:message");
+    }
+
+    @Test
+    void whenLastEventIdLeftHistory_thenResetIsSent() throws Exception {
+        publish(1, 2, 3, 4, 5, 6);
+
+        // History holds events 3..6, so a client that last saw 1 has missed event 2 for good
+        MockHttpServletResponse response = subscribe("1000-1");
+
+        String body = awaitContent(response, "event:reset");
+        assertThat(body).doesNotContain("event:message");
+    }
+
+    @Test
+    void whenReplayOverflowsSubscriberBuffer_thenResetIsSent() throws Exception {
+        broadcaster = broadcaster(2, 8);
+        publish(1, 2, 3, 4, 5);
+
+        MockHttpServletResponse response = subscribe("1000-0");
+
+        assertThat(awaitContent(response, "event:reset")).doesNotContain("event:message");
+    }
+
+    private MessageStreamBroadcaster broadcaster(int bufferSize, int historySize) {
+        return broadcaster(bufferSize, historySize, 0);
+    }
+
+    // Entries in these tests are at millisecond 1000; startedAtMillis is when the node began tailing
+    private MessageStreamBroadcaster broadcaster(int bufferSize, int historySize, long startedAtMillis) {
+        return new MessageStreamBroadcaster(meterRegistry, bufferSize, historySize,
+                Duration.ofSeconds(15), Duration.ofMinutes(1),
+                Clock.fixed(Instant.ofEpochMilli(startedAtMillis), ZoneOffset.UTC));
+    }
+
+    private void publish(long... sequences) {
+        for (long sequence : sequences) {
+            broadcaster.publish("1000-" + sequence, message(sequence));
+        }
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new StreamController(broadcaster)).build();
+        var builder = get("/stream");
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        String body = response.getContentAsString();
+        while (!body.contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            body = response.getContentAsString();
+        }
+        assertThat(body).contains(expected);
+        return body;
+    }
+
+    private static MessageResponse message(long id) {
+        return new MessageResponse(id, "Message " + id, Instant.parse("2026-01-15T10:30:00Z"));
+    }
+
+    @RestController
+    static class StreamController {
+
+        private final MessageStreamBroadcaster broadcaster;
+
+        StreamController(MessageStreamBroadcaster broadcaster) {
+            this.broadcaster = broadcaster;
+        }
+
+        @GetMapping("/stream")
+        SseEmitter stream(@RequestHeader(name = "Last-Event-ID", required = false) String lastEventId) {
+            return broadcaster.subscribe(lastEventId);
+        }
+    }
+}
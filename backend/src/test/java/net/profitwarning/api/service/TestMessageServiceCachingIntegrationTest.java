@@ -1,8 +1,17 @@
 package net.profitwarning.api.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import net.profitwarning.api.cache.CacheNames;
+import net.profitwarning.api.cache.MessageCollectionVersion;
+import net.profitwarning.api.cache.TwoTierCache;
 import net.profitwarning.api.dto.CreateMessageCommand;
+import net.profitwarning.api.dto.MessageCursor;
+import net.profitwarning.api.dto.MessagePageResponse;
 import net.profitwarning.api.dto.MessageResponse;
+import net.profitwarning.api.dto.MessageSearchCursor;
+import net.profitwarning.api.exception.InvalidQueryParameterException;
 import net.profitwarning.api.model.TestMessage;
+import net.profitwarning.api.repository.MessageSearchHit;
 import net.profitwarning.api.repository.TestMessageRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,14 +19,26 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.context.TestPropertySource;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -40,61 +61,108 @@ class TestMessageServiceCachingIntegrationTest {
     @Autowired
     private CacheManager cacheManager;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private MessageCollectionVersion collectionVersion;
+
     @BeforeEach
     void setUp() {
-        cacheManager.getCache("testMessages").clear();
+        cacheManager.getCache(CacheNames.MESSAGES).clear();
+        cacheManager.getCache(CacheNames.MESSAGE_PAGES).clear();
+        cacheManager.getCache(CacheNames.MESSAGE_SEARCH).clear();
     }
 
     @Test
     void givenRedisCaching_whenGetMessagesTwice_thenRepositoryCalledOnce() {
-        List<TestMessage> testMessages = List.of(
-                createTestMessage(1L, "Message 1"),
-                createTestMessage(2L, "Message 2")
+        List<MessageResponse> testMessages = List.of(
+                createResponse(1L, "Message 1"),
+                createResponse(2L, "Message 2")
         );
-        given(mockRepository.findAll()).willReturn(testMessages);
+        given(mockRepository.findByOrderByCreatedAtAscIdAsc(any(Limit.class))).willReturn(testMessages);
 
         // First call - cache miss, should hit repository
-        List<MessageResponse> firstCall = testMessageService.getMessages();
+        MessagePageResponse firstCall = testMessageService.getMessages(null, 20, null, null);
         // Second call - cache hit, should NOT hit repository
-        List<MessageResponse> secondCall = testMessageService.getMessages();
+        MessagePageResponse secondCall = testMessageService.getMessages(null, 20, null, null);
 
-        assertThat(firstCall).hasSize(2);
-        assertThat(secondCall).hasSize(2);
+        assertThat(firstCall.items()).hasSize(2);
+        assertThat(secondCall.items()).hasSize(2);
         assertThat(firstCall).isEqualTo(secondCall);
 
         // Repository should only be called once due to caching
-        verify(mockRepository, times(1)).findAll();
+        verify(mockRepository, times(1)).findByOrderByCreatedAtAscIdAsc(any(Limit.class));
 
         // Verify data is in cache
-        List<MessageResponse> cachedMessages = getCachedMessages();
-        assertThat(cachedMessages).isEqualTo(firstCall);
+        MessagePageResponse cachedPage = getCachedFirstPage();
+        assertThat(cachedPage).isEqualTo(firstCall);
     }
 
     @Test
-    void givenCachedMessages_whenSaveMessage_thenCacheEvicted() {
-        List<TestMessage> testMessages = List.of(createTestMessage(1L, "Message 1"));
-        given(mockRepository.findAll()).willReturn(testMessages);
+    void givenCachedPage_whenSaveMessage_thenPageVersionRetired() {
+        List<MessageResponse> testMessages = List.of(createResponse(1L, "Message 1"));
+        given(mockRepository.findByOrderByCreatedAtAscIdAsc(any(Limit.class))).willReturn(testMessages);
 
         TestMessage savedMessage = createTestMessage(2L, "New Message");
         given(mockRepository.save(any(TestMessage.class))).willReturn(savedMessage);
 
         // First call - populates cache
-        testMessageService.getMessages();
-        verify(mockRepository, times(1)).findAll();
+        testMessageService.getMessages(null, 20, null, null);
+        verify(mockRepository, times(1)).findByOrderByCreatedAtAscIdAsc(any(Limit.class));
 
-        // Save a new message - should evict cache
+        // Save a new message - bumps the collection version
         testMessageService.saveMessage(new CreateMessageCommand("New Message"));
 
-        // Get messages again - cache was evicted, should hit repository again
-        testMessageService.getMessages();
-        verify(mockRepository, times(2)).findAll();
+        // Get messages again - the page is looked up under the new version, should hit repository again
+        testMessageService.getMessages(null, 20, null, null);
+        verify(mockRepository, times(2)).findByOrderByCreatedAtAscIdAsc(any(Limit.class));
+    }
+
+    @Test
+    void givenTimeRange_whenGetMessages_thenRangeQueryUsedAndCachedSeparately() {
+        Instant from = Instant.parse("2026-09-01T00:00:00Z");
+        Instant to = Instant.parse("2026-10-01T00:00:00Z");
+        given(mockRepository.findByOrderByCreatedAtAscIdAsc(any(Limit.class))).willReturn(List.of());
+        given(mockRepository.findPageInRange(eq(from), eq(to), any(Limit.class)))
+                .willReturn(List.of(createResponse(1L, "September")));
+
+        testMessageService.getMessages(null, 20, null, null);
+        MessagePageResponse september = testMessageService.getMessages(null, 20, from, to);
+        testMessageService.getMessages(null, 20, from, to);
+
+        assertThat(september.items()).extracting(MessageResponse::content).containsExactly("September");
+        verify(mockRepository, times(1)).findPageInRange(eq(from), eq(to), any(Limit.class));
+    }
+
+    @Test
+    void givenEquivalentPageRequests_whenGetMessages_thenCachedOnce() {
+        MessageCursor after = new MessageCursor(Instant.parse("2026-09-01T00:00:00Z"), 7L);
+        given(mockRepository.findByOrderByCreatedAtAscIdAsc(any(Limit.class))).willReturn(List.of());
+        given(mockRepository.findPageAfter(eq(after.createdAt()), eq(7L), any(Limit.class))).willReturn(List.of());
+
+        // Sizes above the maximum are clamped, so they load the same page
+        testMessageService.getMessages(null, TestMessageService.MAX_PAGE_SIZE, null, null);
+        testMessageService.getMessages(null, 10_000, null, null);
+        // The decoder also accepts the padded form of a cursor
+        testMessageService.getMessages(after.encode(), 20, null, null);
+        testMessageService.getMessages(after.encode() + "=", 20, null, null);
+
+        verify(mockRepository, times(1)).findByOrderByCreatedAtAscIdAsc(any(Limit.class));
+        verify(mockRepository, times(1)).findPageAfter(eq(after.createdAt()), eq(7L), any(Limit.class));
+    }
+
+    @Test
+    void givenMalformedCursor_whenGetMessages_thenRejectedBeforeCacheLookup() {
+        assertThatThrownBy(() -> testMessageService.getMessages("not-a-cursor", 20, null, null))
+                .isInstanceOf(InvalidQueryParameterException.class);
     }
 
     @Test
     void givenRedisCaching_whenGetMessageByIdTwice_thenRepositoryCalledOnce() {
         Long messageId = 1L;
-        TestMessage testMessage = createTestMessage(messageId, "Test Message");
-        given(mockRepository.findById(messageId)).willReturn(Optional.of(testMessage));
+        MessageResponse testMessage = createResponse(messageId, "Test Message");
+        given(mockRepository.findResponseById(messageId)).willReturn(Optional.of(testMessage));
 
         // First call - cache miss, should hit repository
         Optional<MessageResponse> firstCall = testMessageService.getMessageById(messageId);
@@ -106,15 +174,15 @@ class TestMessageServiceCachingIntegrationTest {
         assertThat(firstCall.get()).isEqualTo(secondCall.get());
 
         // Repository should only be called once due to caching
-        verify(mockRepository, times(1)).findById(messageId);
+        verify(mockRepository, times(1)).findResponseById(messageId);
     }
 
     @Test
     void givenMultipleMessages_whenGetByDifferentIds_thenEachCachedSeparately() {
-        TestMessage message1 = createTestMessage(1L, "Message 1");
-        TestMessage message2 = createTestMessage(2L, "Message 2");
-        given(mockRepository.findById(1L)).willReturn(Optional.of(message1));
-        given(mockRepository.findById(2L)).willReturn(Optional.of(message2));
+        MessageResponse message1 = createResponse(1L, "Message 1");
+        MessageResponse message2 = createResponse(2L, "Message 2");
+        given(mockRepository.findResponseById(1L)).willReturn(Optional.of(message1));
+        given(mockRepository.findResponseById(2L)).willReturn(Optional.of(message2));
 
         // Get message 1 twice
         testMessageService.getMessageById(1L);
@@ -125,8 +193,239 @@ class TestMessageServiceCachingIntegrationTest {
         testMessageService.getMessageById(2L);
 
         // Each ID should only hit the repository once
-        verify(mockRepository, times(1)).findById(1L);
-        verify(mockRepository, times(1)).findById(2L);
+        verify(mockRepository, times(1)).findResponseById(1L);
+        verify(mockRepository, times(1)).findResponseById(2L);
+    }
+
+    @Test
+    void givenCachedMessagesById_whenSaveMessage_thenPerIdHitsSurvive() {
+        given(mockRepository.findResponseById(1L)).willReturn(Optional.of(createResponse(1L, "Message 1")));
+        given(mockRepository.save(any(TestMessage.class))).willReturn(createTestMessage(2L, "New Message"));
+
+        testMessageService.getMessageById(1L);
+        testMessageService.saveMessage(new CreateMessageCommand("New Message"));
+        testMessageService.saveMessage(new CreateMessageCommand("New Message"));
+        Optional<MessageResponse> afterInserts = testMessageService.getMessageById(1L);
+
+        // Inserts must not flush unrelated per-id entries
+        assertThat(afterInserts).map(MessageResponse::content).contains("Message 1");
+        verify(mockRepository, times(1)).findResponseById(1L);
+    }
+
+    @Test
+    void givenSavedMessage_whenGetById_thenServedFromWriteThroughEntry() {
+        given(mockRepository.save(any(TestMessage.class))).willReturn(createTestMessage(2L, "New Message"));
+
+        MessageResponse saved = testMessageService.saveMessage(new CreateMessageCommand("New Message"));
+        Optional<MessageResponse> loaded = testMessageService.getMessageById(2L);
+
+        assertThat(loaded).contains(saved);
+        verify(mockRepository, times(0)).findResponseById(2L);
+    }
+
+    @Test
+    void givenUnknownId_whenLookedUp_thenAbsenceIsNotCached() {
+        given(mockRepository.findResponseById(3L)).willReturn(Optional.empty());
+
+        testMessageService.getMessageById(3L);
+        testMessageService.getMessageById(3L);
+
+        verify(mockRepository, times(2)).findResponseById(3L);
+    }
+
+    @Test
+    void givenHotEntry_whenReadRepeatedly_thenRedisTierNotConsulted() {
+        Long messageId = 1L;
+        given(mockRepository.findResponseById(messageId)).willReturn(Optional.of(createResponse(messageId, "Hot Message")));
+
+        // First call - misses both tiers and populates them
+        testMessageService.getMessageById(messageId);
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache(CacheNames.MESSAGES);
+        long remoteRetrievals = remoteRetrievals(cache);
+        long localHits = cache.getLocalCache().stats().hitCount();
+
+        for (int i = 0; i < 100; i++) {
+            testMessageService.getMessageById(messageId);
+        }
+
+        // Hot reads are answered by the in-process tier without a Redis round-trip
+        assertThat(remoteRetrievals(cache)).isEqualTo(remoteRetrievals);
+        assertThat(cache.getLocalCache().stats().hitCount() - localHits).isEqualTo(100);
+        verify(mockRepository, times(1)).findResponseById(messageId);
+    }
+
+    @Test
+    void givenPartlyCachedIds_whenGetMessagesByIds_thenOnlyMissesAreQueriedAndOrderIsKept() {
+        given(mockRepository.findResponseById(1L)).willReturn(Optional.of(createResponse(1L, "Message 1")));
+        given(mockRepository.findResponsesByIdIn(List.of(3L, 2L, 4L)))
+                .willReturn(List.of(createResponse(2L, "Message 2"), createResponse(3L, "Message 3")));
+        testMessageService.getMessageById(1L);
+
+        List<MessageResponse> first = testMessageService.getMessagesByIds(List.of(3L, 1L, 2L, 3L, 4L));
+        List<MessageResponse> second = testMessageService.getMessagesByIds(List.of(2L, 3L, 1L));
+
+        // Repeated ids come back once, the unknown id 4 is left out
+        assertThat(first).extracting(MessageResponse::id).containsExactly(3L, 1L, 2L);
+        assertThat(second).extracting(MessageResponse::id).containsExactly(2L, 3L, 1L);
+        verify(mockRepository, times(1)).findResponsesByIdIn(any());
+        // Back-filled entries are visible to single-id reads too
+        assertThat(testMessageService.getMessageById(2L)).map(MessageResponse::content).contains("Message 2");
+        verify(mockRepository, times(0)).findResponseById(2L);
+    }
+
+    @Test
+    void givenBulkBackFill_thenEntriesLandInRedisWithTheCacheKeyLayout() {
+        given(mockRepository.findResponsesByIdIn(List.of(5L))).willReturn(List.of(createResponse(5L, "Message 5")));
+
+        testMessageService.getMessagesByIds(List.of(5L));
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache(CacheNames.MESSAGES);
+
+        // Read back through RedisCache itself, bypassing the local tier
+        assertThat(cache.getRemoteCache().get(5L, MessageResponse.class)).isEqualTo(createResponse(5L, "Message 5"));
+    }
+
+    @Test
+    void givenTooManyIds_whenGetMessagesByIds_thenRejected() {
+        List<Long> ids = LongStream.rangeClosed(1, TestMessageService.MAX_BULK_IDS + 1).boxed().toList();
+
+        assertThatThrownBy(() -> testMessageService.getMessagesByIds(ids))
+                .isInstanceOf(InvalidQueryParameterException.class);
+    }
+
+    @Test
+    void givenLocalEntry_whenEvicted_thenBothTiersAreCleared() {
+        Long messageId = 1L;
+        given(mockRepository.findResponseById(messageId)).willReturn(Optional.of(createResponse(messageId, "Message")));
+        testMessageService.getMessageById(messageId);
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache(CacheNames.MESSAGES);
+
+        cache.evict(messageId);
+
+        assertThat(cache.getLocalCache().getIfPresent("1")).isNull();
+        assertThat(cache.getRemoteCache().get(messageId)).isNull();
+    }
+
+    @Test
+    void givenParallelMisses_whenGetMessages_thenRepositoryCalledOnce() throws Exception {
+        int callers = 32;
+        given(mockRepository.findByOrderByCreatedAtAscIdAsc(any(Limit.class))).willAnswer(invocation -> {
+            // Slow query keeps the load in flight while the other callers arrive
+            Thread.sleep(200);
+            return List.of(createResponse(1L, "Message 1"));
+        });
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache(CacheNames.MESSAGE_PAGES);
+        long coalescedBefore = cache.getCoalescedLoadCount();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MessagePageResponse>> results;
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            results = IntStream.range(0, callers)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return testMessageService.getMessages(null, 20, null, null);
+                    }))
+                    .toList();
+            start.countDown();
+            for (Future<MessagePageResponse> result : results) {
+                assertThat(result.get().items()).hasSize(1);
+            }
+        }
+
+        verify(mockRepository, times(1)).findByOrderByCreatedAtAscIdAsc(any(Limit.class));
+        assertThat(cache.getCoalescedLoadCount() - coalescedBefore).isPositive();
+    }
+
+    @Test
+    void givenSearchQueriesDifferingInCaseAndSpacing_thenSearchedOnce() {
+        given(mockRepository.search("hello world", 21)).willReturn(List.of(new Hit(1L, "Hello, world", 0.1f)));
+
+        MessagePageResponse first = testMessageService.searchMessages("Hello  World", null, 20);
+        MessagePageResponse second = testMessageService.searchMessages("  hello world ", null, 20);
+
+        assertThat(second).isEqualTo(first);
+        verify(mockRepository, times(1)).search("hello world", 21);
+    }
+
+    @Test
+    void givenSearchSizesAboveMaximum_thenSearchedOnce() {
+        given(mockRepository.search("hello", TestMessageService.MAX_PAGE_SIZE + 1)).willReturn(List.of());
+
+        testMessageService.searchMessages("hello", null, TestMessageService.MAX_PAGE_SIZE);
+        testMessageService.searchMessages("hello", null, 10_000);
+
+        verify(mockRepository, times(1)).search("hello", TestMessageService.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void givenMalformedSearchCursor_thenRejectedBeforeCacheLookup() {
+        assertThatThrownBy(() -> testMessageService.searchMessages("hello", "not-a-cursor", 20))
+                .isInstanceOf(InvalidQueryParameterException.class);
+    }
+
+    @Test
+    void givenMoreHitsThanPageSize_thenCursorResumesAfterLastRankAndId() {
+        given(mockRepository.search("hello", 3)).willReturn(List.of(
+                new Hit(7L, "hello", 0.5f), new Hit(3L, "hello hello", 0.25f), new Hit(2L, "hello", 0.25f)));
+
+        MessagePageResponse page = testMessageService.searchMessages("hello", null, 2);
+
+        assertThat(page.items()).extracting(MessageResponse::id).containsExactly(7L, 3L);
+        assertThat(MessageSearchCursor.decode(page.nextCursor())).isEqualTo(new MessageSearchCursor(0.25f, 3L));
+    }
+
+    @Test
+    void givenSearchCacheTimeToLive_thenLocalTierExpiresSooner() {
+        TwoTierCache search = (TwoTierCache) cacheManager.getCache(CacheNames.MESSAGE_SEARCH);
+        TwoTierCache pages = (TwoTierCache) cacheManager.getCache(CacheNames.MESSAGE_PAGES);
+
+        assertThat(search.getLocalCache().policy().expireAfterWrite().orElseThrow().getExpiresAfter())
+                .isEqualTo(Duration.ofSeconds(30));
+        assertThat(pages.getLocalCache().policy().expireAfterWrite().orElseThrow().getExpiresAfter())
+                .isEqualTo(Duration.ofSeconds(60));
+    }
+
+    @Test
+    void givenTwoTierCache_thenLoadMetricsArePublished() {
+        assertThat(meterRegistry.find("cache.loads").tags("cache", "testMessagePages").functionCounter()).isNotNull();
+        assertThat(meterRegistry.find("cache.loads.coalesced").tags("cache", "testMessagePages").functionCounter())
+                .isNotNull();
+    }
+
+    @Test
+    void givenHotPathCalls_thenInstrumentationMetersExist() {
+        given(mockRepository.findByOrderByCreatedAtAscIdAsc(any(Limit.class)))
+                .willReturn(List.of(createResponse(1L, "Message 1")));
+        given(mockRepository.findResponseById(1L)).willReturn(Optional.of(createResponse(1L, "Message 1")));
+
+        testMessageService.getMessages(null, 20, null, null);
+        testMessageService.getMessageById(1L);
+
+        assertThat(meterRegistry.find(TestMessageService.SERVICE_TIMER).tag("method", "getMessages").timer()).isNotNull();
+        assertThat(meterRegistry.find(TestMessageService.SERVICE_TIMER).tag("method", "getMessageById").timer()).isNotNull();
+        assertThat(meterRegistry.find("messages.page.read").tag("phase", "query").timer().count()).isPositive();
+        assertThat(meterRegistry.find("cache.loads.duration").tag("cache", CacheNames.MESSAGES).functionTimer())
+                .isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.pending").gauge()).isNotNull();
+        assertThat(meterRegistry.find("db.bulkhead.wait").timer()).isNotNull();
+    }
+
+    @Test
+    void givenTwoTierCache_thenMetricsArePublishedPerTier() {
+        assertThat(meterRegistry.find("cache.gets").tags("cache", "testMessages", "tier", "l1").meters()).isNotEmpty();
+        assertThat(meterRegistry.find("cache.gets").tags("cache", "testMessages", "tier", "l2").meters()).isNotEmpty();
+        assertThat(meterRegistry.find("cache.evictions").tags("cache", "testMessages", "tier", "l1").meters()).isNotEmpty();
+    }
+
+    private record Hit(Long getId, String getContent, float getRank) implements MessageSearchHit {
+
+        @Override
+        public Instant getCreatedAt() {
+            return Instant.EPOCH;
+        }
+    }
+
+    private long remoteRetrievals(TwoTierCache cache) {
+        return ((RedisCache) cache.getRemoteCache()).getStatistics().getRetrievals();
     }
 
     private TestMessage createTestMessage(Long id, String message) {
@@ -136,8 +435,12 @@ class TestMessageServiceCachingIntegrationTest {
         return testMessage;
     }
 
-    @SuppressWarnings("unchecked")
-    private List<MessageResponse> getCachedMessages() {
-        return cacheManager.getCache("testMessages").get("SimpleKey []", List.class);
+    private MessageResponse createResponse(Long id, String message) {
+        return new MessageResponse(id, message, null);
+    }
+
+    private MessagePageResponse getCachedFirstPage() {
+        String key = "v" + collectionVersion.current() + ":null:20:null:null";
+        return cacheManager.getCache(CacheNames.MESSAGE_PAGES).get(key, MessagePageResponse.class);
     }
 }
@@ -0,0 +1,85 @@
+package net.profitwarning.api.support;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-model HTTP load: {@code clients} concurrent users, each sending {@code requestsPerClient}
+ * requests back to back. Every client runs on its own virtual thread so the driver itself is never
+ * the bottleneck. All clients start together to produce a burst.
+ */
+public final class LoadDriver {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    public Result run(int clients, int requestsPerClient, IntFunction<HttpRequest> requests) throws InterruptedException {
+        int total = clients * requestsPerClient;
+        AtomicLongArray latencies = new AtomicLongArray(total);
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        long began;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int client = 0; client < clients; client++) {
+                int first = client * requestsPerClient;
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = first; i < first + requestsPerClient; i++) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(requests.apply(i),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.set(i, System.nanoTime() - sent);
+                    }
+                    return null;
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        long elapsed = System.nanoTime() - began;
+        long[] sorted = new long[total];
+        for (int i = 0; i < total; i++) {
+            sorted[i] = latencies.get(i);
+        }
+        Arrays.sort(sorted);
+        return new Result(sorted, errors.get(), Duration.ofNanos(elapsed));
+    }
+
+    public record Result(long[] sortedLatenciesNanos, int errors, Duration elapsed) {
+
+        public Duration percentile(double percentile) {
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatenciesNanos.length) - 1;
+            return Duration.ofNanos(sortedLatenciesNanos[Math.clamp(index, 0, sortedLatenciesNanos.length - 1)]);
+        }
+
+        public double throughput() {
+            return sortedLatenciesNanos.length / (elapsed.toNanos() / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d p50=%dms p99=%dms max=%dms throughput=%.0f/s",
+                    sortedLatenciesNanos.length, errors, percentile(50).toMillis(), percentile(99).toMillis(),
+                    percentile(100).toMillis(), throughput());
+        }
+    }
+}
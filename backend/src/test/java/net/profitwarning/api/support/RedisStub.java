@@ -0,0 +1,319 @@
+package net.profitwarning.api.support;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough of a RESP2 server for the application to run without a real Redis: strings
+ * ({@code GET}, {@code MGET}, {@code SET} with expiry and {@code NX}/{@code XX}, {@code DEL},
+ * {@code INCR}, {@code KEYS}), pub/sub between its own connections and connection handshakes.
+ * Expired keys are dropped when next read. Anything else (scripts, streams) is answered with an
+ * error, which Lettuce handles like a real server's (e.g. falling back from {@code HELLO 3} to RESP2),
+ * so features that need them must be switched off.
+ */
+public final class RedisStub implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final Map<String, Entry> values = new ConcurrentHashMap<>();
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    public RedisStub() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("redis-stub-accept").start(this::accept);
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread.ofVirtual().name("redis-stub-connection").start(() -> serve(socket));
+            } catch (IOException ex) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        Connection connection = null;
+        try (socket; InputStream in = new BufferedInputStream(socket.getInputStream());
+             OutputStream out = new BufferedOutputStream(socket.getOutputStream())) {
+            connection = new Connection(out);
+            List<byte[]> command;
+            while ((command = readCommand(in)) != null) {
+                // Pipelined commands are answered together, once the client has nothing more queued
+                connection.write(execute(command, connection), in.available() == 0);
+            }
+        } catch (IOException ex) {
+            // Client went away
+        } finally {
+            if (connection != null) {
+                Connection closed = connection;
+                subscribers.values().forEach(channel -> channel.remove(closed));
+            }
+        }
+    }
+
+    private byte[] execute(List<byte[]> command, Connection connection) {
+        String name = string(command.get(0)).toUpperCase(Locale.ROOT);
+        return switch (name) {
+            case "PING" -> connection.subscribed ? array(bulk("pong"), bulk("")) : simple("PONG");
+            case "CLIENT", "SELECT", "AUTH" -> simple("OK");
+            case "GET" -> bulk(get(string(command.get(1))));
+            case "MGET" -> {
+                ByteArrayOutputStream reply = new ByteArrayOutputStream();
+                reply.writeBytes(("*" + (command.size() - 1) + "\r\n").getBytes(StandardCharsets.UTF_8));
+                for (int i = 1; i < command.size(); i++) {
+                    reply.writeBytes(bulk(get(string(command.get(i)))));
+                }
+                yield reply.toByteArray();
+            }
+            case "SET" -> set(command);
+            case "SETEX", "PSETEX" -> {
+                // SETEX key seconds value; PSETEX key milliseconds value
+                long ttl = Long.parseLong(string(command.get(2)));
+                long millis = name.equals("SETEX") ? TimeUnit.SECONDS.toMillis(ttl) : ttl;
+                values.put(string(command.get(1)), new Entry(command.get(3), expiresAt(millis)));
+                yield simple("OK");
+            }
+            case "DEL", "UNLINK" -> {
+                long removed = command.subList(1, command.size()).stream()
+                        .filter(key -> values.remove(string(key)) != null)
+                        .count();
+                yield integer(removed);
+            }
+            case "INCR" -> {
+                Entry next = values.merge(string(command.get(1)), new Entry("1".getBytes(StandardCharsets.UTF_8), 0),
+                        (current, one) -> current.isExpired()
+                                ? one
+                                : new Entry(Long.toString(Long.parseLong(string(current.value())) + 1)
+                                        .getBytes(StandardCharsets.UTF_8), current.expiresAtNanos()));
+                yield integer(Long.parseLong(string(next.value())));
+            }
+            case "KEYS" -> {
+                Pattern pattern = glob(string(command.get(1)));
+                List<byte[]> keys = values.entrySet().stream()
+                        .filter(entry -> !entry.getValue().isExpired() && pattern.matcher(entry.getKey()).matches())
+                        .map(entry -> bulk(entry.getKey()))
+                        .toList();
+                yield array(keys.toArray(byte[][]::new));
+            }
+            case "PUBLISH" -> {
+                byte[] message = array(bulk("message"), bulk(command.get(1)), bulk(command.get(2)));
+                Set<Connection> receivers = subscribers.getOrDefault(string(command.get(1)), Set.of());
+                for (Connection receiver : receivers) {
+                    try {
+                        receiver.write(message, true);
+                    } catch (IOException ex) {
+                        // Subscriber went away; its own connection thread unregisters it
+                    }
+                }
+                yield integer(receivers.size());
+            }
+            case "SUBSCRIBE", "UNSUBSCRIBE" -> {
+                boolean subscribe = name.equals("SUBSCRIBE");
+                ByteArrayOutputStream reply = new ByteArrayOutputStream();
+                for (int i = 1; i < command.size(); i++) {
+                    Set<Connection> channel = subscribers.computeIfAbsent(string(command.get(i)),
+                            key -> ConcurrentHashMap.newKeySet());
+                    if (subscribe) {
+                        if (channel.add(connection)) {
+                            connection.channels++;
+                        }
+                    } else if (channel.remove(connection)) {
+                        connection.channels--;
+                    }
+                    reply.writeBytes(array(bulk(name.toLowerCase(Locale.ROOT)), bulk(command.get(i)),
+                            integer(connection.channels)));
+                }
+                connection.subscribed = connection.channels > 0;
+                yield reply.toByteArray();
+            }
+            default -> ("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    // SET key value [EX seconds | PX milliseconds] [NX | XX]
+    private byte[] set(List<byte[]> command) {
+        String key = string(command.get(1));
+        long expiresAt = 0;
+        boolean ifAbsent = false;
+        boolean ifPresent = false;
+        for (int i = 3; i < command.size(); i++) {
+            switch (string(command.get(i)).toUpperCase(Locale.ROOT)) {
+                case "EX" -> expiresAt = expiresAt(TimeUnit.SECONDS.toMillis(Long.parseLong(string(command.get(++i)))));
+                case "PX" -> expiresAt = expiresAt(Long.parseLong(string(command.get(++i))));
+                case "NX" -> ifAbsent = true;
+                case "XX" -> ifPresent = true;
+                default -> {
+                    // KEEPTTL, GET: not used by the application
+                }
+            }
+        }
+        Entry entry = new Entry(command.get(2), expiresAt);
+        boolean written;
+        if (ifAbsent) {
+            Entry stored = values.compute(key, (k, current) -> current == null || current.isExpired() ? entry : current);
+            written = stored == entry;
+        } else if (ifPresent) {
+            Entry stored = values.computeIfPresent(key, (k, current) -> current.isExpired() ? null : entry);
+            written = stored == entry;
+        } else {
+            values.put(key, entry);
+            written = true;
+        }
+        return written ? simple("OK") : bulk((byte[]) null);
+    }
+
+    private byte[] get(String key) {
+        Entry entry = values.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            values.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    // Commands arrive as RESP arrays of bulk strings
+    private static List<byte[]> readCommand(InputStream in) throws IOException {
+        String header = readLine(in);
+        if (header == null) {
+            return null;
+        }
+        if (header.charAt(0) != '*') {
+            throw new IOException("Unexpected RESP header " + header);
+        }
+        int count = Integer.parseInt(header.substring(1));
+        List<byte[]> parts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String length = readLine(in);
+            if (length == null) {
+                return null;
+            }
+            byte[] part = in.readNBytes(Integer.parseInt(length.substring(1)));
+            in.readNBytes(2);
+            parts.add(part);
+        }
+        return parts;
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\r') {
+                in.read();
+                return line.toString();
+            }
+            line.append((char) c);
+        }
+        return null;
+    }
+
+    // Redis glob: * and ? wildcards, everything else literal
+    private static Pattern glob(String pattern) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : pattern.toCharArray()) {
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static long expiresAt(long millis) {
+        return System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    private static byte[] simple(String value) {
+        return ("+" + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] integer(long value) {
+        return (":" + value + "\r\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] bulk(String value) {
+        return bulk(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bulk(byte[] value) {
+        if (value == null) {
+            return "$-1\r\n".getBytes(StandardCharsets.UTF_8);
+        }
+        ByteArrayOutputStream reply = new ByteArrayOutputStream(value.length + 16);
+        reply.writeBytes(("$" + value.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+        reply.writeBytes(value);
+        reply.writeBytes("\r\n".getBytes(StandardCharsets.UTF_8));
+        return reply.toByteArray();
+    }
+
+    private static byte[] array(byte[]... elements) {
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        reply.writeBytes(("*" + elements.length + "\r\n").getBytes(StandardCharsets.UTF_8));
+        for (byte[] element : elements) {
+            reply.writeBytes(element);
+        }
+        return reply.toByteArray();
+    }
+
+    private static String string(byte[] value) {
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    // expiresAtNanos is a System.nanoTime() deadline, 0 for none
+    private record Entry(byte[] value, long expiresAtNanos) {
+
+        boolean isExpired() {
+            return expiresAtNanos != 0 && System.nanoTime() - expiresAtNanos >= 0;
+        }
+    }
+
+    // Replies and published messages can be written to a connection by different threads
+    private static final class Connection {
+
+        private final OutputStream out;
+        private int channels;
+        private boolean subscribed;
+
+        Connection(OutputStream out) {
+            this.out = out;
+        }
+
+        synchronized void write(byte[] reply, boolean flush) throws IOException {
+            out.write(reply);
+            if (flush) {
+                out.flush();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+import { Component, provideZonelessChangeDetection } from '@angular/core';
+import { ComponentFixture, TestBed } from '@angular/core/testing';
+import { provideHttpClient } from '@angular/common/http';
+import { HttpTestingController, provideHttpClientTesting } from '@angular/common/http/testing';
+import { MessageListComponent } from './message-list.component';
+import { MessageSignals } from '../../signals/message.signals';
+import { Message } from '../../models/message.model';
+
+/**
+ * Render-time benchmark for the message list with 100k messages loaded. Run with `npm run bench`;
+ * it is not part of `npm test`. jsdom does no layout, so the times are relative: compare the
+ * virtualized list against the eager baseline, which renders one row per message the way the list
+ * used to.
+ */
+const MESSAGE_COUNT = 100_000;
+
+@Component({
+  selector: 'app-eager-message-list',
+  template: `
+    @for (message of messageSignals.messages(); track message.id) {
+      <div class="message-row">{{ message.content }}</div>
+    }
+  `
+})
+class EagerMessageListComponent {
+  constructor(public messageSignals: MessageSignals) {}
+}
+
+function messages(count: number, firstId = 1): Message[] {
+  const createdAt = new Date('2026-01-01T00:00:00Z');
+  return Array.from({ length: count }, (_, i) => ({
+    id: firstId + i,
+    content: `Message ${firstId + i}`,
+    createdAt
+  }));
+}
+
+async function render<T>(fixture: ComponentFixture<T>): Promise<void> {
+  fixture.detectChanges();
+  await fixture.whenStable();
+  fixture.detectChanges();
+}
+
+function rows(fixture: ComponentFixture<unknown>): number {
+  return (fixture.nativeElement as HTMLElement).querySelectorAll('.message-row').length;
+}
+
+function report(label: string, millis: number): void {
+  console.info(`[bench] ${label}: ${millis.toFixed(1)} ms`);
+}
+
+describe('MessageListComponent render benchmark', () => {
+  let signals: MessageSignals;
+
+  beforeEach(async () => {
+    await TestBed.configureTestingModule({
+      imports: [MessageListComponent, EagerMessageListComponent],
+      providers: [
+        provideZonelessChangeDetection(),
+        provideHttpClient(),
+        provideHttpClientTesting()
+      ]
+    }).compileComponents();
+    signals = TestBed.inject(MessageSignals);
+  });
+
+  it(`renders ${MESSAGE_COUNT} messages virtualized`, async () => {
+    const fixture = TestBed.createComponent(MessageListComponent);
+    fixture.detectChanges();
+    TestBed.inject(HttpTestingController)
+      .expectOne(request => request.url === '/api/v1/messages')
+      .flush({ items: [], nextCursor: null });
+    const data = messages(MESSAGE_COUNT);
+
+    const start = performance.now();
+    signals.setMessages(data);
+    await render(fixture);
+    report(`virtualized initial render of ${MESSAGE_COUNT}`, performance.now() - start);
+
+    expect(signals.messageCount()).toBe(MESSAGE_COUNT);
+    expect(rows(fixture)).toBeGreaterThan(0);
+    expect(rows(fixture)).toBeLessThan(100);
+
+    const appends = 1_000;
+    const appendStart = performance.now();
+    for (const message of messages(appends, MESSAGE_COUNT + 1)) {
+      signals.addMessage(message);
+    }
+    report(`${appends} single appends to ${MESSAGE_COUNT}`, performance.now() - appendStart);
+
+    const rerenderStart = performance.now();
+    await render(fixture);
+    report(`virtualized re-render after appends`, performance.now() - rerenderStart);
+
+    expect(signals.messageCount()).toBe(MESSAGE_COUNT + appends);
+    expect(signals.getMessage(MESSAGE_COUNT + appends)?.content).toBe(`Message ${MESSAGE_COUNT + appends}`);
+    expect(rows(fixture)).toBeLessThan(100);
+  }, 60_000);
+
+  it(`renders ${MESSAGE_COUNT} messages eagerly (baseline)`, async () => {
+    const fixture = TestBed.createComponent(EagerMessageListComponent);
+
+    const start = performance.now();
+    signals.setMessages(messages(MESSAGE_COUNT));
+    await render(fixture);
+    report(`eager initial render of ${MESSAGE_COUNT}`, performance.now() - start);
+
+    expect(rows(fixture)).toBe(MESSAGE_COUNT);
+  }, 300_000);
+});
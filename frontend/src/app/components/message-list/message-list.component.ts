@@ -1,5 +1,8 @@
-import { Component, OnInit } from '@angular/core';
+import { ChangeDetectionStrategy, Component, DestroyRef, OnInit } from '@angular/core';
+import { takeUntilDestroyed, toObservable } from '@angular/core/rxjs-interop';
 import { CommonModule } from '@angular/common';
+import { CdkVirtualScrollViewport, ScrollingModule } from '@angular/cdk/scrolling';
+import { Observable } from 'rxjs';
 import { MessageService } from '../../services/message.service';
 import { MessageSignals } from '../../signals/message.signals';
 import { Message } from '../../models/message.model';
@@ -7,27 +10,57 @@ import { Message } from '../../models/message.model';
 @Component({
   selector: 'app-message-list',
   standalone: true,
-  imports: [CommonModule],
+  imports: [CommonModule, ScrollingModule],
   templateUrl: './message-list.component.html',
-  styleUrl: './message-list.component.css'
+  styleUrl: './message-list.component.css',
+  changeDetection: ChangeDetectionStrategy.OnPush
 })
 export class MessageListComponent implements OnInit {
+  // Fixed row height lets the viewport place any row without measuring the ones before it
+  readonly itemSize = 72;
+  static readonly PAGE_SIZE = 50;
+  // Fetch the next page once the last rendered row is this close to the end of what is loaded
+  static readonly PREFETCH_ROWS = 20;
+
+  // The store keeps one array and mutates it in place; every emission tells the viewport to re-read it
+  readonly messages$: Observable<Message[]>;
+
+  private viewport: CdkVirtualScrollViewport | null = null;
+
   constructor(
     private messageService: MessageService,
-    public messageSignals: MessageSignals
-  ) {}
+    public messageSignals: MessageSignals,
+    private destroyRef: DestroyRef
+  ) {
+    this.messages$ = toObservable(messageSignals.messages);
+  }
 
   ngOnInit(): void {
     this.loadMessages();
+    this.subscribeToStream();
+  }
+
+  private subscribeToStream(): void {
+    this.messageService.streamMessages()
+      .pipe(takeUntilDestroyed(this.destroyRef))
+      .subscribe(event => {
+        if (event.type === 'reset') {
+          this.loadMessages();
+        } else if (!this.messageSignals.hasMore()) {
+          // With pages still unloaded the new message belongs after them; scrolling down will reach it
+          this.messageSignals.addMessage(event.message);
+        }
+      });
   }
 
   loadMessages(): void {
     this.messageSignals.setLoading(true);
     this.messageSignals.setError(null);
 
-    this.messageService.getMessages().subscribe({
-      next: (messages) => {
-        this.messageSignals.setMessages(messages);
+    this.messageService.getMessages(null, MessageListComponent.PAGE_SIZE).subscribe({
+      next: (page) => {
+        this.messageSignals.setMessages(page.messages);
+        this.messageSignals.setNextCursor(page.nextCursor);
         this.messageSignals.setLoading(false);
       },
       error: (error) => {
@@ -37,6 +70,48 @@ export class MessageListComponent implements OnInit {
     });
   }
 
+  loadMore(): void {
+    const cursor = this.messageSignals.nextCursor();
+    if (!cursor || this.messageSignals.loading()) {
+      return;
+    }
+
+    this.messageSignals.setLoading(true);
+    this.messageSignals.setError(null);
+
+    this.messageService.getMessages(cursor, MessageListComponent.PAGE_SIZE).subscribe({
+      next: (page) => {
+        this.messageSignals.appendMessages(page.messages);
+        this.messageSignals.setNextCursor(page.nextCursor);
+        this.messageSignals.setLoading(false);
+        // A page that was short or mostly duplicates may still leave the end in view, and no
+        // further scroll event would come to fetch the next one
+        this.loadMoreIfNearEnd();
+      },
+      error: (error) => {
+        this.messageSignals.setError(error.message);
+        this.messageSignals.setLoading(false);
+      }
+    });
+  }
+
+  onScrolled(viewport: CdkVirtualScrollViewport): void {
+    this.viewport = viewport;
+    this.loadMoreIfNearEnd();
+  }
+
+  // Compares against the store rather than the viewport, which only sees appended rows after rendering
+  private loadMoreIfNearEnd(): void {
+    if (this.viewport
+      && this.viewport.getRenderedRange().end + MessageListComponent.PREFETCH_ROWS >= this.messageSignals.messageCount()) {
+      this.loadMore();
+    }
+  }
+
+  trackById(_index: number, message: Message): number {
+    return message.id;
+  }
+
   selectMessage(message: Message): void {
     this.messageSignals.selectMessage(message);
   }
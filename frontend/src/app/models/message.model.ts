@@ -13,3 +13,18 @@ export interface MessageResponse {
   content: string;
   createdAt: string;
 }
+
+export interface MessagePageResponse {
+  items: MessageResponse[];
+  nextCursor: string | null;
+}
+
+export interface MessagePage {
+  messages: Message[];
+  nextCursor: string | null;
+}
+
+export type MessageStreamEvent =
+  | { type: 'message'; message: Message }
+  // The server could not replay what was missed; reload the list
+  | { type: 'reset' };
@@ -1,9 +1,16 @@
 import { Injectable } from '@angular/core';
-import { HttpClient, HttpErrorResponse } from '@angular/common/http';
+import { HttpClient, HttpErrorResponse, HttpParams } from '@angular/common/http';
 import { Observable, throwError } from 'rxjs';
 import { catchError, map, retry } from 'rxjs/operators';
 import { environment } from '../../environments/environment';
-import { Message, CreateMessageCommand, MessageResponse } from '../models/message.model';
+import {
+  Message,
+  CreateMessageCommand,
+  MessagePage,
+  MessagePageResponse,
+  MessageResponse,
+  MessageStreamEvent
+} from '../models/message.model';
 
 @Injectable({
   providedIn: 'root'
@@ -13,9 +20,18 @@ export class MessageService {
 
   constructor(private http: HttpClient) {}
 
-  getMessages(): Observable<Message[]> {
-    return this.http.get<MessageResponse[]>(this.apiUrl).pipe(
-      map(responses => responses.map(this.mapResponseToMessage)),
+  // Pages are served with an ETag and Cache-Control: no-cache, so the browser revalidates every
+  // request itself and an unchanged page costs a 304. Do not add cache-busting params or headers here.
+  getMessages(cursor?: string | null, size = 20): Observable<MessagePage> {
+    let params = new HttpParams().set('size', size);
+    if (cursor) {
+      params = params.set('cursor', cursor);
+    }
+    return this.http.get<MessagePageResponse>(this.apiUrl, { params }).pipe(
+      map(page => ({
+        messages: page.items.map(this.mapResponseToMessage),
+        nextCursor: page.nextCursor
+      })),
       retry(2),
       catchError(this.handleError)
     );
@@ -29,6 +45,17 @@ export class MessageService {
     );
   }
 
+  // One request however many ids: the server reads them from its cache in a single round-trip.
+  // Unknown ids are left out; the rest come back in the order asked for.
+  getMessagesByIds(ids: number[]): Observable<Message[]> {
+    const params = new HttpParams().set('ids', ids.join(','));
+    return this.http.get<MessageResponse[]>(this.apiUrl, { params }).pipe(
+      map(messages => messages.map(this.mapResponseToMessage)),
+      retry(2),
+      catchError(this.handleError)
+    );
+  }
+
   createMessage(command: CreateMessageCommand): Observable<Message> {
     return this.http.post<MessageResponse>(this.apiUrl, command).pipe(
       map(this.mapResponseToMessage),
@@ -36,6 +63,27 @@ export class MessageService {
     );
   }
 
+  /**
+   * Live feed of newly saved messages over Server-Sent Events. EventSource reconnects on its own and
+   * sends Last-Event-ID, so the server replays anything missed while disconnected.
+   */
+  streamMessages(): Observable<MessageStreamEvent> {
+    return new Observable<MessageStreamEvent>(subscriber => {
+      if (typeof EventSource === 'undefined') {
+        // Server-side rendering and test environments have no EventSource
+        subscriber.complete();
+        return;
+      }
+      const source = new EventSource(`${this.apiUrl}/stream`);
+      source.addEventListener('message', event => {
+        const response = JSON.parse((event as MessageEvent<string>).data) as MessageResponse;
+        subscriber.next({ type: 'message', message: this.mapResponseToMessage(response) });
+      });
+      source.addEventListener('reset', () => subscriber.next({ type: 'reset' }));
+      return () => source.close();
+    });
+  }
+
   private mapResponseToMessage(response: MessageResponse): Message {
     return {
       id: response.id,
@@ -0,0 +1,74 @@
+import { computed } from '@angular/core';
+import { MessageSignals } from './message.signals';
+import { Message } from '../models/message.model';
+
+function message(id: number): Message {
+  return { id, content: `Message ${id}`, createdAt: new Date('2026-01-01T00:00:00Z') };
+}
+
+describe('MessageSignals', () => {
+  let signals: MessageSignals;
+
+  beforeEach(() => {
+    signals = new MessageSignals();
+  });
+
+  it('should keep each message once, in arrival order', () => {
+    signals.setMessages([message(1), message(2)]);
+    signals.appendMessages([message(2), message(3)]);
+    signals.addMessage(message(1));
+
+    expect(signals.messages().map(m => m.id)).toEqual([1, 2, 3]);
+    expect(signals.messageCount()).toBe(3);
+    expect(signals.hasMessage(3)).toBe(true);
+    expect(signals.getMessage(2)?.content).toBe('Message 2');
+  });
+
+  it('should return the same array but still notify readers when it changes', () => {
+    let reads = 0;
+    const reader = computed(() => {
+      reads++;
+      return signals.messages();
+    });
+    signals.setMessages([message(1)]);
+    const first = reader();
+
+    signals.appendMessages([message(2)]);
+    const second = reader();
+
+    expect(second).toBe(first);
+    expect(second.length).toBe(2);
+    expect(reads).toBe(2);
+  });
+
+  it('should not notify readers when only duplicates arrive', () => {
+    let reads = 0;
+    const reader = computed(() => {
+      reads++;
+      return signals.messages();
+    });
+    signals.setMessages([message(1)]);
+    reader();
+
+    signals.appendMessages([message(1)]);
+    reader();
+
+    expect(reads).toBe(1);
+  });
+
+  it('should track the cursor of the next page', () => {
+    signals.setMessages([message(1)]);
+    signals.setNextCursor('cursor-1');
+    expect(signals.hasMore()).toBe(true);
+
+    signals.appendMessages([message(2)]);
+    signals.setNextCursor(null);
+    expect(signals.hasMore()).toBe(false);
+    expect(signals.nextCursor()).toBeNull();
+
+    signals.setNextCursor('cursor-2');
+    signals.clearMessages();
+    expect(signals.hasMessages()).toBe(false);
+    expect(signals.hasMore()).toBe(false);
+  });
+});
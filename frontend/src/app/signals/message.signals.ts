@@ -5,30 +5,67 @@ import { Message } from '../models/message.model';
   providedIn: 'root'
 })
 export class MessageSignals {
+  // The list is append-only and can hold tens of thousands of messages, so it is kept in place
+  // instead of being copied on every insert; _version tells readers that it changed.
+  private readonly _items: Message[] = [];
+  private readonly _byId = new Map<number, Message>();
+  private _version = signal(0);
+
   // State signals
-  private _messages = signal<Message[]>([]);
   private _loading = signal<boolean>(false);
   private _error = signal<string | null>(null);
   private _selectedMessage = signal<Message | null>(null);
+  private _nextCursor = signal<string | null>(null);
 
-  // Read-only computed signals
-  readonly messages = this._messages.asReadonly();
+  // Read-only computed signals. messages always returns the same array, so it must not be compared
+  // by reference; readers are notified on every change and must not modify it.
+  readonly messages = computed<Message[]>(() => {
+    this._version();
+    return this._items;
+  }, { equal: () => false });
   readonly loading = this._loading.asReadonly();
   readonly error = this._error.asReadonly();
   readonly selectedMessage = this._selectedMessage.asReadonly();
+  readonly nextCursor = this._nextCursor.asReadonly();
 
   // Computed signals
-  readonly messageCount = computed(() => this._messages().length);
-  readonly hasMessages = computed(() => this._messages().length > 0);
+  readonly messageCount = computed(() => this.messages().length);
+  readonly hasMessages = computed(() => this.messages().length > 0);
   readonly hasError = computed(() => this._error() !== null);
+  readonly hasMore = computed(() => this._nextCursor() !== null);
+
+  // Lookups
+  getMessage(id: number): Message | undefined {
+    this._version();
+    return this._byId.get(id);
+  }
+
+  hasMessage(id: number): boolean {
+    this._version();
+    return this._byId.has(id);
+  }
 
   // Update methods
   setMessages(messages: Message[]): void {
-    this._messages.set(messages);
+    this._items.length = 0;
+    this._byId.clear();
+    this.push(messages);
+    this._version.update(version => version + 1);
   }
 
+  appendMessages(messages: Message[]): void {
+    if (this.push(messages)) {
+      this._version.update(version => version + 1);
+    }
+  }
+
+  setNextCursor(cursor: string | null): void {
+    this._nextCursor.set(cursor);
+  }
+
+  // The same message can arrive from both the create response and the live stream
   addMessage(message: Message): void {
-    this._messages.update(messages => [...messages, message]);
+    this.appendMessages([message]);
   }
 
   setLoading(loading: boolean): void {
@@ -44,6 +81,19 @@ export class MessageSignals {
   }
 
   clearMessages(): void {
-    this._messages.set([]);
+    this.setMessages([]);
+    this._nextCursor.set(null);
+  }
+
+  // Appends messages not seen before; returns whether any were
+  private push(messages: Message[]): boolean {
+    const before = this._items.length;
+    for (const message of messages) {
+      if (!this._byId.has(message.id)) {
+        this._byId.set(message.id, message);
+        this._items.push(message);
+      }
+    }
+    return this._items.length > before;
   }
 }